@@ -0,0 +1,55 @@
+package com.example.java2json;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 注释文本中空白的处理：旧的正则替换与现在的单次遍历折叠空白对比，不涉及 PSI。
+ * 在真实 JavaDoc PSI 上的完整提取见 PsiShapeBenchmark。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DocCommentBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int lines;
+
+    private String commentText;
+    private String[] dataTokens;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("/**\n");
+        dataTokens = new String[lines];
+        for (int i = 0; i < lines; i++) {
+            dataTokens[i] = "Line " + i + " of the field description, price * quantity";
+            sb.append("     * ").append(dataTokens[i]).append('\n');
+        }
+        commentText = sb.append("     */").toString();
+    }
+
+    @Benchmark
+    public String legacyRegex() {
+        return commentText.replaceAll("/\\*\\*|\\*/|\\*", "").trim();
+    }
+
+    @Benchmark
+    public String collapseTokens() {
+        StringBuilder sb = new StringBuilder();
+        for (String token : dataTokens) {
+            DocCommentExtractor.appendCollapsed(sb, token);
+            DocCommentExtractor.appendCollapsed(sb, "\n");
+        }
+        DocCommentExtractor.trimTrailingSpace(sb);
+        return sb.toString();
+    }
+}
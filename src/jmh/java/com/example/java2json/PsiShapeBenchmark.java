@@ -0,0 +1,157 @@
+package com.example.java2json;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.IdeaProjectTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.JavaCodeInsightTestFixture;
+import com.intellij.testFramework.fixtures.JavaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.testFramework.fixtures.TestFixtureBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在轻量测试项目的真实 PSI 上衡量生成 JSON 的热路径：把根类编译成类结构图再渲染（没有缓存和缓存已预热两种），
+ * 以及 DocCommentExtractor 对 JavaDoc token 的遍历与旧的正则替换对比。
+ * DTO 组成环并互相引用，字段带多行注释、{@code {@link}}、{@code {@code}} 和 {@code @deprecated}。
+ * 需要与 test 任务相同的 IDE 沙箱参数，见 build.gradle 中的 jmh 配置。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PsiShapeBenchmark {
+    private static final int PACKAGE_COUNT = 10;
+
+    @Param({"100", "1000"})
+    public int classes;
+
+    private JavaCodeInsightTestFixture fixture;
+    private Project project;
+    private PsiClass root;
+    private ClassShapeCache warmCache;
+    private final List<PsiDocComment> comments = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        TestFixtureBuilder<IdeaProjectTestFixture> builder = IdeaTestFixtureFactory.getFixtureFactory()
+                .createLightFixtureBuilder(LightJavaCodeInsightFixtureTestCase.JAVA_17, "PsiShapeBenchmark");
+        fixture = JavaTestFixtureFactory.getFixtureFactory().createCodeInsightFixture(builder.getFixture());
+        EdtTestUtil.runInEdtAndWait(() -> {
+            fixture.setUp();
+            for (int i = 0; i < classes; i++) {
+                fixture.addFileToProject(packageOf(i).replace('.', '/') + "/Dto" + i + ".java", dtoSource(i));
+            }
+        });
+        project = fixture.getProject();
+        ReadAction.run(() -> {
+            root = fixture.findClass(packageOf(0) + ".Dto0");
+            for (int i = 0; i < classes; i++) {
+                for (PsiField field : fixture.findClass(packageOf(i) + ".Dto" + i).getFields()) {
+                    if (field.getDocComment() != null) {
+                        comments.add(field.getDocComment());
+                    }
+                }
+            }
+        });
+        warmCache = ClassShapeCache.getInstance(project);
+        warmCache.clear();
+        ReadAction.run(() -> new ShapeCompiler(project, warmCache).compile(root, GenerationBudget.DEFAULT.getCompileBudget()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        comments.clear();
+        EdtTestUtil.runInEdtAndWait(() -> fixture.tearDown());
+    }
+
+    // 没有缓存：每个类都从 PSI 编译
+    @Benchmark
+    public void compileAndRenderCold() throws IOException {
+        render(ReadAction.compute(() -> new ShapeCompiler(project)
+                .compile(root, GenerationBudget.DEFAULT.getCompileBudget())));
+    }
+
+    // 与 Java2JsonAction 相同，使用已预热的项目级缓存
+    @Benchmark
+    public void compileAndRenderWarm() throws IOException {
+        render(ReadAction.compute(() -> new ShapeCompiler(project, warmCache)
+                .compile(root, GenerationBudget.DEFAULT.getCompileBudget())));
+    }
+
+    // 不经过 CachedValue，每次都遍历 token
+    @Benchmark
+    public void extractComments(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            for (PsiDocComment comment : comments) {
+                blackhole.consume(DocCommentExtractor.extractUncached(comment));
+            }
+        });
+    }
+
+    @Benchmark
+    public void legacyRegexComments(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            for (PsiDocComment comment : comments) {
+                blackhole.consume(comment.getText().replaceAll("/\\*\\*|\\*/|\\*", "").trim());
+            }
+        });
+    }
+
+    private static void render(ClassShape shape) throws IOException {
+        JsonOutput.write(Writer.nullWriter(), gen -> new ShapeJsonRenderer(GenerationBudget.DEFAULT).writeRoot(gen, shape), true);
+    }
+
+    private static String packageOf(int i) {
+        return "bench.p" + (i % PACKAGE_COUNT);
+    }
+
+    private String dtoSource(int i) {
+        String next = packageOf((i + 1) % classes) + ".Dto" + (i + 1) % classes;
+        String child = packageOf((i * 7 + 3) % classes) + ".Dto" + (i * 7 + 3) % classes;
+        return "package " + packageOf(i) + ";\n" +
+                "\n" +
+                "import java.util.List;\n" +
+                "\n" +
+                "public class Dto" + i + " {\n" +
+                "    /**\n" +
+                "     * 编号，\n" +
+                "     * 全局唯一\n" +
+                "     */\n" +
+                "    private Long id;\n" +
+                "    /** 名称，见 {@code name * 2} */\n" +
+                "    private String name;\n" +
+                "    /** 下一个，见 {@link " + next + " 下一个节点} */\n" +
+                "    private " + next + " next;\n" +
+                "    /**\n" +
+                "     * 子节点\n" +
+                "     * @see " + child + "\n" +
+                "     */\n" +
+                "    private List<" + child + "> children;\n" +
+                "    /**\n" +
+                "     * 旧名称\n" +
+                "     * @deprecated 使用 {@link #name}\n" +
+                "     */\n" +
+                "    private String legacyName;\n" +
+                "}\n";
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.java2json;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 类结构图的遍历与 Jackson 序列化：输出到 String（包含字符串物化）和输出到空 Writer（只有遍历和序列化）。
+ * 使用足够大的上限渲染整张图，默认的嵌套层数会在第 5 层截断 deep 和 cyclic。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RenderBenchmark {
+    // 覆盖 deep(20) 和 50 个类的环，对象数和字节数不设限
+    static final GenerationBudget UNBOUNDED = new GenerationBudget(64, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    @Param({"wide", "deep", "cyclic", "collections"})
+    public String graph;
+
+    @Param({"true", "false"})
+    public boolean pretty;
+
+    private ClassShape root;
+
+    @Setup
+    public void setUp() {
+        root = SyntheticShapes.create(graph);
+    }
+
+    @Benchmark
+    public String renderToString() throws IOException {
+        return JsonOutput.writeToString(gen -> new ShapeJsonRenderer(UNBOUNDED).writeRoot(gen, root), pretty);
+    }
+
+    @Benchmark
+    public void renderToNullWriter() throws IOException {
+        JsonOutput.write(Writer.nullWriter(), gen -> new ShapeJsonRenderer(UNBOUNDED).writeRoot(gen, root), pretty);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.java2json;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测数据生成的吞吐量：按记录模板写 NDJSON 到空 Writer，结果是每秒生成的记录数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SampleRecordBenchmark {
+    private static final int RECORDS = 1000;
+
+    @Param({"dto", "collections"})
+    public String graph;
+
+    private SampleRecordGenerator generator;
+
+    @Setup
+    public void setUp() {
+        ClassShape root = graph.equals("dto") ? SyntheticShapes.dto() : SyntheticShapes.collections(20, 10);
+        generator = new SampleRecordGenerator(root, SampleRecordGenerator.Options.DEFAULT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void writeRecords() throws IOException {
+        JsonOutput.write(Writer.nullWriter(), gen -> {
+            gen.setRootValueSeparator(null);
+            for (int i = 0; i < RECORDS; i++) {
+                generator.writeRecord(gen, i);
+                gen.writeRaw('\n');
+            }
+        }, false);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.java2json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试用的合成类结构图，不依赖 PSI。
+ */
+final class SyntheticShapes {
+
+    private SyntheticShapes() {
+    }
+
+    static ClassShape create(String kind) {
+        switch (kind) {
+            case "wide":
+                return wide(500);
+            case "deep":
+                return deep(20);
+            case "cyclic":
+                return cyclic(50);
+            case "collections":
+                return collections(100, 10);
+            default:
+                throw new IllegalArgumentException("Unknown graph: " + kind);
+        }
+    }
+
+    // 一个类，n 个带注释的普通字段
+    static ClassShape wide(int fieldCount) {
+        ClassShape shape = new ClassShape("bench.Wide");
+        List<FieldShape> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            fields.add(new FieldShape("field" + i, "Field number " + i, TypeShape.VALUE));
+        }
+        shape.complete(fields);
+        return shape;
+    }
+
+    // 每层一个普通字段加一个指向下一层的字段
+    static ClassShape deep(int levels) {
+        ClassShape next = null;
+        for (int level = levels; level >= 0; level--) {
+            ClassShape shape = new ClassShape("bench.Level" + level);
+            List<FieldShape> fields = new ArrayList<>(2);
+            fields.add(new FieldShape("name", "Level " + level + " name", TypeShape.VALUE));
+            if (next != null) {
+                fields.add(new FieldShape("child", "Level " + (level + 1), TypeShape.objectOf(next)));
+            }
+            shape.complete(fields);
+            next = shape;
+        }
+        return next;
+    }
+
+    // n 个类组成环，每个类还引用自身和环的起点
+    static ClassShape cyclic(int size) {
+        ClassShape[] ring = new ClassShape[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new ClassShape("bench.Node" + i);
+        }
+        for (int i = 0; i < size; i++) {
+            List<FieldShape> fields = new ArrayList<>(4);
+            fields.add(new FieldShape("id", "Node id", TypeShape.VALUE));
+            fields.add(new FieldShape("next", "Next node", TypeShape.objectOf(ring[(i + 1) % size])));
+            fields.add(new FieldShape("self", "Self reference", TypeShape.objectOf(ring[i])));
+            fields.add(new FieldShape("head", "Ring head", TypeShape.objectOf(ring[0])));
+            ring[i].complete(fields);
+        }
+        return ring[0];
+    }
+
+    // 典型的订单 DTO：各种值类型、枚举、日期时间，以及一个明细列表
+    static ClassShape dto() {
+        ClassShape item = new ClassShape("bench.Item");
+        item.complete(List.of(
+                new FieldShape("sku", "SKU", TypeShape.valueOf(TypeShape.ValueType.STRING)),
+                new FieldShape("quantity", "Quantity", TypeShape.valueOf(TypeShape.ValueType.INTEGER)),
+                new FieldShape("price", "Unit price", TypeShape.valueOf(TypeShape.ValueType.NUMBER))));
+        ClassShape order = new ClassShape("bench.Order");
+        order.complete(List.of(
+                new FieldShape("id", "Order id", TypeShape.valueOf(TypeShape.ValueType.INTEGER)),
+                new FieldShape("customer", "Customer name", TypeShape.valueOf(TypeShape.ValueType.STRING)),
+                new FieldShape("amount", "Total amount", TypeShape.valueOf(TypeShape.ValueType.NUMBER)),
+                new FieldShape("paid", "Paid", TypeShape.valueOf(TypeShape.ValueType.BOOLEAN)),
+                new FieldShape("status", "Status", TypeShape.enumOf("bench.Status", List.of("NEW", "PAID", "SHIPPED"))),
+                new FieldShape("createdAt", "Created at", TypeShape.formatted(TypeShape.ValueFormat.INSTANT)),
+                new FieldShape("deliveryDay", "Delivery day", TypeShape.formatted(TypeShape.ValueFormat.DATE)),
+                new FieldShape("token", "Token", TypeShape.formatted(TypeShape.ValueFormat.UUID)),
+                new FieldShape("items", "Items", TypeShape.arrayOf(TypeShape.objectOf(item)))));
+        return order;
+    }
+
+    // n 个集合字段，元素是带 m 个字段的类；另有 Map 和标准类型集合
+    static ClassShape collections(int collectionFields, int elementFields) {
+        ClassShape element = new ClassShape("bench.Element");
+        List<FieldShape> elementFieldList = new ArrayList<>(elementFields);
+        for (int i = 0; i < elementFields; i++) {
+            elementFieldList.add(new FieldShape("value" + i, "Element value " + i, TypeShape.VALUE));
+        }
+        element.complete(elementFieldList);
+
+        ClassShape shape = new ClassShape("bench.Collections");
+        List<FieldShape> fields = new ArrayList<>(collectionFields);
+        for (int i = 0; i < collectionFields; i++) {
+            TypeShape type;
+            switch (i % 4) {
+                case 0:
+                    type = TypeShape.arrayOf(TypeShape.objectOf(element));
+                    break;
+                case 1:
+                    type = TypeShape.VALUE_ARRAY;
+                    break;
+                case 2:
+                    type = TypeShape.MAP;
+                    break;
+                default:
+                    type = TypeShape.arrayOf(TypeShape.arrayOf(TypeShape.objectOf(element)));
+                    break;
+            }
+            fields.add(new FieldShape("items" + i, "Collection " + i, type));
+        }
+        shape.complete(fields);
+        return shape;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.java2json;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批量导出 JSON 样例：每个类一个文件，或者所有类合并成一个 NDJSON 文件。
+ * 类结构在有界线程池中并行编译，每个类一个 non-blocking read action；渲染和写文件在读操作之外进行。
+ * 由调用方在后台线程中调用。
+ */
+public class BulkJsonExporter {
+    private static final Logger LOG = Logger.getInstance(BulkJsonExporter.class);
+
+    private final Project project;
+    private final int parallelism;
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    public BulkJsonExporter(Project project) {
+        this(project, defaultParallelism());
+    }
+
+    public BulkJsonExporter(Project project, int parallelism) {
+        this.project = project;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    // 留一个核给 IDE 本身
+    public static int defaultParallelism() {
+        return Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    // 每个类写一个 <全限定名>.json 文件
+    public Summary exportFiles(List<SmartPsiElementPointer<PsiClass>> classes, Path outputDir, ProgressIndicator indicator) throws IOException {
+        Files.createDirectories(outputDir);
+        return run(classes, indicator, shape -> {
+            Path file = outputDir.resolve(shape.getQualifiedName() + ".json");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                JsonOutput.write(channel, gen -> new ShapeJsonRenderer().writeRoot(gen, shape), true);
+                bytesWritten.addAndGet(channel.size());
+            }
+            return null;
+        }, null);
+    }
+
+    // 所有类写入同一个 NDJSON 文件，每行 {"class": ..., "sample": {...}}，按类名顺序输出
+    public Summary exportNdjson(List<SmartPsiElementPointer<PsiClass>> classes, Path bundleFile, ProgressIndicator indicator) throws IOException {
+        Path parent = bundleFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(bundleFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
+            Summary summary = run(classes, indicator, shape -> JsonOutput.writeToString(gen -> {
+                gen.writeStartObject();
+                gen.writeStringField("class", shape.getQualifiedName());
+                gen.writeFieldName("sample");
+                new ShapeJsonRenderer().writeRoot(gen, shape);
+                gen.writeEndObject();
+            }, false), line -> {
+                writer.write(line);
+                writer.write('\n');
+            });
+            writer.flush();
+            bytesWritten.addAndGet(channel.size());
+            return summary;
+        }
+    }
+
+    private Summary run(List<SmartPsiElementPointer<PsiClass>> classes, ProgressIndicator indicator,
+                        ShapeHandler handler, LineSink sink) throws IOException {
+        long start = System.nanoTime();
+        bytesWritten.set(0);
+        ClassShapeCache shapeCache = ClassShapeCache.getInstance(project);
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Comment2JSON Export", parallelism);
+        List<Future<String>> futures = new ArrayList<>(classes.size());
+        List<String> failures = new ArrayList<>();
+        int succeeded = 0;
+        try {
+            for (SmartPsiElementPointer<PsiClass> pointer : classes) {
+                futures.add(executor.submit(() -> {
+                    // 工作线程数已经是并行度，每个类在自己的线程中顺序编译，不再占用 fork-join 线程池；
+                    // 导出过程中开始索引时等待索引完成，而不是让这个类失败
+                    ClassShape shape = ReadAction.nonBlocking(() -> {
+                                PsiClass psiClass = pointer.getElement();
+                                return psiClass != null && psiClass.isValid()
+                                        ? new ShapeCompiler(project, shapeCache).sequential().compile(psiClass) : null;
+                            })
+                            .inSmartMode(project)
+                            .wrapProgress(indicator)
+                            .expireWith(project)
+                            .executeSynchronously();
+                    if (shape == null) {
+                        throw new IOException("Class is no longer valid");
+                    }
+                    return handler.handle(shape);
+                }));
+            }
+
+            // 按提交顺序取结果，NDJSON 的行顺序因此是确定的
+            for (int i = 0; i < futures.size(); i++) {
+                indicator.checkCanceled();
+                String name = describe(classes.get(i));
+                indicator.setText2(name);
+                try {
+                    String line = await(futures.get(i), indicator);
+                    if (sink != null) {
+                        sink.accept(line);
+                    }
+                    succeeded++;
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof ProcessCanceledException) {
+                        throw (ProcessCanceledException) cause;
+                    }
+                    LOG.warn("Comment2JSON export failed for " + name, cause);
+                    failures.add(name + ": " + cause);
+                }
+                indicator.setFraction((i + 1) / (double) futures.size());
+            }
+        } finally {
+            for (Future<String> future : futures) {
+                future.cancel(false);
+            }
+            executor.shutdown();
+        }
+        Summary summary = new Summary(classes.size(), succeeded, failures,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), bytesWritten.get());
+        LOG.info("Comment2JSON export: " + summary);
+        shapeCache.logStatistics();
+        return summary;
+    }
+
+    // 等待结果时保持对取消的响应；indicator 可以为 null
+    static <T> T await(Future<T> future, ProgressIndicator indicator) throws ExecutionException {
+        while (true) {
+            if (indicator != null) {
+                indicator.checkCanceled();
+            }
+            try {
+                return future.get(50, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignored) {
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            }
+        }
+    }
+
+    private static String describe(SmartPsiElementPointer<PsiClass> pointer) {
+        String name = ReadAction.compute(() -> {
+            PsiClass psiClass = pointer.getElement();
+            return psiClass != null ? psiClass.getQualifiedName() : null;
+        });
+        return name != null ? name : String.valueOf(pointer.getVirtualFile());
+    }
+
+    @FunctionalInterface
+    private interface ShapeHandler {
+        String handle(ClassShape shape) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface LineSink {
+        void accept(String line) throws IOException;
+    }
+
+    public static final class Summary {
+        private final int total;
+        private final int succeeded;
+        private final List<String> failures;
+        private final long elapsedMillis;
+        private final long bytes;
+
+        Summary(int total, int succeeded, List<String> failures, long elapsedMillis, long bytes) {
+            this.total = total;
+            this.succeeded = succeeded;
+            this.failures = Collections.unmodifiableList(failures);
+            this.elapsedMillis = elapsedMillis;
+            this.bytes = bytes;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        public List<String> getFailures() {
+            return failures;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public double getClassesPerSecond() {
+            return elapsedMillis == 0 ? succeeded : succeeded * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("exported %d/%d classes in %.1f s (%.1f classes/s, %d KB), %d failed",
+                    succeeded, total, elapsedMillis / 1000.0, getClassesPerSecond(), bytes / 1024, failures.size());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.java2json;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 收集包、目录、文件或模块下可以生成 JSON 的类。必须在读操作中调用。
+ */
+public final class ClassCollector {
+    private final Set<PsiClass> classes = new LinkedHashSet<>();
+
+    public ClassCollector add(PsiElement element) {
+        ProgressManager.checkCanceled();
+        if (element instanceof PsiClass) {
+            addClass((PsiClass) element);
+        } else if (element instanceof PsiClassOwner) {
+            for (PsiClass psiClass : ((PsiClassOwner) element).getClasses()) {
+                addClass(psiClass);
+            }
+        } else if (element instanceof PsiDirectory) {
+            PsiDirectory directory = (PsiDirectory) element;
+            for (PsiFile file : directory.getFiles()) {
+                add(file);
+            }
+            for (PsiDirectory subdirectory : directory.getSubdirectories()) {
+                add(subdirectory);
+            }
+        } else if (element instanceof PsiPackage) {
+            PsiPackage psiPackage = (PsiPackage) element;
+            for (PsiDirectory directory : psiPackage.getDirectories(GlobalSearchScope.projectScope(psiPackage.getProject()))) {
+                add(directory);
+            }
+        }
+        return this;
+    }
+
+    // 模块下的全部源码目录（不含测试目录）
+    public ClassCollector add(Module module) {
+        PsiManager psiManager = PsiManager.getInstance(module.getProject());
+        for (VirtualFile root : ModuleRootManager.getInstance(module).getSourceRoots(false)) {
+            PsiDirectory directory = psiManager.findDirectory(root);
+            if (directory != null) {
+                add(directory);
+            }
+        }
+        return this;
+    }
+
+    private void addClass(PsiClass psiClass) {
+        if (isExportable(psiClass)) {
+            classes.add(psiClass);
+        }
+    }
+
+    // 接口、注解、枚举和匿名类没有可输出的字段结构
+    static boolean isExportable(PsiClass psiClass) {
+        return psiClass.getQualifiedName() != null &&
+                !psiClass.isInterface() &&
+                !psiClass.isEnum() &&
+                !psiClass.isAnnotationType();
+    }
+
+    public int size() {
+        return classes.size();
+    }
+
+    // 按全限定名排序，保证每次导出的顺序一致
+    public List<SmartPsiElementPointer<PsiClass>> toPointers() {
+        List<PsiClass> sorted = new ArrayList<>(classes);
+        sorted.sort(Comparator.comparing(PsiClass::getQualifiedName));
+        SmartPointerManager pointerManager = null;
+        List<SmartPsiElementPointer<PsiClass>> pointers = new ArrayList<>(sorted.size());
+        for (PsiClass psiClass : sorted) {
+            if (pointerManager == null) {
+                pointerManager = SmartPointerManager.getInstance(psiClass.getProject());
+            }
+            pointers.add(pointerManager.createSmartPsiElementPointer(psiClass));
+        }
+        return pointers;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.java2json;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiTypeElement;
+import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按类的全限定名索引源码中声明的字段：字段名、声明的类型文本和提取好的注释文本。
+ * 生成 JSON 时字段类型来自 stub，注释来自这个索引，不需要为了读取 JavaDoc 解析整个源文件。
+ * 只有修改过的文件会重新建立索引；索引格式变化时增加 {@link #VERSION}。
+ */
+public class ClassFieldIndex extends FileBasedIndexExtension<String, List<ClassFieldIndex.IndexedField>> {
+    public static final ID<String, List<IndexedField>> NAME = ID.create("comment2json.class.fields");
+    private static final int VERSION = 2;
+
+    @Override
+    public @NotNull ID<String, List<IndexedField>> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, List<IndexedField>, FileContent> getIndexer() {
+        return inputData -> {
+            PsiFile file = inputData.getPsiFile();
+            if (!(file instanceof PsiJavaFile)) {
+                return Collections.emptyMap();
+            }
+            Map<String, List<IndexedField>> result = new HashMap<>();
+            for (PsiClass psiClass : ((PsiJavaFile) file).getClasses()) {
+                indexClass(psiClass, result);
+            }
+            return result;
+        };
+    }
+
+    private static void indexClass(PsiClass psiClass, Map<String, List<IndexedField>> result) {
+        String qualifiedName = psiClass.getQualifiedName();
+        if (qualifiedName != null) {
+            List<IndexedField> fields = new ArrayList<>();
+            for (PsiField field : psiClass.getFields()) {
+                // 与 ShapeCompiler 一致，只跳过静态字段和常量，final 实例字段也要索引
+                if (field.hasModifierProperty(PsiModifier.STATIC)) {
+                    continue;
+                }
+                PsiTypeElement typeElement = field.getTypeElement();
+                PsiDocComment docComment = field.getDocComment();
+                fields.add(new IndexedField(field.getName(),
+                        typeElement != null ? typeElement.getText() : field.getType().getPresentableText(),
+                        docComment != null ? DocCommentExtractor.extractUncached(docComment) : null));
+            }
+            result.put(qualifiedName, fields);
+        }
+        for (PsiClass inner : psiClass.getInnerClasses()) {
+            indexClass(inner, result);
+        }
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<List<IndexedField>> getValueExternalizer() {
+        return FieldsExternalizer.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * 读取源码中某个类自己声明的字段（不含继承的），字段名 -> 字段。
+     * 索引不可用（索引中、编译后的类、没有文件）时返回 null，调用方回退到 PSI。
+     */
+    public static Map<String, IndexedField> getDeclaredFields(Project project, PsiClass psiClass) {
+        String qualifiedName = psiClass.getQualifiedName();
+        PsiFile file = psiClass.getContainingFile();
+        VirtualFile virtualFile = file != null ? file.getVirtualFile() : null;
+        if (qualifiedName == null || virtualFile == null || psiClass instanceof PsiCompiledElement ||
+            !(file instanceof PsiJavaFile) || DumbService.isDumb(project)) {
+            return null;
+        }
+        List<List<IndexedField>> values = FileBasedIndex.getInstance()
+                .getValues(NAME, qualifiedName, GlobalSearchScope.fileScope(project, virtualFile));
+        if (values.isEmpty()) {
+            return null;
+        }
+        Map<String, IndexedField> fields = new HashMap<>();
+        for (IndexedField field : values.get(0)) {
+            fields.put(field.getName(), field);
+        }
+        return fields;
+    }
+
+    public static final class IndexedField {
+        private final String name;
+        private final String typeText;
+        private final String comment;
+
+        IndexedField(String name, String typeText, String comment) {
+            this.name = name;
+            this.typeText = typeText;
+            this.comment = comment;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // 源码中写的类型文本，没有经过解析，例如 "List<Address>"
+        public String getTypeText() {
+            return typeText;
+        }
+
+        // 没有文档注释时返回 null
+        public String getComment() {
+            return comment;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof IndexedField)) {
+                return false;
+            }
+            IndexedField that = (IndexedField) o;
+            return name.equals(that.name) && typeText.equals(that.typeText) &&
+                   (comment == null ? that.comment == null : comment.equals(that.comment));
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + typeText.hashCode();
+        }
+    }
+
+    // 字段数 + 每个字段的名称、类型文本、是否有注释、注释
+    private static final class FieldsExternalizer implements DataExternalizer<List<IndexedField>> {
+        static final FieldsExternalizer INSTANCE = new FieldsExternalizer();
+
+        @Override
+        public void save(@NotNull DataOutput out, List<IndexedField> fields) throws IOException {
+            DataInputOutputUtil.writeINT(out, fields.size());
+            for (IndexedField field : fields) {
+                IOUtil.writeUTF(out, field.name);
+                IOUtil.writeUTF(out, field.typeText);
+                out.writeBoolean(field.comment != null);
+                if (field.comment != null) {
+                    IOUtil.writeUTF(out, field.comment);
+                }
+            }
+        }
+
+        @Override
+        public List<IndexedField> read(@NotNull DataInput in) throws IOException {
+            int size = DataInputOutputUtil.readINT(in);
+            List<IndexedField> fields = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String name = IOUtil.readUTF(in);
+                String typeText = IOUtil.readUTF(in);
+                String comment = in.readBoolean() ? IOUtil.readUTF(in) : null;
+                fields.add(new IndexedField(name, typeText, comment));
+            }
+            return fields;
+        }
+    }
+}
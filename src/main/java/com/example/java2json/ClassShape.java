@@ -0,0 +1,90 @@
+package com.example.java2json;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 类结构图中的一个类节点。同一个类在整张图中只有一个节点，被所有引用它的字段共享。
+ * 节点先创建再填充字段（为了支持循环引用），填充完成后不可变。
+ * 超出编译深度的节点保持未展开状态，之后需要时再由 ShapeCompiler 展开。
+ */
+public final class ClassShape {
+    private final String qualifiedName;
+    private volatile List<FieldShape> fields = Collections.emptyList();
+    private volatile Set<String> superClasses = Collections.emptySet();
+    private volatile boolean complete;
+
+    ClassShape(String qualifiedName) {
+        this.qualifiedName = qualifiedName;
+    }
+
+    // 已完成、没有字段的节点，例如 java.* 类
+    static ClassShape empty(String qualifiedName) {
+        ClassShape shape = new ClassShape(qualifiedName);
+        shape.complete(Collections.emptyList());
+        return shape;
+    }
+
+    synchronized boolean complete(List<FieldShape> fields) {
+        return complete(fields, Collections.emptySet());
+    }
+
+    // 多个线程可能同时展开同一个共享节点，只有第一次填充生效
+    // superClasses 是提供了继承字段的父类
+    synchronized boolean complete(List<FieldShape> fields, Set<String> superClasses) {
+        if (complete) {
+            return false;
+        }
+        this.fields = Collections.unmodifiableList(fields);
+        this.superClasses = Collections.unmodifiableSet(superClasses);
+        this.complete = true;
+        return true;
+    }
+
+    // 匿名类、局部类没有全限定名，返回 null
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public List<FieldShape> getFields() {
+        return fields;
+    }
+
+    Set<String> getSuperClasses() {
+        return superClasses;
+    }
+
+    // 这个节点的结构依赖的类：提供继承字段的父类、字段引用的类和枚举常量来自的枚举类
+    public Set<String> getDependencies() {
+        Set<String> dependencies = new HashSet<>(superClasses);
+        for (FieldShape field : fields) {
+            TypeShape type = field.getType();
+            while (type.getKind() == TypeShape.Kind.ARRAY && type.getElement() != null) {
+                type = type.getElement();
+            }
+            if (type.getKind() == TypeShape.Kind.OBJECT && type.getTarget().getQualifiedName() != null) {
+                dependencies.add(type.getTarget().getQualifiedName());
+            }
+            if (type.getEnumClass() != null) {
+                dependencies.add(type.getEnumClass());
+            }
+        }
+        return dependencies;
+    }
+
+    // 未展开或还在编译中的节点返回 false
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public boolean isJavaStandard() {
+        return qualifiedName != null && qualifiedName.startsWith("java.");
+    }
+
+    @Override
+    public String toString() {
+        return "ClassShape(" + qualifiedName + ", " + fields.size() + " fields)";
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.java2json;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootModificationTracker;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 项目级的类结构缓存：按类的全限定名缓存编译好的类节点，节点之间互相引用，构成共享的结构图。
+ * 类被修改时只失效这个类以及（直接或间接）依赖它的类；项目依赖发生变化时整体失效。
+ * 依赖库中的类按库根目录单独缓存，不参与 LRU 淘汰，只在库从项目中移除或者 jar 文件被替换时失效。
+ * 类被淘汰或失效时一起删除它指向依赖的边，依赖关系图的大小不超过缓存中的类的依赖总数。
+ */
+@Service(Service.Level.PROJECT)
+public final class ClassShapeCache implements Disposable {
+    private static final Logger LOG = Logger.getInstance(ClassShapeCache.class);
+
+    // 缓存的类数量上限，超过后按 LRU 淘汰
+    private static final int MAX_ENTRIES = 2000;
+
+    private final Project project;
+    private final LruCache<String, ClassShape> cache;
+    // 被依赖的类 -> 依赖它的类（字段类型引用它，或者从它继承字段）
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    // 缓存中的类 -> 登记时它依赖的类，类离开缓存时据此删除 dependents 中的边
+    private final Map<String, Collection<String>> dependencies = new HashMap<>();
+    // 库根目录 URL -> 该目录下的类；类名 -> 所在的库根目录
+    private final Map<String, LibraryRoot> libraryRoots = new HashMap<>();
+    private final Map<String, LibraryRoot> libraryClasses = new HashMap<>();
+    private long rootModificationCount = -1;
+    private volatile long modificationCount;
+    // 项目类缓存未命中、从库缓存取得的次数，不计入 LRU 的未命中
+    private long libraryHits;
+
+    public ClassShapeCache(Project project) {
+        this(project, MAX_ENTRIES);
+    }
+
+    ClassShapeCache(Project project, int maxEntries) {
+        this.project = project;
+        // 淘汰发生在 put 中，调用方已经持有这个对象的锁
+        this.cache = new LruCache<>(maxEntries) {
+            @Override
+            protected void onDropFromCache(String qualifiedName, ClassShape shape) {
+                dropEdges(qualifiedName);
+            }
+        };
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new ShapeCacheInvalidator(this), this);
+    }
+
+    public static ClassShapeCache getInstance(Project project) {
+        return project.getService(ClassShapeCache.class);
+    }
+
+    public ClassShape get(String qualifiedName) {
+        dropIfOutdated();
+        ClassShape shape = cache.getIfPresent(qualifiedName);
+        if (shape != null) {
+            return shape;
+        }
+        shape = getLibraryShape(qualifiedName);
+        if (shape == null) {
+            cache.recordMiss();
+        }
+        return shape;
+    }
+
+    private synchronized ClassShape getLibraryShape(String qualifiedName) {
+        LibraryRoot root = libraryClasses.get(qualifiedName);
+        if (root == null) {
+            return null;
+        }
+        if (!root.isUpToDate()) {
+            dropLibraryRoot(root);
+            return null;
+        }
+        ClassShape shape = root.shapes.get(qualifiedName);
+        if (shape != null) {
+            libraryHits++;
+        }
+        return shape;
+    }
+
+    // 库中的类没有源码，不会被编辑，只依赖库本身
+    public synchronized void putLibraryShape(VirtualFile root, String qualifiedName, ClassShape shape) {
+        dropIfOutdated();
+        LibraryRoot libraryRoot = libraryRoots.get(root.getUrl());
+        if (libraryRoot == null || !libraryRoot.isUpToDate()) {
+            if (libraryRoot != null) {
+                dropLibraryRoot(libraryRoot);
+            }
+            libraryRoot = new LibraryRoot(root);
+            libraryRoots.put(root.getUrl(), libraryRoot);
+        }
+        libraryRoot.shapes.put(qualifiedName, shape);
+        libraryClasses.put(qualifiedName, libraryRoot);
+    }
+
+    private void dropLibraryRoot(LibraryRoot root) {
+        libraryRoots.remove(root.root.getUrl(), root);
+        for (String qualifiedName : root.shapes.keySet()) {
+            libraryClasses.remove(qualifiedName, root);
+        }
+        // 引用了这些类的项目类一起失效
+        invalidate(root.shapes.keySet());
+    }
+
+    public void put(String qualifiedName, ClassShape shape) {
+        put(qualifiedName, shape, shape.getDependencies());
+    }
+
+    // dependencies 是这个类的结构所依赖的其他类，它们失效时这个类一起失效
+    public synchronized void put(String qualifiedName, ClassShape shape, Collection<String> dependencies) {
+        dropIfOutdated();
+        // 重新登记时替换旧的依赖
+        dropEdges(qualifiedName);
+        cache.put(qualifiedName, shape);
+        Set<String> edges = new HashSet<>();
+        for (String dependency : dependencies) {
+            if (!dependency.equals(qualifiedName) && edges.add(dependency)) {
+                dependents.computeIfAbsent(dependency, k -> new HashSet<>()).add(qualifiedName);
+            }
+        }
+        if (!edges.isEmpty()) {
+            this.dependencies.put(qualifiedName, edges);
+        }
+    }
+
+    // 删除类指向它的依赖的边。指向这个类的边保留：依赖它的类还在缓存中时，它被修改仍然要让它们失效
+    private void dropEdges(String qualifiedName) {
+        Collection<String> edges = dependencies.remove(qualifiedName);
+        if (edges == null) {
+            return;
+        }
+        for (String dependency : edges) {
+            Set<String> users = dependents.get(dependency);
+            if (users != null && users.remove(qualifiedName) && users.isEmpty()) {
+                dependents.remove(dependency);
+            }
+        }
+    }
+
+    // 依赖关系图中边的数量
+    synchronized int getDependencyEdgeCount() {
+        int count = 0;
+        for (Set<String> users : dependents.values()) {
+            count += users.size();
+        }
+        return count;
+    }
+
+    // 失效给定的类以及所有依赖它们的类，返回移除的缓存条目数
+    public synchronized int invalidate(Collection<String> qualifiedNames) {
+        modificationCount++;
+        int removed = 0;
+        Set<String> visited = new HashSet<>(qualifiedNames);
+        Deque<String> queue = new ArrayDeque<>(qualifiedNames);
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (cache.remove(name) != null) {
+                removed++;
+            }
+            dropEdges(name);
+            Set<String> users = dependents.remove(name);
+            if (users != null) {
+                for (String user : users) {
+                    if (visited.add(user)) {
+                        queue.add(user);
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        clearProjectShapes();
+        libraryRoots.clear();
+        libraryClasses.clear();
+    }
+
+    private void clearProjectShapes() {
+        modificationCount++;
+        cache.clear();
+        dependents.clear();
+        dependencies.clear();
+    }
+
+    // 每次失效或清空都会增加，用于判断缓存的结构是否可能发生了变化
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    public void logStatistics() {
+        LOG.info("Comment2JSON class shape cache: " + getStatistics());
+    }
+
+    synchronized String getStatistics() {
+        return cache + ", " + libraryClasses.size() + " library classes in " + libraryRoots.size() + " roots" +
+               ", libraryHits=" + libraryHits + ", dependencyEdges=" + getDependencyEdgeCount();
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+
+    // 项目依赖变化时，项目中的类全部失效，库只去掉不再属于项目的
+    private synchronized void dropIfOutdated() {
+        long rootCount = ProjectRootModificationTracker.getInstance(project).getModificationCount();
+        if (rootCount != rootModificationCount) {
+            clearProjectShapes();
+            ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+            for (LibraryRoot root : new ArrayList<>(libraryRoots.values())) {
+                if (!root.isUpToDate() || !fileIndex.isInLibraryClasses(root.root)) {
+                    dropLibraryRoot(root);
+                }
+            }
+            rootModificationCount = rootCount;
+        }
+    }
+
+    private static final class LibraryRoot {
+        final VirtualFile root;
+        final long stamp;
+        final Map<String, ClassShape> shapes = new HashMap<>();
+
+        LibraryRoot(VirtualFile root) {
+            this.root = root;
+            this.stamp = stampOf(root);
+        }
+
+        // jar 被替换（例如重新构建的 SNAPSHOT）后时间戳会变化
+        boolean isUpToDate() {
+            return root.isValid() && stampOf(root) == stamp;
+        }
+
+        private static long stampOf(VirtualFile root) {
+            VirtualFile jar = VfsUtilCore.getVirtualFileForJar(root);
+            return jar != null ? jar.getTimeStamp() : root.getTimeStamp();
+        }
+    }
+}
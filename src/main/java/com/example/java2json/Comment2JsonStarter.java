@@ -0,0 +1,352 @@
+package com.example.java2json;
+
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 无界面模式：在 CI 中打开项目，为命令行给出的类或包导出 JSON 样例。
+ * <pre>
+ * idea comment2json &lt;project-dir&gt; &lt;output-dir&gt; [--ndjson] [--timeout=SECONDS] &lt;class-or-package&gt;...
+ * idea comment2json &lt;project-dir&gt; &lt;output-dir&gt; --records=N [--seed=N] [--items=MIN..MAX] &lt;class-or-package&gt;...
+ * </pre>
+ * 使用 --records 时不导出注释样例，而是为每个类生成 N 条压测数据，见 {@link SampleRecordGenerator}。
+ * --timeout 限制打开项目、等待索引和导出的总时间。
+ * 退出码：0 成功，1 有类导出失败，2 参数错误，3 找不到类或包，4 超时。
+ */
+public class Comment2JsonStarter implements ApplicationStarter {
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILURES = 1;
+    static final int EXIT_USAGE = 2;
+    static final int EXIT_UNRESOLVED = 3;
+    static final int EXIT_TIMEOUT = 4;
+
+    private static final String USAGE =
+            "Usage: comment2json <project-dir> <output-dir> [--ndjson] [--timeout=SECONDS] <class-or-package>...\n" +
+            "       comment2json <project-dir> <output-dir> --records=N [--seed=N] [--items=MIN..MAX] [--timeout=SECONDS] <class-or-package>...";
+
+    private static final Logger LOG = Logger.getInstance(Comment2JsonStarter.class);
+
+    private final PrintStream out;
+
+    public Comment2JsonStarter() {
+        this(System.out);
+    }
+
+    Comment2JsonStarter(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public int getRequiredModality() {
+        // 需要阻塞等待索引完成，不能在 EDT 上执行
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        int exitCode;
+        try {
+            exitCode = run(args);
+        } catch (Throwable t) {
+            LOG.warn("Comment2JSON export failed", t);
+            out.println("Comment2JSON export failed: " + t);
+            exitCode = EXIT_FAILURES;
+        }
+        System.exit(exitCode);
+    }
+
+    int run(List<String> args) throws Exception {
+        Arguments arguments = parse(args);
+        if (arguments == null) {
+            return EXIT_USAGE;
+        }
+        if (!Files.isDirectory(arguments.projectPath)) {
+            out.println("Project directory not found: " + arguments.projectPath);
+            return EXIT_USAGE;
+        }
+
+        // 时间预算覆盖打开项目、等待索引和导出三个阶段
+        long deadline = arguments.timeoutSeconds > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(arguments.timeoutSeconds) : 0;
+        ProgressIndicator indicator = new EmptyProgressIndicator();
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+        if (deadline != 0) {
+            // 超出时间预算后取消，导出过程中的读操作会随之停止
+            watchdog.schedule(indicator::cancel, arguments.timeoutSeconds, TimeUnit.SECONDS);
+        }
+
+        PhaseTimer timer = new PhaseTimer(out);
+        Project project = null;
+        try {
+            // 打开和导入项目不响应取消，在后台线程中进行，超时后不再等待；进程随即退出
+            Future<Project> opening = ApplicationManager.getApplication()
+                    .executeOnPooledThread(() -> ProjectUtil.openOrImport(arguments.projectPath, null, false));
+            try {
+                project = opening.get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return timedOut(arguments, timer);
+            }
+            if (project == null) {
+                out.println("Cannot open project: " + arguments.projectPath);
+                return EXIT_USAGE;
+            }
+            timer.phase("open project");
+
+            CountDownLatch smart = new CountDownLatch(1);
+            DumbService.getInstance(project).runWhenSmart(smart::countDown);
+            if (!smart.await(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+                return timedOut(arguments, timer);
+            }
+            timer.phase("indexing");
+
+            return export(project, arguments, indicator, timer);
+        } finally {
+            watchdog.shutdownNow();
+            if (project != null) {
+                Project toClose = project;
+                ApplicationManager.getApplication().invokeAndWait(() -> ProjectManager.getInstance().closeAndDispose(toClose));
+            }
+        }
+    }
+
+    // 解析命令行，参数错误时输出原因并返回 null；args[0] 是命令名
+    Arguments parse(List<String> args) {
+        List<String> targets = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        boolean ndjson = false;
+        long timeoutSeconds = 0;
+        long records = 0;
+        long seed = SampleRecordGenerator.Options.DEFAULT.getSeed();
+        int minItems = SampleRecordGenerator.Options.DEFAULT.getMinItems();
+        int maxItems = SampleRecordGenerator.Options.DEFAULT.getMaxItems();
+        for (String arg : args.subList(Math.min(1, args.size()), args.size())) {
+            if (arg.equals("--ndjson")) {
+                ndjson = true;
+            } else if (arg.startsWith("--timeout=")) {
+                try {
+                    timeoutSeconds = Long.parseLong(arg.substring("--timeout=".length()));
+                } catch (NumberFormatException e) {
+                    out.println("Invalid timeout: " + arg);
+                    return null;
+                }
+            } else if (arg.startsWith("--records=") || arg.startsWith("--seed=") || arg.startsWith("--items=")) {
+                String value = arg.substring(arg.indexOf('=') + 1);
+                try {
+                    if (arg.startsWith("--records=")) {
+                        records = Long.parseLong(value);
+                    } else if (arg.startsWith("--seed=")) {
+                        seed = Long.parseLong(value);
+                    } else {
+                        // MIN..MAX，或者只给一个数表示固定个数
+                        int range = value.indexOf("..");
+                        minItems = Integer.parseInt(range >= 0 ? value.substring(0, range) : value);
+                        maxItems = range >= 0 ? Integer.parseInt(value.substring(range + 2)) : minItems;
+                    }
+                } catch (NumberFormatException e) {
+                    out.println("Invalid number: " + arg);
+                    return null;
+                }
+            } else if (paths.size() < 2) {
+                paths.add(arg);
+            } else {
+                targets.add(arg);
+            }
+        }
+        if (paths.size() < 2 || targets.isEmpty()) {
+            out.println(USAGE);
+            return null;
+        }
+        SampleRecordGenerator.Options recordOptions;
+        try {
+            recordOptions = new SampleRecordGenerator.Options(seed, minItems, maxItems, GenerationBudget.DEFAULT_MAX_DEPTH);
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+            return null;
+        }
+        return new Arguments(Paths.get(paths.get(0)).toAbsolutePath(), Paths.get(paths.get(1)).toAbsolutePath(),
+                targets, ndjson, timeoutSeconds, records, recordOptions);
+    }
+
+    // 在已打开并完成索引的项目中解析目标并导出，indicator 被取消时按超时处理
+    int export(Project project, Arguments arguments, ProgressIndicator indicator, PhaseTimer timer) {
+        List<String> unresolved = new ArrayList<>();
+        List<SmartPsiElementPointer<PsiClass>> classes = ReadAction.compute(() -> resolveTargets(project, arguments.targets, unresolved));
+        timer.phase("resolve " + classes.size() + " classes");
+        if (!unresolved.isEmpty()) {
+            out.println("Unresolved classes or packages: " + String.join(", ", unresolved));
+            return EXIT_UNRESOLVED;
+        }
+
+        try {
+            if (arguments.records > 0) {
+                int failures = ProgressManager.getInstance().runProcess(() -> {
+                    try {
+                        return exportRecords(project, classes, arguments.outputPath, arguments.records, arguments.recordOptions, indicator);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, indicator);
+                timer.phase("generate records");
+                timer.total();
+                return failures == 0 ? EXIT_OK : EXIT_FAILURES;
+            }
+
+            BulkJsonExporter exporter = new BulkJsonExporter(project);
+            BulkJsonExporter.Summary summary = ProgressManager.getInstance().runProcess(() -> {
+                try {
+                    return arguments.ndjson
+                            ? exporter.exportNdjson(classes, arguments.outputPath.resolve("json-samples.ndjson"), indicator)
+                            : exporter.exportFiles(classes, arguments.outputPath, indicator);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, indicator);
+            timer.phase("export");
+
+            out.println("Comment2JSON " + summary);
+            for (String failure : summary.getFailures()) {
+                out.println("  FAILED " + failure);
+            }
+            timer.total();
+            return summary.getFailures().isEmpty() ? EXIT_OK : EXIT_FAILURES;
+        } catch (ProcessCanceledException e) {
+            return timedOut(arguments, timer);
+        }
+    }
+
+    // 只有给出了时间预算才算超时，其余的取消按失败处理
+    private int timedOut(Arguments arguments, PhaseTimer timer) {
+        if (arguments.timeoutSeconds > 0) {
+            out.println("Comment2JSON export exceeded the time budget of " + arguments.timeoutSeconds + " s");
+        } else {
+            out.println("Comment2JSON export was cancelled");
+        }
+        timer.total();
+        return arguments.timeoutSeconds > 0 ? EXIT_TIMEOUT : EXIT_FAILURES;
+    }
+
+    // deadline 为 0 时不限时
+    private static long remainingNanos(long deadline) {
+        return deadline == 0 ? Long.MAX_VALUE : Math.max(0, deadline - System.nanoTime());
+    }
+
+    // 每个类写一个 <全限定名>.ndjson 文件：类结构只编译一次，之后在读操作之外按模板生成全部记录；返回失败的类数
+    private int exportRecords(Project project, List<SmartPsiElementPointer<PsiClass>> classes, Path outputPath,
+                              long count, SampleRecordGenerator.Options options, ProgressIndicator indicator) throws IOException {
+        ClassShapeCache shapeCache = ClassShapeCache.getInstance(project);
+        int failures = 0;
+        for (SmartPsiElementPointer<PsiClass> pointer : classes) {
+            ClassShape shape = ReadAction.compute(() -> {
+                PsiClass psiClass = pointer.getElement();
+                return psiClass != null && psiClass.isValid()
+                        ? new ShapeCompiler(project, shapeCache).compile(psiClass, options.getCompileBudget()) : null;
+            });
+            if (shape == null || shape.getQualifiedName() == null) {
+                out.println("  FAILED " + pointer.getVirtualFile() + ": class is no longer valid");
+                failures++;
+                continue;
+            }
+            long start = System.nanoTime();
+            Path file = outputPath.resolve(shape.getQualifiedName() + ".ndjson");
+            long bytes = new SampleRecordGenerator(shape, options).writeNdjson(file, count, indicator);
+            long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            out.printf("Comment2JSON %s: %d records in %.1f s (%.0f records/s, %d KB)%n",
+                    shape.getQualifiedName(), count, millis / 1000.0, count * 1000.0 / millis, bytes / 1024);
+        }
+        return failures;
+    }
+
+    // 参数可以是类的全限定名，也可以是包名（包含子包）
+    private static List<SmartPsiElementPointer<PsiClass>> resolveTargets(Project project, List<String> targets, List<String> unresolved) {
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+        ClassCollector collector = new ClassCollector();
+        for (String target : targets) {
+            PsiClass psiClass = facade.findClass(target, scope);
+            if (psiClass != null) {
+                collector.add(psiClass);
+                continue;
+            }
+            PsiPackage psiPackage = facade.findPackage(target);
+            if (psiPackage != null) {
+                collector.add(psiPackage);
+                continue;
+            }
+            unresolved.add(target);
+        }
+        return collector.toPointers();
+    }
+
+    // 命令行参数
+    static final class Arguments {
+        final Path projectPath;
+        final Path outputPath;
+        final List<String> targets;
+        final boolean ndjson;
+        final long timeoutSeconds;
+        final long records;
+        final SampleRecordGenerator.Options recordOptions;
+
+        Arguments(Path projectPath, Path outputPath, List<String> targets, boolean ndjson, long timeoutSeconds,
+                  long records, SampleRecordGenerator.Options recordOptions) {
+            this.projectPath = projectPath;
+            this.outputPath = outputPath;
+            this.targets = targets;
+            this.ndjson = ndjson;
+            this.timeoutSeconds = timeoutSeconds;
+            this.records = records;
+            this.recordOptions = recordOptions;
+        }
+    }
+
+    // 按阶段输出耗时
+    static final class PhaseTimer {
+        private final PrintStream out;
+        private final long start = System.nanoTime();
+        private long phaseStart = start;
+
+        PhaseTimer(PrintStream out) {
+            this.out = out;
+        }
+
+        void phase(String name) {
+            long now = System.nanoTime();
+            out.printf("[comment2json] %-28s %8d ms%n", name, TimeUnit.NANOSECONDS.toMillis(now - phaseStart));
+            phaseStart = now;
+        }
+
+        void total() {
+            out.printf("[comment2json] %-28s %8d ms%n", "total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.java2json;
+
+import com.intellij.psi.JavaDocTokenType;
+import com.intellij.psi.PsiDocCommentOwner;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.javadoc.PsiDocTag;
+import com.intellij.psi.javadoc.PsiDocToken;
+import com.intellij.psi.javadoc.PsiInlineDocTag;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+
+/**
+ * 从 JavaDoc 中提取注释文本。
+ * 一次遍历注释的 token，不使用正则，也不会误删注释正文里的 '*'；
+ * 多行描述合并成一行，{@code {@link}}/{@code {@code}} 等行内标签保留其文本，{@code @deprecated} 会附加在末尾。
+ * 结果缓存在注释元素上，所在文件修改后自动失效。
+ */
+public final class DocCommentExtractor {
+
+    private DocCommentExtractor() {
+    }
+
+    // 没有文档注释时返回 null
+    public static String extract(PsiDocCommentOwner owner) {
+        PsiDocComment docComment = owner.getDocComment();
+        return docComment != null ? getText(docComment) : null;
+    }
+
+    public static String getText(PsiDocComment docComment) {
+        return CachedValuesManager.getCachedValue(docComment, () -> {
+            PsiFile file = docComment.getContainingFile();
+            Object dependency = file != null ? file : PsiModificationTracker.MODIFICATION_COUNT;
+            return CachedValueProvider.Result.create(extractUncached(docComment), dependency);
+        });
+    }
+
+    static String extractUncached(PsiDocComment docComment) {
+        StringBuilder description = new StringBuilder();
+        StringBuilder deprecation = null;
+        for (PsiElement child = docComment.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof PsiDocTag && !(child instanceof PsiInlineDocTag)) {
+                // 块标签只保留 @deprecated，其余（@see、@since 等）不是字段含义的一部分
+                PsiDocTag tag = (PsiDocTag) child;
+                if ("deprecated".equals(tag.getName())) {
+                    deprecation = new StringBuilder();
+                    for (PsiElement e = tag.getNameElement().getNextSibling(); e != null; e = e.getNextSibling()) {
+                        appendElement(deprecation, e);
+                    }
+                }
+                continue;
+            }
+            appendElement(description, child);
+        }
+        trimTrailingSpace(description);
+        if (deprecation == null) {
+            return description.toString();
+        }
+        trimTrailingSpace(deprecation);
+        return withDeprecation(description, deprecation);
+    }
+
+    private static void appendElement(StringBuilder sb, PsiElement element) {
+        if (element instanceof PsiInlineDocTag) {
+            appendInlineTag(sb, (PsiInlineDocTag) element);
+        } else if (element instanceof PsiWhiteSpace) {
+            appendSpace(sb);
+        } else if (element instanceof PsiDocToken) {
+            IElementType type = ((PsiDocToken) element).getTokenType();
+            if (type == JavaDocTokenType.DOC_COMMENT_START ||
+                type == JavaDocTokenType.DOC_COMMENT_END ||
+                type == JavaDocTokenType.DOC_COMMENT_LEADING_ASTERISKS ||
+                type == JavaDocTokenType.DOC_INLINE_TAG_START ||
+                type == JavaDocTokenType.DOC_INLINE_TAG_END ||
+                type == JavaDocTokenType.DOC_TAG_NAME) {
+                return;
+            }
+            appendCollapsed(sb, element.getText());
+        } else {
+            // 标签值、方法/字段引用等复合元素，按原文追加
+            appendCollapsed(sb, element.getText());
+        }
+    }
+
+    private static void appendInlineTag(StringBuilder sb, PsiInlineDocTag tag) {
+        String name = tag.getName();
+        PsiElement value = tag.getValueElement();
+        if (value != null && ("link".equals(name) || "linkplain".equals(name))) {
+            // {@link Foo#bar 标签}：有标签时用标签，否则用引用本身
+            StringBuilder label = new StringBuilder();
+            for (PsiElement e = value.getNextSibling(); e != null; e = e.getNextSibling()) {
+                appendElement(label, e);
+            }
+            trimTrailingSpace(label);
+            if (label.length() > 0 && label.charAt(0) == ' ') {
+                label.deleteCharAt(0);
+            }
+            if (label.length() > 0) {
+                appendCollapsed(sb, label);
+            } else {
+                appendCollapsed(sb, value.getText());
+            }
+            return;
+        }
+        // {@code ...}、{@literal ...} 等直接保留内容
+        for (PsiElement e = tag.getNameElement().getNextSibling(); e != null; e = e.getNextSibling()) {
+            appendElement(sb, e);
+        }
+    }
+
+    // 追加文本，连续空白折叠为一个空格
+    static void appendCollapsed(StringBuilder sb, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                appendSpace(sb);
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private static void appendSpace(StringBuilder sb) {
+        int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) != ' ') {
+            sb.append(' ');
+        }
+    }
+
+    static void trimTrailingSpace(StringBuilder sb) {
+        int length = sb.length();
+        while (length > 0 && sb.charAt(length - 1) == ' ') {
+            length--;
+        }
+        sb.setLength(length);
+    }
+
+    static String withDeprecation(CharSequence description, CharSequence reason) {
+        StringBuilder sb = new StringBuilder(description.length() + reason.length() + 16);
+        if (description.length() == 0) {
+            sb.append("deprecated");
+            if (reason.length() > 0) {
+                sb.append(": ").append(reason);
+            }
+            return sb.toString();
+        }
+        sb.append(description).append(" (deprecated");
+        if (reason.length() > 0) {
+            sb.append(": ").append(reason);
+        }
+        return sb.append(')').toString();
+    }
+}
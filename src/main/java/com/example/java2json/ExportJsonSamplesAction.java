@@ -0,0 +1,145 @@
+package com.example.java2json;
+
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 在 Project View 中对包、目录、文件或模块批量导出 JSON 样例。
+ */
+public class ExportJsonSamplesAction extends AnAction {
+    private static final String[] FORMAT_OPTIONS = {"One File per Class", "Single NDJSON File", "Cancel"};
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        PsiElement[] elements = e.getData(LangDataKeys.PSI_ELEMENT_ARRAY);
+        Module module = e.getData(LangDataKeys.MODULE_CONTEXT);
+        boolean enabled = e.getProject() != null && (module != null || hasExportableElement(elements));
+        e.getPresentation().setEnabledAndVisible(enabled);
+    }
+
+    static boolean hasExportableElement(PsiElement[] elements) {
+        if (elements == null) {
+            return false;
+        }
+        for (PsiElement element : elements) {
+            if (element instanceof PsiDirectory ||
+                element instanceof PsiPackage ||
+                element instanceof PsiClassOwner ||
+                element instanceof PsiClass) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        final Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        final PsiElement[] elements = e.getData(LangDataKeys.PSI_ELEMENT_ARRAY);
+        final Module module = e.getData(LangDataKeys.MODULE_CONTEXT);
+
+        int format = Messages.showDialog(project, "Export JSON samples as:", "Export JSON Samples",
+                FORMAT_OPTIONS, 0, Messages.getQuestionIcon());
+        if (format != 0 && format != 1) {
+            return;
+        }
+        final boolean ndjson = format == 1;
+
+        VirtualFile outputDir = FileChooser.chooseFile(
+                FileChooserDescriptorFactory.createSingleFolderDescriptor().withTitle("Choose Output Directory"),
+                project, null);
+        if (outputDir == null) {
+            return;
+        }
+        final Path outputPath = outputDir.toNioPath();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Exporting JSON samples", true) {
+            private BulkJsonExporter.Summary summary;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                indicator.setText("Collecting classes");
+                List<SmartPsiElementPointer<PsiClass>> classes = ReadAction.nonBlocking(() -> {
+                            ClassCollector collector = new ClassCollector();
+                            if (elements != null && hasExportableElement(elements)) {
+                                for (PsiElement element : elements) {
+                                    collector.add(element);
+                                }
+                            } else if (module != null) {
+                                collector.add(module);
+                            }
+                            return collector.toPointers();
+                        })
+                        .wrapProgress(indicator)
+                        .expireWith(project)
+                        .executeSynchronously();
+
+                indicator.setIndeterminate(false);
+                indicator.setText("Exporting " + classes.size() + " classes");
+                BulkJsonExporter exporter = new BulkJsonExporter(project);
+                try {
+                    summary = ndjson
+                            ? exporter.exportNdjson(classes, outputPath.resolve("json-samples.ndjson"), indicator)
+                            : exporter.exportFiles(classes, outputPath, indicator);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (summary == null) {
+                    return;
+                }
+                StringBuilder content = new StringBuilder(summary.toString());
+                List<String> failures = summary.getFailures();
+                for (int i = 0; i < Math.min(5, failures.size()); i++) {
+                    content.append("<br/>").append(StringUtil.escapeXmlEntities(failures.get(i)));
+                }
+                if (failures.size() > 5) {
+                    content.append("<br/>... see idea.log for the remaining failures");
+                }
+                NotificationGroupManager.getInstance().getNotificationGroup("Comment2JSON")
+                        .createNotification("JSON samples exported", content.toString(),
+                                failures.isEmpty() ? NotificationType.INFORMATION : NotificationType.WARNING)
+                        .notify(project);
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                Messages.showErrorDialog(project, error.getMessage(), "Export Failed");
+            }
+        });
+    }
+}
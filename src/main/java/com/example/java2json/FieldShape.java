@@ -0,0 +1,49 @@
+package com.example.java2json;
+
+/**
+ * 类节点中的一个字段：JSON 中的字段名、提取后的注释文本和字段类型的结构。
+ */
+public final class FieldShape {
+    private final String name;
+    private final String comment;
+    private final TypeShape type;
+    private final boolean optional;
+
+    public FieldShape(String name, String comment, TypeShape type) {
+        this(name, comment, type, false);
+    }
+
+    public FieldShape(String name, String comment, TypeShape type, boolean optional) {
+        this.name = name;
+        this.comment = comment;
+        this.type = type;
+        this.optional = optional;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // 没有文档注释时为 null
+    public String getComment() {
+        return comment;
+    }
+
+    public boolean hasComment() {
+        return comment != null && !comment.isEmpty();
+    }
+
+    public TypeShape getType() {
+        return type;
+    }
+
+    // 值为空时序列化会省略这个字段，例如 @JsonInclude(NON_NULL)
+    public boolean isOptional() {
+        return optional;
+    }
+
+    @Override
+    public String toString() {
+        return name + (optional ? "?: " : ": ") + type;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.java2json;
+
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.ui.components.JBCheckBox;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一次生成多种格式（JSON 样例、JSON Schema、TypeScript、YAML）：类结构图只编译一次，再交给各个格式分别输出。
+ */
+public class GenerateFormatsAction extends AnAction {
+    // 上次选择的格式
+    private static final String SELECTED_FORMATS_KEY = "comment2json.formats";
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null &&
+                e.getData(CommonDataKeys.EDITOR) != null && e.getData(CommonDataKeys.PSI_FILE) instanceof PsiJavaFile);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        final Project project = e.getProject();
+        final Editor editor = e.getData(CommonDataKeys.EDITOR);
+        final PsiFile psiFile = e.getData(CommonDataKeys.PSI_FILE);
+        if (project == null || editor == null || psiFile == null) {
+            return;
+        }
+        PsiElement element = psiFile.findElementAt(editor.getSelectionModel().getSelectionStart());
+        PsiClass psiClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+        if (psiClass == null) {
+            return;
+        }
+
+        FormatChooser chooser = new FormatChooser(project, loadSelection());
+        if (!chooser.showAndGet() || chooser.getSelected().isEmpty()) {
+            return;
+        }
+        final Set<OutputFormat> formats = chooser.getSelected();
+        saveSelection(formats);
+
+        final String baseName = psiClass.getName() != null ? psiClass.getName() : "Comment2JSON";
+        final SmartPsiElementPointer<PsiClass> classPointer = SmartPointerManager.createPointer(psiClass);
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Generating " + formats.size() + " formats", true) {
+            private Map<OutputFormat, String> results;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                results = ReadAction.nonBlocking(() -> generate(project, classPointer, formats))
+                        .wrapProgress(indicator)
+                        .expireWith(project)
+                        .executeSynchronously();
+            }
+
+            @Override
+            public void onSuccess() {
+                if (results == null) {
+                    return;
+                }
+                List<JsonViewerDialog.Output> outputs = new ArrayList<>();
+                for (Map.Entry<OutputFormat, String> result : results.entrySet()) {
+                    OutputFormat format = result.getKey();
+                    outputs.add(new JsonViewerDialog.Output(format.getDisplayName(),
+                            baseName + format.getExtension(), result.getValue()));
+                }
+                new JsonViewerDialog(project, "Generated " + baseName, outputs).show();
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                Messages.showErrorDialog(project, error.getMessage(), "Error");
+            }
+        });
+    }
+
+    // 在读操作中执行：按所选格式中要求最深的一个编译一次，所有格式共用这张类结构图
+    static Map<OutputFormat, String> generate(Project project, SmartPsiElementPointer<PsiClass> classPointer,
+                                              Set<OutputFormat> formats) throws Exception {
+        PsiClass psiClass = classPointer.getElement();
+        if (psiClass == null || !psiClass.isValid()) {
+            return null;
+        }
+        int budget = 0;
+        for (OutputFormat format : formats) {
+            budget = Math.max(budget, format.getCompileBudget());
+        }
+        ClassShape shape = new ShapeCompiler(project, ClassShapeCache.getInstance(project)).compile(psiClass, budget);
+
+        Map<OutputFormat, String> results = new EnumMap<>(OutputFormat.class);
+        for (OutputFormat format : formats) {
+            ProgressManager.checkCanceled();
+            results.put(format, format.render(shape));
+        }
+        return results;
+    }
+
+    private static Set<OutputFormat> loadSelection() {
+        Set<OutputFormat> formats = EnumSet.noneOf(OutputFormat.class);
+        String value = PropertiesComponent.getInstance().getValue(SELECTED_FORMATS_KEY, OutputFormat.JSON_SAMPLE.name());
+        for (String name : value.split(",")) {
+            for (OutputFormat format : OutputFormat.values()) {
+                if (format.name().equals(name)) {
+                    formats.add(format);
+                }
+            }
+        }
+        return formats;
+    }
+
+    private static void saveSelection(Set<OutputFormat> formats) {
+        List<String> names = new ArrayList<>();
+        for (OutputFormat format : formats) {
+            names.add(format.name());
+        }
+        PropertiesComponent.getInstance().setValue(SELECTED_FORMATS_KEY, String.join(",", names));
+    }
+
+    private static final class FormatChooser extends DialogWrapper {
+        private final Map<OutputFormat, JBCheckBox> checkBoxes = new EnumMap<>(OutputFormat.class);
+
+        FormatChooser(Project project, Set<OutputFormat> selected) {
+            super(project);
+            for (OutputFormat format : OutputFormat.values()) {
+                checkBoxes.put(format, new JBCheckBox(format.getDisplayName(), selected.contains(format)));
+            }
+            setTitle("Generate Formats");
+            init();
+        }
+
+        @Override
+        protected @Nullable JComponent createCenterPanel() {
+            JPanel panel = new JPanel();
+            panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+            for (JBCheckBox checkBox : checkBoxes.values()) {
+                panel.add(checkBox);
+            }
+            return panel;
+        }
+
+        Set<OutputFormat> getSelected() {
+            Set<OutputFormat> selected = EnumSet.noneOf(OutputFormat.class);
+            for (Map.Entry<OutputFormat, JBCheckBox> entry : checkBoxes.entrySet()) {
+                if (entry.getValue().isSelected()) {
+                    selected.add(entry.getKey());
+                }
+            }
+            return selected;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.java2json;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.registry.Registry;
+
+/**
+ * 生成 JSON 样例时的上限：嵌套层数、输出的对象数和输出的大致字节数，通过 Registry 中的 comment2json.max.* 配置。
+ * 超过层数的对象写成截断占位符；对象数或字节数用完后写出一个占位符并停止输出剩余的字段。
+ */
+public final class GenerationBudget {
+    static final int DEFAULT_MAX_DEPTH = 5;
+    static final int DEFAULT_MAX_NODES = 100_000;
+    static final int DEFAULT_MAX_OUTPUT_KB = 32 * 1024;
+
+    public static final GenerationBudget DEFAULT =
+            new GenerationBudget(DEFAULT_MAX_DEPTH, DEFAULT_MAX_NODES, DEFAULT_MAX_OUTPUT_KB * 1024L);
+
+    private final int maxDepth;
+    private final int maxNodes;
+    private final long maxOutputBytes;
+
+    public GenerationBudget(int maxDepth, int maxNodes, long maxOutputBytes) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.maxOutputBytes = maxOutputBytes;
+    }
+
+    // 当前配置的上限；没有运行中的 IDE（单元测试）时使用默认值
+    public static GenerationBudget current() {
+        if (ApplicationManager.getApplication() == null) {
+            return DEFAULT;
+        }
+        return new GenerationBudget(
+                Math.max(0, Registry.intValue("comment2json.max.depth", DEFAULT_MAX_DEPTH)),
+                Math.max(1, Registry.intValue("comment2json.max.nodes", DEFAULT_MAX_NODES)),
+                Math.max(1, Registry.intValue("comment2json.max.output.kb", DEFAULT_MAX_OUTPUT_KB)) * 1024L);
+    }
+
+    // 根对象之下最多展开的嵌套层数
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    // 最多输出的对象数，包括根对象
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    // 输出的字节数上限，按 UTF-8 估算，不含缩进
+    public long getMaxOutputBytes() {
+        return maxOutputBytes;
+    }
+
+    // 编译类结构图的深度：根节点自身占一层，根的字段对象占一层，再加上渲染允许的嵌套层数
+    public int getCompileBudget() {
+        return maxDepth + 2;
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationBudget(depth " + maxDepth + ", nodes " + maxNodes + ", bytes " + maxOutputBytes + ")";
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.java2json;
+
+import com.intellij.util.messages.Topic;
+
+/**
+ * 打开诊断时，每次生成结束后在项目消息总线上发布报告，在 EDT 上调用。
+ */
+public interface GenerationDiagnosticsListener {
+    Topic<GenerationDiagnosticsListener> TOPIC =
+            Topic.create("Comment2JSON generation diagnostics", GenerationDiagnosticsListener.class);
+
+    void reportReady(String report);
+}
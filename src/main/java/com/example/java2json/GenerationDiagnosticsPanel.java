@@ -0,0 +1,44 @@
+package com.example.java2json;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 工具窗口中的诊断页：显示最近几次生成的分阶段耗时和最耗时的类，最新的在最上面。
+ */
+public class GenerationDiagnosticsPanel extends JPanel implements Disposable {
+    // 保留的报告数量
+    private static final int MAX_REPORTS = 10;
+
+    private final JBTextArea textArea = new JBTextArea();
+    private final Deque<String> reports = new ArrayDeque<>();
+
+    public GenerationDiagnosticsPanel(Project project) {
+        super(new BorderLayout());
+        textArea.setEditable(false);
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        textArea.setText("Set the comment2json.diagnostics registry key to collect timings for each generation.");
+        add(new JBScrollPane(textArea), BorderLayout.CENTER);
+        project.getMessageBus().connect(this).subscribe(GenerationDiagnosticsListener.TOPIC, this::addReport);
+    }
+
+    private void addReport(String report) {
+        reports.addFirst(report);
+        while (reports.size() > MAX_REPORTS) {
+            reports.removeLast();
+        }
+        textArea.setText(String.join("\n", reports));
+        textArea.setCaretPosition(0);
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.java2json;
+
+import com.intellij.openapi.util.registry.Registry;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次生成过程的计数和分阶段耗时，用于找出生成慢的原因。
+ * 通过 Registry 中的 comment2json.diagnostics 打开；关闭时使用 {@link #NONE}，每个埋点只是一次布尔判断，不读取时钟。
+ * 每次生成使用一个实例，并行展开类结构时可以被多个线程同时调用；各阶段的耗时是所有线程的累计值，
+ * 多个线程参与时可能超过总耗时，报告中会注明。
+ */
+public final class GenerationStats {
+    public static final GenerationStats NONE = new GenerationStats(false);
+
+    public enum Phase {
+        RESOLVE("type resolution"),
+        FIND_CLASS("JavaPsiFacade.findClass"),
+        FIELDS("getAllFields()"),
+        COMMENTS("comment extraction"),
+        SERIALIZE("rendering + Jackson");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    private final boolean enabled;
+    private final long start = System.nanoTime();
+    private final Map<Phase, long[]> phases = new EnumMap<>(Phase.class);
+    // 每个类编译字段的耗时；被引用的类在字段编译完之后才展开，不计入其中
+    private final Map<String, Long> classNanos = new HashMap<>();
+    // 记录过阶段耗时的线程
+    private final Set<Long> phaseThreads = new HashSet<>();
+    private int classesVisited;
+    private int classesExpanded;
+    private int resolves;
+    private int cacheHits;
+    private long outputBytes;
+
+    private GenerationStats(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static GenerationStats create() {
+        return Registry.is("comment2json.diagnostics", false) ? new GenerationStats(true) : NONE;
+    }
+
+    static GenerationStats enabled() {
+        return new GenerationStats(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 关闭时返回 0，不读取时钟
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void stop(Phase phase, long startNanos) {
+        if (enabled) {
+            long elapsed = System.nanoTime() - startNanos;
+            synchronized (this) {
+                long[] value = phases.computeIfAbsent(phase, p -> new long[2]);
+                value[0]++;
+                value[1] += elapsed;
+                phaseThreads.add(Thread.currentThread().getId());
+            }
+        }
+    }
+
+    public void classVisited() {
+        if (enabled) {
+            synchronized (this) {
+                classesVisited++;
+            }
+        }
+    }
+
+    public void cacheHit() {
+        if (enabled) {
+            synchronized (this) {
+                cacheHits++;
+            }
+        }
+    }
+
+    public void resolved() {
+        if (enabled) {
+            synchronized (this) {
+                resolves++;
+            }
+        }
+    }
+
+    // 开始编译一个类的字段，返回值传给 exitClass；关闭时返回 0
+    public long enterClass() {
+        if (!enabled) {
+            return 0;
+        }
+        synchronized (this) {
+            classesExpanded++;
+        }
+        return System.nanoTime();
+    }
+
+    public void exitClass(String qualifiedName, long startNanos) {
+        if (enabled) {
+            long elapsed = System.nanoTime() - startNanos;
+            synchronized (this) {
+                classNanos.merge(String.valueOf(qualifiedName), elapsed, Long::sum);
+            }
+        }
+    }
+
+    public void output(CharSequence text) {
+        if (enabled) {
+            long length = utf8Length(text);
+            synchronized (this) {
+                outputBytes += length;
+            }
+        }
+    }
+
+    public synchronized int getClassesVisited() {
+        return classesVisited;
+    }
+
+    public synchronized int getClassesExpanded() {
+        return classesExpanded;
+    }
+
+    public synchronized int getResolves() {
+        return resolves;
+    }
+
+    public synchronized int getCacheHits() {
+        return cacheHits;
+    }
+
+    public synchronized long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public synchronized long getPhaseNanos(Phase phase) {
+        long[] value = phases.get(phase);
+        return value != null ? value[1] : 0;
+    }
+
+    // 编译耗时最多的 limit 个类，按耗时倒序
+    public synchronized List<Map.Entry<String, Long>> getTopClasses(int limit) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(classNanos.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    public synchronized String report(String title, int topClasses) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(title).append(": ").append(millis(System.nanoTime() - start)).append(" total\n");
+        sb.append(String.format("  classes visited %d, expanded %d, resolves %d, cache hits %d, output %d bytes%n",
+                classesVisited, classesExpanded, resolves, cacheHits, outputBytes));
+        for (Phase phase : Phase.values()) {
+            long[] value = phases.get(phase);
+            if (value != null) {
+                sb.append(String.format("  %-26s %10s  (%d calls)%n", phase.label, millis(value[1]), value[0]));
+            }
+        }
+        if (phaseThreads.size() > 1) {
+            sb.append(String.format("  phase times are summed over %d threads and can exceed the total%n", phaseThreads.size()));
+        }
+        List<Map.Entry<String, Long>> top = getTopClasses(topClasses);
+        if (!top.isEmpty()) {
+            sb.append("  most expensive classes (own fields, excluding referenced classes):\n");
+            for (Map.Entry<String, Long> entry : top) {
+                sb.append(String.format("    %10s  %s%n", millis(entry.getValue()), entry.getKey()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f ms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    static long utf8Length(CharSequence text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -1,445 +1,288 @@
 package com.example.java2json;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Caret;
 import com.intellij.openapi.editor.Editor;
-import com.intellij.openapi.editor.SelectionModel;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
-import com.intellij.psi.javadoc.PsiDocComment;  // 添加这行导入
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
-
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashMap;  // 添加这行导入
-import java.util.Map;
+import com.intellij.util.concurrency.AppExecutorUtil;
 
 // 在文件开头的导入部分添加
 import com.intellij.openapi.ui.Messages;
-import com.intellij.openapi.ui.DialogWrapper;
-import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.NotNull;
 
-import javax.swing.*;
-import java.awt.*;
-import java.awt.datatransfer.Clipboard;
-import java.awt.datatransfer.StringSelection;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-public class Java2JsonAction extends AnAction {
-    private Project project;  // Add this field
+// 索引未就绪时也可以使用：按源码降级生成，索引就绪后自动刷新结果
+public class Java2JsonAction extends AnAction implements DumbAware {
+    private static final Logger LOG = Logger.getInstance(Java2JsonAction.class);
+    // 诊断报告中列出的最耗时的类的数量
+    private static final int TOP_CLASSES = 10;
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        // 编辑器中始终可用；在 Project View 中只有选中了 Java 类或文件时才显示
+        boolean enabled = e.getProject() != null &&
+                          (e.getData(CommonDataKeys.EDITOR) != null || hasClasses(e.getData(LangDataKeys.PSI_ELEMENT_ARRAY)));
+        e.getPresentation().setEnabledAndVisible(enabled);
+    }
+
+    private static boolean hasClasses(PsiElement[] elements) {
+        if (elements == null) {
+            return false;
+        }
+        for (PsiElement element : elements) {
+            if (element instanceof PsiClass || element instanceof PsiJavaFile) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     @Override
     public void actionPerformed(AnActionEvent e) {
-        this.project = e.getProject();  // Initialize the project field
+        final Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
         final Editor editor = e.getData(CommonDataKeys.EDITOR);
         final PsiFile psiFile = e.getData(CommonDataKeys.PSI_FILE);
 
-        if (project == null || editor == null || psiFile == null) {
+        List<PsiClass> classes = editor != null && psiFile != null
+                ? classesInEditor(psiFile, editor)
+                : classesIn(e.getData(LangDataKeys.PSI_ELEMENT_ARRAY));
+        if (classes.isEmpty()) {
             return;
         }
 
-        SelectionModel selectionModel = editor.getSelectionModel();
-        PsiElement element = psiFile.findElementAt(selectionModel.getSelectionStart());
-        PsiClass psiClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
-
-        if (psiClass == null) {
-            return;
+        // 生成过程放到后台的 non-blocking read action 中执行，PSI 变化时自动重启，完成后再回到 EDT 显示
+        final List<SmartPsiElementPointer<PsiClass>> classPointers = new ArrayList<>();
+        List<String> qualifiedNames = new ArrayList<>();
+        for (PsiClass psiClass : classes) {
+            classPointers.add(SmartPointerManager.createPointer(psiClass));
+            if (psiClass.getQualifiedName() != null) {
+                qualifiedNames.add(psiClass.getQualifiedName());
+            }
         }
+        // 下次打开项目时预热这些类
+        ShapePrewarmer.remember(project, qualifiedNames);
+        final String firstName = classes.get(0).getName() != null ? classes.get(0).getName() : "Comment2JSON";
+        String title = classes.size() == 1 ? "Generating JSON" : "Generating JSON for " + classes.size() + " classes";
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, title, true) {
+            private Generated generated;
 
-        try {
-            // 将 HashMap 替换为 LinkedHashMap
-            Map<String, Object> jsonMap = new LinkedHashMap<>();
-            for (PsiField field : psiClass.getAllFields()) {
-                // 跳过静态字段和常量
-                if (field.hasModifierProperty(PsiModifier.STATIC) || 
-                    field.hasModifierProperty(PsiModifier.FINAL)) {
-                    continue;
-                }
-                
-                String fieldName = field.getName();
-                PsiType fieldType = field.getType();
-                
-                // 获取字段的文档注释
-                PsiDocComment docComment = field.getDocComment();
-                String commentText = docComment != null ?
-                        docComment.getText().replaceAll("/\\*\\*|\\*/|\\*", "").trim() : null;
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                generated = ReadAction.nonBlocking(() -> generateJson(project, classPointers, indicator))
+                        .wrapProgress(indicator)
+                        .expireWith(project)
+                        .executeSynchronously();
+            }
 
-                // 处理嵌套类型
-                PsiClass fieldPsiClass = null;
-                if (fieldType instanceof PsiClassType) {
-                    fieldPsiClass = ((PsiClassType) fieldType).resolve();
+            @Override
+            public void onSuccess() {
+                if (generated == null) {
+                    return;
                 }
-
-                // 首先处理集合类型 - 无论是否有注释都生成集合结构
-                String fieldTypeName = fieldType.getCanonicalText();
-                if (fieldTypeName.startsWith("java.util.List") || 
-                    fieldTypeName.startsWith("java.util.Set") ||
-                    fieldTypeName.startsWith("java.util.Collection")) {
-                    
-                    // 处理泛型集合
-                    if (fieldType instanceof PsiClassType) {
-                        PsiClassType classType = (PsiClassType) fieldType;
-                        PsiType[] parameters = classType.getParameters();
-                        
-                        if (parameters.length > 0) {
-                            PsiType paramType = parameters[0];
-                            if (paramType instanceof PsiClassType) {
-                                PsiClass paramClass = ((PsiClassType) paramType).resolve();
-                                if (paramClass != null) {
-                                    ArrayList<Object> list = new ArrayList<>();
-                                    
-                                    // 检查是否为Java标准类型
-                                    if (isJavaStandardType(paramType)) {
-                                        // 如果是Java标准类型，且有注释，使用注释
-                                        if (commentText != null && !commentText.isEmpty()) {
-//                                            // 创建一个只包含注释内容的对象，不包含属性名
-//                                            HashMap<String, Object> commentObject = new HashMap<>();
-//                                            commentObject.put(commentText, "");
-                                            list.add("${"+commentText+"}");
-                                        } else {
-                                            // 没有注释则使用空对象
-                                            list.add(new HashMap<>());
-                                        }
-                                    } else {
-                                        // 如果不是Java标准类型，递归处理自定义类
-                                        Map<String, Object> elementMap = handlePsiClass(paramClass, new HashSet<>(), 0);
-                                        list.add(elementMap);
-                                    }
-                                    
-                                    jsonMap.put(fieldName, list);
-                                    continue;
-                                }
-                            }
-                        }
-                    }
-                    
-                    // 没有泛型参数，使用空数组
-                    jsonMap.put(fieldName, new ArrayList<>());
-                    continue;
-                } 
-                // 然后处理Map类型
-                else if (fieldTypeName.startsWith("java.util.Map")) {
-                    jsonMap.put(fieldName, new HashMap<>());
-                    continue;
-                } 
-                // 然后处理自定义类型
-                else if (fieldPsiClass != null && !isJavaStandardType(fieldType)) {
-                    Map<String, Object> nestedMap = handlePsiClass(fieldPsiClass, new HashSet<>(), 0);
-                    jsonMap.put(fieldName, nestedMap);
-                    continue;
+                if (generated.report != null) {
+                    project.getMessageBus().syncPublisher(GenerationDiagnosticsListener.TOPIC).reportReady(generated.report);
                 }
-                
-                // 最后处理Java标准类型和其他类型 - 使用注释或空字符串
-                if (commentText != null && !commentText.isEmpty()) {
-                    jsonMap.put(fieldName, "${" + commentText + "}");
-                } else {
-                    jsonMap.put(fieldName, "");
+                if (generated.outputs.isEmpty()) {
+                    return;
                 }
-            }
-
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
-            final String jsonString = writer.writeValueAsString(jsonMap);
-
-            // 替换原来的 Messages.showInfoMessage
-            showJsonDialog(project, jsonString);
-
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            Messages.showErrorDialog(ex.getMessage(), "Error");
-        }
-    }
-
-    // 添加新方法
-    private void showJsonDialog(Project project, String jsonString) {
-        // 创建面板并设置布局
-        JPanel panel = new JPanel(new BorderLayout(10, 10));
-        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-
-        // 创建文本区域 - 恢复原始大小
-        JTextArea textArea = new JTextArea(jsonString);
-        textArea.setEditable(false);
-        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        textArea.setRows(20);  // 还原为原始的20行
-        textArea.setColumns(50);  // 还原为原始的50列
-
-        // 添加滚动面板
-        JScrollPane scrollPane = new JScrollPane(textArea);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-        
-        panel.add(scrollPane, BorderLayout.CENTER);
-
-        // 创建按钮面板
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-
-        // 创建对话框实例（提前创建，以便按钮中可以引用）
-        DialogWrapper dialog = new DialogWrapper(project) {
-            {
-                init();
-                setTitle("Generated JSON With Comment");
+                // 用只读编辑器显示，大文件也只渲染可见部分
+                JsonViewerDialog dialog = generated.outputs.size() == 1
+                        ? new JsonViewerDialog(project, firstName + ".json", generated.outputs.get(0).text)
+                        : new JsonViewerDialog(project, "Generated JSON With Comment", generated.outputs);
+                if (generated.degraded) {
+                    dialog.setNotice(degradedNotice(generated.unresolved));
+                    refreshWhenSmart(project, classPointers, dialog);
+                }
+                dialog.show();
             }
 
             @Override
-            protected @Nullable JComponent createCenterPanel() {
-                return panel;
+            public void onThrowable(@NotNull Throwable error) {
+                LOG.warn("Comment2JSON generation failed", error);
+                Messages.showErrorDialog(project, error.getMessage(), "Error");
             }
-        };
-
-        // 创建复制按钮
-        JButton copyButton = new JButton("复制到剪贴板");
-        copyButton.addActionListener(e -> {
-            StringSelection selection = new StringSelection(jsonString);
-            Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
-            clipboard.setContents(selection, selection);
-            
-            // 复制后自动关闭窗口
-            dialog.close(DialogWrapper.OK_EXIT_CODE);
         });
-        buttonPanel.add(copyButton);
-        panel.add(buttonPanel, BorderLayout.SOUTH);
-
-        // 显示对话框
-        dialog.show();
     }
 
-    // 判断是否为Java标准类型
-    private boolean isJavaStandardType(PsiType type) {
-        if (type instanceof PsiPrimitiveType) {
-            return true;
-        }
-        
-        String typeName = type.getCanonicalText();
-        return typeName.startsWith("java.");
+    static String degradedNotice(int unresolved) {
+        String types = unresolved == 0 ? "" : unresolved == 1
+                ? " 1 type could not be resolved and is shown as \"" + ShapeJsonRenderer.UNRESOLVED_FIELD + "\"."
+                : " " + unresolved + " types could not be resolved and are shown as \"" + ShapeJsonRenderer.UNRESOLVED_FIELD + "\".";
+        return "Generated while indexing." + types + " The result will refresh when indexing finishes.";
     }
 
-    // 简化的默认值获取方法
-    private Object getSimpleDefaultValue(String type) {
-        return "";  // 始终返回空字符串
+    // 索引就绪后在后台重新生成，对话框仍然打开时替换其中的内容；对话框关闭时取消
+    private static void refreshWhenSmart(Project project, List<SmartPsiElementPointer<PsiClass>> classPointers,
+                                         JsonViewerDialog dialog) {
+        ReadAction.nonBlocking(() -> generateJson(project, classPointers, null))
+                .inSmartMode(project)
+                .expireWith(dialog.getDisposable())
+                .finishOnUiThread(ModalityState.any(), refreshed -> {
+                    if (refreshed == null) {
+                        return;
+                    }
+                    // 替换内容要修改文档，不能在 any() 下进行；按对话框自己的模态状态排队，对话框打开期间就能执行
+                    ApplicationManager.getApplication().invokeLater(() -> {
+                        dialog.update(refreshed.outputs);
+                        dialog.setNotice(null);
+                    }, ModalityState.stateForComponent(dialog.getContentPane()), ignored -> dialog.isDisposed());
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
     }
 
-    private Map<String, Object> handlePsiClass(PsiClass psiClass, Set<String> processedClasses, int depth) {
-        // 增加深度限制，避免无限递归
-        if (depth > 5) { // 从3增加到5，允许更深的嵌套
-            return new HashMap<>();
-        }
-
-        String qualifiedName = psiClass.getQualifiedName();
-        if (qualifiedName != null && processedClasses.contains(qualifiedName)) {
-            return new HashMap<>(); // 防止循环引用
-        }
-        if (qualifiedName != null) {
-            processedClasses.add(qualifiedName);
-        }
-        
-        // 如果是Java标准类，直接返回空map
-        if (qualifiedName != null && qualifiedName.startsWith("java.")) {
-            return new HashMap<>();
-        }
-
-        // 将 HashMap 替换为 LinkedHashMap
-        Map<String, Object> objectMap = new LinkedHashMap<>();
-        for (PsiField field : psiClass.getAllFields()) {
-            // 跳过静态字段和常量
-            if (field.hasModifierProperty(PsiModifier.STATIC) || 
-                field.hasModifierProperty(PsiModifier.FINAL)) {
-                continue;
-            }
-            
-            String fieldName = field.getName();
-            PsiType fieldType = field.getType();
-            
-            // 获取字段的文档注释
-            PsiDocComment docComment = field.getDocComment();
-            String commentText = docComment != null ?
-                    docComment.getText().replaceAll("/\\*\\*|\\*/|\\*", "").trim() : null;
-
-            // 首先处理集合类型
-            String fieldTypeName = fieldType.getCanonicalText();
-            if (fieldTypeName.startsWith("java.util.List") ||
-               fieldTypeName.startsWith("java.util.Set") ||
-               fieldTypeName.startsWith("java.util.Collection")) {
-                
-                // 处理泛型集合
-                if (fieldType instanceof PsiClassType) {
-                    PsiClassType classType = (PsiClassType) fieldType;
-                    PsiType[] parameters = classType.getParameters();
-                    
-                    if (parameters.length > 0) {
-                        PsiType paramType = parameters[0];
-                        if (paramType instanceof PsiClassType) {
-                            PsiClass paramClass = ((PsiClassType) paramType).resolve();
-                            if (paramClass != null) {
-                                ArrayList<Object> list = new ArrayList<>();
-                                
-                                // 检查是否为Java标准类型
-                                if (isJavaStandardType(paramType)) {
-                                    // 如果是Java标准类型，且有注释，使用注释
-                                    if (commentText != null && !commentText.isEmpty()) {
-                                        // 创建一个只包含注释内容的对象，不包含属性名
-//                                        HashMap<String, Object> commentObject = new HashMap<>();
-//                                        commentObject.put(commentText, "");
-                                        list.add("${" + commentText + "}");
-                                    } else {
-                                        // 没有注释则使用空对象
-                                        list.add(new HashMap<>());
-                                    }
-                                } else {
-                                    // 如果不是Java标准类型，递归处理自定义类
-                                    Map<String, Object> elementMap = handlePsiClass(paramClass, new HashSet<>(processedClasses), depth + 1);
-                                    list.add(elementMap);
-                                }
-                                
-                                objectMap.put(fieldName, list);
-                                continue;
-                            }
-                        }
+    // 每个光标所在的类；有选区时取选区内的所有类，选区不包含完整的类时取选区起点所在的类。去重后按文件中的顺序排列
+    static List<PsiClass> classesInEditor(PsiFile psiFile, Editor editor) {
+        Set<PsiClass> classes = new HashSet<>();
+        for (Caret caret : editor.getCaretModel().getAllCarets()) {
+            int start = caret.getSelectionStart();
+            int end = caret.getSelectionEnd();
+            Set<PsiClass> selected = new HashSet<>();
+            if (start < end) {
+                // 按文件中的顺序遍历，外层类在内层类之前；外层类已经选中时不再单独输出内层类
+                for (PsiClass psiClass : PsiTreeUtil.findChildrenOfType(psiFile, PsiClass.class)) {
+                    TextRange range = psiClass.getTextRange();
+                    if (range != null && start <= range.getStartOffset() && range.getEndOffset() <= end &&
+                        !(psiClass instanceof PsiAnonymousClass) && !(psiClass instanceof PsiTypeParameter) &&
+                        !selected.contains(PsiTreeUtil.getParentOfType(psiClass, PsiClass.class))) {
+                        selected.add(psiClass);
                     }
                 }
-                objectMap.put(fieldName, new ArrayList<>());
-                continue;
-            } else if (fieldTypeName.startsWith("java.util.Map")) {
-                objectMap.put(fieldName, new HashMap<>());
-                continue;
-            } else if (fieldType instanceof PsiClassType) {
-                PsiClass fieldPsiClass = ((PsiClassType) fieldType).resolve();
-                if (fieldPsiClass != null) {
-                    if (fieldPsiClass.isEnum() || isJavaStandardType(fieldType)) {
-                        // 枚举和Java标准类使用注释或空字符串
-                        objectMap.put(fieldName, commentText != null ? "${" + commentText + "}" : "");
-                    } else {
-                        // 非Java标准类递归处理
-                        Map<String, Object> nestedMap = handlePsiClass(fieldPsiClass, new HashSet<>(processedClasses), depth + 1);
-                        objectMap.put(fieldName, nestedMap);
-                    }
-                    continue;
+            }
+            classes.addAll(selected);
+            if (selected.isEmpty()) {
+                PsiClass psiClass = PsiTreeUtil.getParentOfType(psiFile.findElementAt(start), PsiClass.class);
+                if (psiClass != null) {
+                    classes.add(psiClass);
                 }
             }
-            
-            // 默认处理 - 使用注释或空字符串
-            objectMap.put(fieldName, commentText != null ? "${" + commentText + "}" : "");
         }
-        return objectMap;
+        List<PsiClass> result = new ArrayList<>(classes);
+        result.sort(Comparator.comparingInt(PsiClass::getTextOffset));
+        return result;
     }
 
-    private Object handleCustomObject(String className, Set<String> processedClasses, int depth) {
-        if (depth > 3) { // 限制递归深度
-            return new HashMap<>();
-        }
-
-        if (processedClasses.contains(className)) {
-            return new HashMap<>();
+    // Project View 中选中的类，以及选中的 Java 文件中的顶层类
+    static List<PsiClass> classesIn(PsiElement[] elements) {
+        Set<PsiClass> classes = new LinkedHashSet<>();
+        if (elements != null) {
+            for (PsiElement element : elements) {
+                if (element instanceof PsiClass) {
+                    classes.add((PsiClass) element);
+                } else if (element instanceof PsiJavaFile) {
+                    Collections.addAll(classes, ((PsiJavaFile) element).getClasses());
+                }
+            }
         }
-        processedClasses.add(className);
-
-        try {
-            // 将 HashMap 替换为 LinkedHashMap
-            Map<String, Object> objectMap = new LinkedHashMap<>();
-            Class<?> clazz = Class.forName(className);
+        return new ArrayList<>(classes);
+    }
 
-            if (clazz.isEnum()) {
-                // 枚举也使用空字符串
-                return "";
+    // 在读操作中执行：所有类共用一个编译器，重复引用的类只解析和编译一次，再分别渲染为 JSON
+    // 多个类时第一个标签页是以类名为键的合并文档，可以一次复制全部结果
+    // 读操作被写操作打断后会整体重新执行，所以每次执行使用新的统计对象；indicator 为 null 时不显示进度文字
+    private static Generated generateJson(Project project, List<SmartPsiElementPointer<PsiClass>> classPointers,
+                                          ProgressIndicator indicator) throws Exception {
+        GenerationStats stats = GenerationStats.create();
+        ClassShapeCache shapeCache = ClassShapeCache.getInstance(project);
+        ShapeCompiler compiler = new ShapeCompiler(project, shapeCache, stats);
+
+        Map<String, ClassShape> shapes = new LinkedHashMap<>();
+        for (SmartPsiElementPointer<PsiClass> classPointer : classPointers) {
+            PsiClass psiClass = classPointer.getElement();
+            if (psiClass == null || !psiClass.isValid()) {
+                continue;
             }
-
-            // 快速处理基本类型的包装类
-            if (clazz.getName().startsWith("java.lang.") || 
-                clazz.getName().startsWith("java.util.") || 
-                clazz.getName().startsWith("java.time.")) {
-                return "";  // 统一使用空字符串
+            String name = psiClass.getQualifiedName() != null ? psiClass.getQualifiedName() : String.valueOf(psiClass.getName());
+            if (indicator != null) {
+                indicator.setText2(name);
             }
+            shapes.put(name, compiler.compile(psiClass));
+        }
+        if (shapes.isEmpty()) {
+            return null;
+        }
 
-            java.lang.reflect.Field[] fields = clazz.getDeclaredFields();
-            for (java.lang.reflect.Field field : fields) {
-                String fieldType = field.getType().getName();
-                String fieldName = field.getName();
-
-                // 获取字段的文档注释
-                String commentText = null;
-                try {
-                    java.lang.reflect.Method getDeclaredAnnotations = field.getClass().getMethod("getDeclaredAnnotations");
-                    Object[] annotations = (Object[]) getDeclaredAnnotations.invoke(field);
-                    for (Object annotation : annotations) {
-                        if (annotation.getClass().getName().contains("Documented")) {
-                            commentText = annotation.toString();
-                            break;
-                        }
-                    }
-                } catch (Exception ignored) {}
-
-                // 处理循环引用
-                if (fieldType.equals(className)) {
-                    objectMap.put(fieldName, new HashMap<>());
-                    continue;
-                }
-
-                // 处理集合类型
-                if (fieldType.startsWith("java.util.List") || 
-                    fieldType.startsWith("java.util.Set") ||
-                    fieldType.startsWith("java.util.Collection")) {
-                    
-                    // 尝试获取泛型类型
-                    java.lang.reflect.Type genericType = field.getGenericType();
-                    if (genericType instanceof java.lang.reflect.ParameterizedType) {
-                        java.lang.reflect.ParameterizedType paramType = (java.lang.reflect.ParameterizedType) genericType;
-                        java.lang.reflect.Type[] typeArgs = paramType.getActualTypeArguments();
-                        
-                        if (typeArgs.length > 0 && typeArgs[0] instanceof Class) {
-                            Class<?> elementClass = (Class<?>) typeArgs[0];
-                            if (!elementClass.isPrimitive() && 
-                                !elementClass.getName().startsWith("java.lang.") &&
-                                !elementClass.getName().startsWith("java.util.")) {
-                                
-                                ArrayList<Object> list = new ArrayList<>();
-                                list.add(handleCustomObject(elementClass.getName(), new HashSet<>(processedClasses), depth + 1));
-                                objectMap.put(fieldName, list);
-                                continue;
-                            }
-                        }
-                    }
-                    objectMap.put(fieldName, new ArrayList<>());
-                    continue;
-                }
-
-                Class<?> fieldClass = field.getType();
-                if (fieldClass.isPrimitive() ||
-                    fieldClass.getName().startsWith("java.lang.") ||
-                    fieldClass.getName().startsWith("java.util.") ||
-                    fieldClass.getName().startsWith("java.time.")) {
-                    
-                    // 如果有注释，优先使用注释
-                    if (commentText != null && !commentText.isEmpty()) {
-                        objectMap.put(fieldName, "${" + commentText + "}");
-                    } else {
-                        objectMap.put(fieldName, "");  // 统一使用空字符串
-                    }
-                } else {
-                    try {
-                        // 优先使用PSI系统处理
-                        PsiClass psiClass = JavaPsiFacade.getInstance(project)
-                                .findClass(fieldType, GlobalSearchScope.allScope(project));
-                        if (psiClass != null) {
-                            objectMap.put(fieldName, handlePsiClass(psiClass, new HashSet<>(processedClasses), depth + 1));
-                        } else {
-                            // 如果PSI系统找不到，使用反射处理
-                            Object nestedValue = handleCustomObject(fieldType, new HashSet<>(processedClasses), depth + 1);
-                            objectMap.put(fieldName, nestedValue);
-                        }
-                    } catch (Exception e) {
-                        // 如果处理失败，尝试使用简单类名
-                        String simpleTypeName = fieldType.substring(fieldType.lastIndexOf('.') + 1);
-                        objectMap.put(fieldName, getSimpleDefaultValue(simpleTypeName));
-                    }
+        long start = stats.start();
+        List<JsonViewerDialog.Output> outputs = new ArrayList<>();
+        if (shapes.size() > 1) {
+            // 合并文档共用一个渲染器，对象数和字节数的上限对整个文档生效
+            ShapeJsonRenderer renderer = new ShapeJsonRenderer();
+            String combined = JsonOutput.writeToString(gen -> {
+                gen.writeStartObject();
+                for (Map.Entry<String, ClassShape> entry : shapes.entrySet()) {
+                    gen.writeFieldName(entry.getKey());
+                    renderer.writeRoot(gen, entry.getValue());
                 }
+                gen.writeEndObject();
+            }, true);
+            stats.output(combined);
+            outputs.add(new JsonViewerDialog.Output("All (" + shapes.size() + ")", "Comment2JSON.json", combined));
+        }
+        for (Map.Entry<String, ClassShape> entry : shapes.entrySet()) {
+            String jsonString = JsonOutput.writeToString(gen -> new ShapeJsonRenderer().writeRoot(gen, entry.getValue()), true);
+            if (shapes.size() == 1) {
+                stats.output(jsonString);
             }
-            return objectMap;
-        } catch (Exception e) {
-            return new LinkedHashMap<>();  // 这里也替换为 LinkedHashMap
+            String simpleName = ShapeSchemaRenderer.simpleName(entry.getKey());
+            outputs.add(new JsonViewerDialog.Output(simpleName, simpleName + ".json", jsonString));
+        }
+        stats.stop(GenerationStats.Phase.SERIALIZE, start);
+        shapeCache.logStatistics();
+
+        String report = null;
+        if (stats.isEnabled()) {
+            String title = shapes.size() == 1 ? shapes.keySet().iterator().next() : shapes.size() + " classes";
+            report = stats.report("Comment2JSON " + title, TOP_CLASSES);
+            LOG.info(report);
+        }
+        return new Generated(outputs, report, compiler.isDegraded(), compiler.getUnresolvedCount());
+    }
+
+    private static final class Generated {
+        final List<JsonViewerDialog.Output> outputs;
+        // 没有打开诊断时为 null
+        final String report;
+        // 索引未就绪时降级生成，以及其中无法解析的类型数量
+        final boolean degraded;
+        final int unresolved;
+
+        Generated(List<JsonViewerDialog.Output> outputs, String report, boolean degraded, int unresolved) {
+            this.outputs = outputs;
+            this.report = report;
+            this.degraded = degraded;
+            this.unresolved = unresolved;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * 流式 JSON 输出：复用同一个 JsonFactory 和美化打印模板，把内容直接写到 String、Writer 或文件通道。
+ */
+public final class JsonOutput {
+    // JsonFactory 是线程安全的，整个插件共用一个
+    private static final JsonFactory FACTORY = new JsonFactory();
+    // 与 ObjectMapper.writerWithDefaultPrettyPrinter() 的输出格式一致
+    private static final DefaultPrettyPrinter PRETTY_PRINTER = new DefaultPrettyPrinter();
+
+    private JsonOutput() {
+    }
+
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(JsonGenerator gen) throws IOException;
+    }
+
+    public static String writeToString(Body body, boolean pretty) throws IOException {
+        // 分段缓冲，避免 StringWriter 扩容时的整块复制
+        SegmentedStringWriter out = new SegmentedStringWriter(new BufferRecycler());
+        try (JsonGenerator gen = configure(FACTORY.createGenerator(out), pretty)) {
+            body.writeTo(gen);
+        }
+        return out.getAndClear();
+    }
+
+    // 调用方负责关闭 writer
+    public static void write(Writer writer, Body body, boolean pretty) throws IOException {
+        try (JsonGenerator gen = configure(FACTORY.createGenerator(writer), pretty)) {
+            body.writeTo(gen);
+        }
+    }
+
+    // 以 UTF-8 直接写入文件通道，调用方负责关闭通道
+    public static void write(FileChannel channel, Body body, boolean pretty) throws IOException {
+        OutputStream out = Channels.newOutputStream(channel);
+        try (JsonGenerator gen = configure(FACTORY.createGenerator(out, JsonEncoding.UTF8), pretty)) {
+            body.writeTo(gen);
+        }
+    }
+
+    private static JsonGenerator configure(JsonGenerator gen, boolean pretty) {
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (pretty) {
+            gen.setPrettyPrinter(PRETTY_PRINTER.createInstance());
+        }
+        return gen;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.java2json;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.EditorKind;
+import com.intellij.openapi.editor.EditorSettings;
+import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.editor.highlighter.EditorHighlighterFactory;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootModificationTracker;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.testFramework.LightVirtualFile;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.content.Content;
+import com.intellij.util.Alarm;
+import com.intellij.util.DocumentUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON 预览工具窗口的内容：固定一个类，PSI 修改后在后台重新生成并把差异部分写回文档。
+ * 修改先合并（防抖），生成在 non-blocking read action 中进行，输入时会被取消并稍后重启；
+ * 只有缓存中失效的类（被修改的类及依赖它们的类）需要重新编译。
+ */
+public class JsonPreviewPanel extends SimpleToolWindowPanel implements Disposable {
+    // 最后一次修改之后等待多久再重新生成
+    private static final int REFRESH_DELAY_MS = 300;
+
+    private final Project project;
+    private final Document document;
+    private final EditorEx editor;
+    private final JBLabel status = new JBLabel("Place the caret in a class and click Pin to preview its JSON");
+    private final MergingUpdateQueue refreshQueue;
+    // 以下字段只在 EDT 上访问
+    private SmartPsiElementPointer<PsiClass> pinned;
+    private long renderedStamp = -1;
+
+    public JsonPreviewPanel(Project project) {
+        super(true, true);
+        this.project = project;
+
+        LightVirtualFile file = new LightVirtualFile("preview.json",
+                FileTypeManager.getInstance().getFileTypeByExtension("json"), "");
+        document = FileDocumentManager.getInstance().getDocument(file);
+        editor = (EditorEx) EditorFactory.getInstance().createViewer(document, project, EditorKind.PREVIEW);
+        editor.setHighlighter(EditorHighlighterFactory.getInstance().createEditorHighlighter(project, file));
+        EditorSettings settings = editor.getSettings();
+        settings.setLineNumbersShown(true);
+        settings.setFoldingOutlineShown(true);
+        settings.setUseSoftWraps(false);
+        settings.setAdditionalLinesCount(0);
+
+        DefaultActionGroup group = new DefaultActionGroup(ActionManager.getInstance().getAction("Comment2JSON.PinPreview"));
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("Comment2JSON.Preview", group, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(editor.getComponent(), BorderLayout.CENTER);
+        status.setBorder(JBUI.Borders.empty(2, 6));
+        content.add(status, BorderLayout.SOUTH);
+        setContent(content);
+
+        refreshQueue = new MergingUpdateQueue("Comment2JSON Preview", REFRESH_DELAY_MS, true, null, this,
+                null, Alarm.ThreadToUse.SWING_THREAD);
+        // 任何 PSI 修改都只是排队，真正是否需要重新生成由缓存的修改计数决定
+        project.getMessageBus().connect(this).subscribe(PsiModificationTracker.TOPIC, this::scheduleRefresh);
+    }
+
+    // 工具窗口中的预览面板，窗口还没有创建内容时返回 null
+    static JsonPreviewPanel find(ToolWindow toolWindow) {
+        for (Content content : toolWindow.getContentManager().getContents()) {
+            if (content.getComponent() instanceof JsonPreviewPanel) {
+                return (JsonPreviewPanel) content.getComponent();
+            }
+        }
+        return null;
+    }
+
+    public void pin(SmartPsiElementPointer<PsiClass> pointer) {
+        pinned = pointer;
+        renderedStamp = -1;
+        refresh();
+    }
+
+    private void scheduleRefresh() {
+        if (pinned != null) {
+            refreshQueue.queue(Update.create(this, this::refresh));
+        }
+    }
+
+    private void refresh() {
+        SmartPsiElementPointer<PsiClass> pointer = pinned;
+        if (pointer == null || stamp(project) == renderedStamp) {
+            return;
+        }
+        ReadAction.nonBlocking(() -> generate(pointer))
+                .inSmartMode(project)
+                .coalesceBy(this)
+                .expireWith(this)
+                // 结果要写入文档，不能在 any() 下修改，有模态对话框时等它关闭后再更新
+                .finishOnUiThread(ModalityState.defaultModalityState(), preview -> apply(pointer, preview))
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    // 缓存失效或者项目依赖变化时改变，不变时生成的结果也不变
+    static long stamp(Project project) {
+        return ClassShapeCache.getInstance(project).getModificationCount() +
+               ProjectRootModificationTracker.getInstance(project).getModificationCount();
+    }
+
+    private Preview generate(SmartPsiElementPointer<PsiClass> pointer) throws Exception {
+        long stamp = stamp(project);
+        PsiClass psiClass = pointer.getElement();
+        if (psiClass == null || !psiClass.isValid()) {
+            return new Preview(null, null, stamp, 0, 0);
+        }
+        long start = System.nanoTime();
+        ShapeCompiler compiler = new ShapeCompiler(project, ClassShapeCache.getInstance(project));
+        ClassShape shape = compiler.compile(psiClass);
+        String json = JsonOutput.writeToString(gen -> new ShapeJsonRenderer().writeRoot(gen, shape), true);
+        return new Preview(psiClass.getQualifiedName(), StringUtil.convertLineSeparators(json), stamp,
+                compiler.getExpandedCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void apply(SmartPsiElementPointer<PsiClass> pointer, Preview preview) {
+        if (pointer != pinned) {
+            return;
+        }
+        renderedStamp = preview.stamp;
+        if (preview.json == null) {
+            status.setText("The pinned class no longer exists");
+            return;
+        }
+        patchDocument(preview.json);
+        status.setText(String.format("%s: updated in %d ms, %d classes recompiled",
+                preview.className, preview.millis, preview.recompiled));
+    }
+
+    // 只替换新旧文本中不同的部分，光标、滚动位置和未受影响区域的折叠状态保持不变
+    private void patchDocument(CharSequence json) {
+        CharSequence current = document.getImmutableCharSequence();
+        int[] common = commonEnds(current, json);
+        int prefix = common[0];
+        int suffix = common[1];
+        if (prefix == current.length() && prefix == json.length()) {
+            return;
+        }
+        DocumentUtil.writeInRunUndoTransparentAction(() -> document.replaceString(prefix, current.length() - suffix,
+                json.subSequence(prefix, json.length() - suffix)));
+        JsonViewerDialog.updateFoldRegions(editor.getFoldingModel(), document.getImmutableCharSequence());
+    }
+
+    // 公共前缀和公共后缀的长度，两者不重叠
+    static int[] commonEnds(CharSequence before, CharSequence after) {
+        int max = Math.min(before.length(), after.length());
+        int prefix = 0;
+        while (prefix < max && before.charAt(prefix) == after.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix &&
+               before.charAt(before.length() - 1 - suffix) == after.charAt(after.length() - 1 - suffix)) {
+            suffix++;
+        }
+        return new int[]{prefix, suffix};
+    }
+
+    @Override
+    public void dispose() {
+        EditorFactory.getInstance().releaseEditor(editor);
+    }
+
+    private static final class Preview {
+        final String className;
+        final String json;
+        final long stamp;
+        final int recompiled;
+        final long millis;
+
+        Preview(String className, String json, long stamp, int recompiled, long millis) {
+            this.className = className;
+            this.json = json;
+            this.stamp = stamp;
+            this.recompiled = recompiled;
+            this.millis = millis;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.java2json;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * JSON 预览工具窗口，另有一页显示生成诊断。索引期间也可以打开，生成会等到索引完成后再进行。
+ */
+public class JsonPreviewToolWindowFactory implements ToolWindowFactory, DumbAware {
+    static final String TOOL_WINDOW_ID = "Comment2JSON";
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        JsonPreviewPanel panel = new JsonPreviewPanel(project);
+        Content content = ContentFactory.getInstance().createContent(panel, "Preview", false);
+        content.setDisposer(panel);
+        toolWindow.getContentManager().addContent(content);
+
+        GenerationDiagnosticsPanel diagnostics = new GenerationDiagnosticsPanel(project);
+        Content diagnosticsContent = ContentFactory.getInstance().createContent(diagnostics, "Diagnostics", false);
+        diagnosticsContent.setDisposer(diagnostics);
+        toolWindow.getContentManager().addContent(diagnosticsContent);
+    }
+}
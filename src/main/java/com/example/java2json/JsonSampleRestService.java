@@ -0,0 +1,197 @@
+package com.example.java2json;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.ExceptionUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.ide.RestService;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * IDE 内置 Web 服务器上的接口，供契约测试、Mock 服务等本机工具按类名取得生成结果：
+ * <pre>
+ * GET http://localhost:63342/api/comment2json?class=com.example.Order[&amp;format=json|schema|typescript|yaml][&amp;project=名称]
+ * </pre>
+ * 只接受来自本机（loopback）的连接。生成使用项目的类结构缓存；响应带 ETag，缓存没有失效时
+ * 对带 If-None-Match 的请求直接返回 304，不再生成，工具可以低成本地轮询。索引未就绪时返回 503。
+ */
+public class JsonSampleRestService extends RestService {
+    static final String SERVICE_NAME = "comment2json";
+    // 索引未就绪时建议客户端等待的秒数
+    private static final String RETRY_AFTER_SECONDS = "10";
+    private static final Map<String, OutputFormat> FORMATS = Map.of(
+            "json", OutputFormat.JSON_SAMPLE,
+            "schema", OutputFormat.JSON_SCHEMA,
+            "typescript", OutputFormat.TYPESCRIPT,
+            "yaml", OutputFormat.YAML_SAMPLE);
+
+    @Override
+    protected @NotNull String getServiceName() {
+        return SERVICE_NAME;
+    }
+
+    // 返回的字符串作为 400 错误的内容，返回 null 表示已经（或稍后会）自行发送响应
+    @Override
+    public @Nullable String execute(@NotNull QueryStringDecoder urlDecoder, @NotNull FullHttpRequest request,
+                                    @NotNull ChannelHandlerContext context) {
+        Channel channel = context.channel();
+        // 异步发送响应时请求可能已经释放，需要的请求头先读出来
+        boolean keepAlive = HttpUtil.isKeepAlive(request);
+        if (!isLoopback(channel.remoteAddress())) {
+            send(channel, keepAlive, HttpResponseStatus.FORBIDDEN, null, null, null);
+            return null;
+        }
+        String className = getStringParameter("class", urlDecoder);
+        if (className == null || className.isEmpty()) {
+            return "Missing parameter: class";
+        }
+        String formatName = getStringParameter("format", urlDecoder);
+        OutputFormat format = FORMATS.get(formatName != null ? formatName : "json");
+        if (format == null) {
+            return "Unknown format: " + formatName + ", expected one of " + String.join(", ", FORMATS.keySet());
+        }
+        Project project = findProject(getStringParameter("project", urlDecoder));
+        if (project == null) {
+            send(channel, keepAlive, HttpResponseStatus.NOT_FOUND, null, null, "No open project");
+            return null;
+        }
+        if (DumbService.isDumb(project)) {
+            sendIndexing(channel, keepAlive);
+            return null;
+        }
+
+        // 生成前取 ETag：生成期间缓存失效时下一次请求会拿到新的结果
+        String etag = etag(project, className.replace('$', '.'), format);
+        if (etag.equals(request.headers().get(HttpHeaderNames.IF_NONE_MATCH))) {
+            send(channel, keepAlive, HttpResponseStatus.NOT_MODIFIED, etag, null, null);
+            return null;
+        }
+        ReadAction.nonBlocking(() -> generate(project, className.replace('$', '.'), format))
+                .expireWith(project)
+                .submit(AppExecutorUtil.getAppExecutorService())
+                .onSuccess(text -> {
+                    if (text == null) {
+                        send(channel, keepAlive, HttpResponseStatus.NOT_FOUND, null, null, "Class not found: " + className);
+                    } else {
+                        send(channel, keepAlive, HttpResponseStatus.OK, etag, contentType(format), text);
+                    }
+                })
+                .onError(error -> {
+                    // 检查之后才开始的索引会让生成中途失败，同样回复 503
+                    if (isIndexing(error)) {
+                        sendIndexing(channel, keepAlive);
+                    } else {
+                        send(channel, keepAlive, HttpResponseStatus.INTERNAL_SERVER_ERROR, null, null,
+                                String.valueOf(error.getMessage()));
+                    }
+                });
+        return null;
+    }
+
+    // 在读操作中执行：找不到类时返回 null
+    static String generate(Project project, String className, OutputFormat format) throws Exception {
+        PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(className, GlobalSearchScope.allScope(project));
+        if (psiClass == null) {
+            return null;
+        }
+        ClassShape shape = new ShapeCompiler(project, ClassShapeCache.getInstance(project)).compile(psiClass, format.getCompileBudget());
+        return format.render(shape);
+    }
+
+    static boolean isIndexing(Throwable error) {
+        return ExceptionUtil.findCause(error, IndexNotReadyException.class) != null;
+    }
+
+    private static void sendIndexing(Channel channel, boolean keepAlive) {
+        FullHttpResponse response = response(HttpResponseStatus.SERVICE_UNAVAILABLE, null, null, "Indexing is in progress");
+        response.headers().set(HttpHeaderNames.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        send(channel, keepAlive, response);
+    }
+
+    // 类、格式和上限配置相同并且类结构缓存没有失效时不变
+    static String etag(Project project, String className, OutputFormat format) {
+        int options = Objects.hash(className, format, GenerationBudget.current().toString());
+        return "\"" + Integer.toHexString(options) + "-" + Long.toHexString(JsonPreviewPanel.stamp(project)) + "\"";
+    }
+
+    // 按名称选择项目，没有指定时使用最近激活的项目
+    private static Project findProject(@Nullable String name) {
+        if (name == null) {
+            return getLastFocusedOrOpenedProject();
+        }
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            if (name.equals(project.getName())) {
+                return project;
+            }
+        }
+        return null;
+    }
+
+    static boolean isLoopback(SocketAddress address) {
+        return address instanceof InetSocketAddress && ((InetSocketAddress) address).getAddress() != null &&
+               ((InetSocketAddress) address).getAddress().isLoopbackAddress();
+    }
+
+    private static String contentType(OutputFormat format) {
+        switch (format) {
+            case JSON_SAMPLE:
+            case JSON_SCHEMA:
+                return "application/json; charset=utf-8";
+            default:
+                return "text/plain; charset=utf-8";
+        }
+    }
+
+    private static void send(Channel channel, boolean keepAlive, HttpResponseStatus status, @Nullable String etag,
+                             @Nullable String contentType, @Nullable String text) {
+        send(channel, keepAlive, response(status, etag, contentType, text));
+    }
+
+    private static FullHttpResponse response(HttpResponseStatus status, @Nullable String etag,
+                                             @Nullable String contentType, @Nullable String text) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status,
+                text != null ? Unpooled.copiedBuffer(text, StandardCharsets.UTF_8) : Unpooled.EMPTY_BUFFER);
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType != null ? contentType : "text/plain; charset=utf-8");
+        // 每次都要带着 ETag 回来验证
+        response.headers().set(HttpHeaderNames.CACHE_CONTROL, "no-cache");
+        if (etag != null) {
+            response.headers().set(HttpHeaderNames.ETAG, etag);
+        }
+        return response;
+    }
+
+    private static void send(Channel channel, boolean keepAlive, FullHttpResponse response) {
+        HttpUtil.setContentLength(response, response.content().readableBytes());
+        HttpUtil.setKeepAlive(response, keepAlive);
+        ChannelFuture future = channel.writeAndFlush(response);
+        if (!keepAlive) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按类结构图校验 JSON 或 NDJSON 数据文件，统计缺失的字段、未知的字段和类型不符的值，按 JSON 路径汇总次数。
+ * 类型规则与生成样例时相同：集合对应数组、Map 对应任意对象、自定义类对应对象，标准类型按值类型检查，
+ * 枚举只接受声明的常量名；null 总是允许，Optional 字段（例如 @JsonInclude(NON_NULL)）缺失时不算问题。
+ * 解析器逐个 token 读取，不构建树，内存占用与文件大小无关；NDJSON 在行边界上切成若干段并行校验，最后合并结果，
+ * 格式错误的行记一次后从下一行继续。类结构图由调用方在读操作中编译好，校验本身不需要读操作。
+ */
+public final class JsonShapeValidator {
+    // 编译类结构图的深度，更深的未展开对象不检查内容
+    static final int COMPILE_BUDGET = 32;
+    // 最多记录的不同问题（类型 + 路径），超出的只计入总数
+    static final int MAX_ISSUES = 1000;
+    private static final long DEFAULT_MIN_CHUNK_BYTES = 4L << 20;
+    // 每校验这么多条记录检查一次取消并更新进度
+    private static final int CHECK_INTERVAL = 256;
+    private static final int SCAN_BUFFER = 8192;
+    // JsonFactory 是线程安全的，所有分段共用
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    public enum IssueKind {
+        MISSING,
+        UNKNOWN,
+        TYPE_MISMATCH,
+        // JSON 语法错误
+        MALFORMED
+    }
+
+    private final ClassShape root;
+    private final int parallelism;
+    private final long minChunkBytes;
+    private final AtomicLong bytesDone = new AtomicLong();
+
+    public JsonShapeValidator(ClassShape root) {
+        this(root, BulkJsonExporter.defaultParallelism(), DEFAULT_MIN_CHUNK_BYTES);
+    }
+
+    JsonShapeValidator(ClassShape root, int parallelism, long minChunkBytes) {
+        this.root = root;
+        this.parallelism = Math.max(1, parallelism);
+        this.minChunkBytes = Math.max(1, minChunkBytes);
+    }
+
+    // 扩展名为 .ndjson 或 .jsonl 的文件按每行一条记录处理，其余文件是一个 JSON 对象或对象数组
+    public static boolean isNdjson(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl");
+    }
+
+    public Report validate(Path file, ProgressIndicator indicator) throws IOException {
+        bytesDone.set(0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (!isNdjson(file)) {
+                return validateRange(channel, 0, size, false, size, indicator);
+            }
+            List<long[]> chunks = split(channel, size);
+            if (chunks.size() <= 1) {
+                return validateRange(channel, 0, size, true, size, indicator);
+            }
+            return validateChunks(channel, chunks, size, indicator);
+        }
+    }
+
+    private Report validateChunks(FileChannel channel, List<long[]> chunks, long size, ProgressIndicator indicator) throws IOException {
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Comment2JSON Validation", parallelism);
+        List<Future<Report>> futures = new ArrayList<>(chunks.size());
+        try {
+            for (long[] chunk : chunks) {
+                futures.add(executor.submit(() -> validateRange(channel, chunk[0], chunk[1], true, size, indicator)));
+            }
+            // 按文件中的顺序合并，每个问题的第一次出现位置因此是确定的
+            Report report = new Report();
+            for (Future<Report> future : futures) {
+                try {
+                    report.merge(BulkJsonExporter.await(future, indicator));
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof ProcessCanceledException) {
+                        throw (ProcessCanceledException) cause;
+                    }
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+            return report;
+        } finally {
+            for (Future<Report> future : futures) {
+                future.cancel(false);
+            }
+            executor.shutdown();
+        }
+    }
+
+    // 按大致相等的大小切分，每段的起点移到下一行的行首；段数是并行度的几倍，快慢不均时也能分摊
+    private List<long[]> split(FileChannel channel, long size) throws IOException {
+        long count = Math.max(1, Math.min(parallelism * 4L, size / minChunkBytes));
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        for (long i = 1; i <= count && start < size; i++) {
+            long end = i == count ? size : nextLineStart(channel, Math.max(start, size * i / count), size);
+            if (end > start) {
+                chunks.add(new long[]{start, end});
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    // position 所在行之后下一行的起点；position 恰好是行首时返回它本身
+    private static long nextLineStart(FileChannel channel, long position, long limit) throws IOException {
+        if (position <= 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+        long offset = position - 1;
+        while (offset < limit) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return Math.min(limit, offset + i + 1);
+                }
+            }
+            offset += read;
+        }
+        return limit;
+    }
+
+    // offset 所在行的行首，不早于 from
+    private static long lineStart(FileChannel channel, long from, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+        long blockEnd = offset;
+        while (blockEnd > from) {
+            long blockStart = Math.max(from, blockEnd - SCAN_BUFFER);
+            buffer.clear().limit((int) (blockEnd - blockStart));
+            while (buffer.hasRemaining() && channel.read(buffer, blockStart + buffer.position()) > 0) {
+                // 读满这一块
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return blockStart + i + 1;
+                }
+            }
+            blockEnd = blockStart;
+        }
+        return from;
+    }
+
+    private Report validateRange(FileChannel channel, long start, long end, boolean ndjson, long total,
+                                 ProgressIndicator indicator) throws IOException {
+        Report report = new Report();
+        Walker walker = new Walker(report, start, total, indicator);
+        long position = start;
+        while (position < end) {
+            try (JsonParser parser = FACTORY.createParser(new RangeInputStream(channel, position, end))) {
+                walker.records(parser, position, ndjson);
+                position = end;
+            } catch (JsonProcessingException e) {
+                JsonLocation location = e.getLocation();
+                long offset = position + (location != null ? Math.max(0, location.getByteOffset()) : 0);
+                report.add(IssueKind.MALFORMED, "$", e.getOriginalMessage(), offset);
+                if (!ndjson) {
+                    break;
+                }
+                // 出错的记录从前面的行开始时，是那一行不完整，从出错的行重新开始；否则跳过出错的这一行。
+                // 错误位置在最后读入的字节之后，可能已经是下一行的行首
+                long lineStart = lineStart(channel, position, Math.max(position, Math.min(offset, end) - 1));
+                position = walker.recordStart >= 0 && walker.recordStart < lineStart
+                        ? lineStart : nextLineStart(channel, lineStart + 1, end);
+            }
+        }
+        walker.progress(end - start);
+        return report;
+    }
+
+    // 一段分段中的校验状态。字段路径的节点按需创建，只在当前线程中使用
+    private final class Walker {
+        private final Report report;
+        private final ObjectNode rootNode = new ObjectNode(root, "$");
+        private final long start;
+        private final long total;
+        private final ProgressIndicator indicator;
+        // 已经计入进度的字节数，从分段起点算起
+        private long reported;
+        // 当前解析器的输入在文件中的起点
+        private long base;
+        // 正在校验的记录在文件中的起点，不在记录中时为 -1
+        long recordStart = -1;
+        private JsonParser parser;
+
+        Walker(Report report, long start, long total, ProgressIndicator indicator) {
+            this.report = report;
+            this.start = start;
+            this.total = total;
+            this.indicator = indicator;
+        }
+
+        void records(JsonParser parser, long base, boolean ndjson) throws IOException {
+            this.parser = parser;
+            this.base = base;
+            this.recordStart = -1;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_ARRAY && !ndjson) {
+                    // 顶层数组的每个元素是一条记录
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                        record(token);
+                    }
+                } else {
+                    record(token);
+                }
+            }
+        }
+
+        private void record(JsonToken token) throws IOException {
+            recordStart = base + parser.getTokenLocation().getByteOffset();
+            report.records++;
+            if (token == JsonToken.START_OBJECT) {
+                validateObject(rootNode);
+            } else {
+                mismatch("$", "object", token);
+                parser.skipChildren();
+            }
+            recordStart = -1;
+            if (report.records % CHECK_INTERVAL == 0) {
+                progress(base + parser.getCurrentLocation().getByteOffset() - start);
+            }
+        }
+
+        // bytes 是分段中已经校验的字节数
+        void progress(long bytes) {
+            if (indicator == null) {
+                return;
+            }
+            indicator.checkCanceled();
+            long delta = bytes - reported;
+            if (delta > 0 && total > 0) {
+                reported = bytes;
+                indicator.setFraction(bytesDone.addAndGet(delta) / (double) total);
+            }
+        }
+
+        // 当前 token 是 START_OBJECT
+        private void validateObject(ObjectNode node) throws IOException {
+            if (!node.shape.isComplete() || node.shape.isJavaStandard()) {
+                parser.skipChildren();
+                return;
+            }
+            boolean[] seen = new boolean[node.fields.size()];
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                Integer index = node.indexByName.get(name);
+                JsonToken value = parser.nextToken();
+                if (index == null) {
+                    issue(IssueKind.UNKNOWN, node.path + "." + name, null);
+                    parser.skipChildren();
+                    continue;
+                }
+                seen[index] = true;
+                validateValue(node.slot(index), value);
+            }
+            for (int i = 0; i < seen.length; i++) {
+                if (!seen[i] && !node.fields.get(i).isOptional()) {
+                    issue(IssueKind.MISSING, node.slot(i).path, null);
+                }
+            }
+        }
+
+        private void validateValue(Slot slot, JsonToken token) throws IOException {
+            if (token == JsonToken.VALUE_NULL) {
+                return;
+            }
+            TypeShape type = slot.type;
+            switch (type.getKind()) {
+                case ARRAY:
+                    if (token != JsonToken.START_ARRAY) {
+                        mismatch(slot.path, "array", token);
+                    } else if (type.getElement() != null) {
+                        Slot element = slot.element();
+                        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                            validateValue(element, token);
+                        }
+                        return;
+                    }
+                    break;
+                case MAP:
+                    if (token != JsonToken.START_OBJECT) {
+                        mismatch(slot.path, "object", token);
+                    }
+                    break;
+                case OBJECT:
+                    if (token == JsonToken.START_OBJECT) {
+                        validateObject(slot.object());
+                        return;
+                    }
+                    mismatch(slot.path, "object", token);
+                    break;
+                default:
+                    if (!matches(slot, token)) {
+                        mismatch(slot.path, describe(type), token);
+                    }
+                    break;
+            }
+            parser.skipChildren();
+        }
+
+        private boolean matches(Slot slot, JsonToken token) throws IOException {
+            TypeShape type = slot.type;
+            if (type.getUnresolvedType() != null) {
+                return true;
+            }
+            if (type.getEnumConstants() != null) {
+                return token == JsonToken.VALUE_STRING && slot.constants().contains(parser.getText());
+            }
+            switch (type.getValueType()) {
+                case STRING:
+                    // Date 默认按时间戳序列化
+                    return token == JsonToken.VALUE_STRING ||
+                           type.getFormat() == TypeShape.ValueFormat.INSTANT && token == JsonToken.VALUE_NUMBER_INT;
+                case INTEGER:
+                    return token == JsonToken.VALUE_NUMBER_INT;
+                case NUMBER:
+                    return token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT;
+                case BOOLEAN:
+                    return token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE;
+                default:
+                    return true;
+            }
+        }
+
+        private void mismatch(String path, String expected, JsonToken found) {
+            issue(IssueKind.TYPE_MISMATCH, path, "expected " + expected + ", found " + describe(found));
+        }
+
+        private void issue(IssueKind kind, String path, String detail) {
+            report.add(kind, path, detail, base + parser.getTokenLocation().getByteOffset());
+        }
+    }
+
+    private static String describe(TypeShape type) {
+        if (type.getEnumConstants() != null) {
+            return "one of " + type.getEnumConstants();
+        }
+        return type.getValueType().name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String describe(JsonToken token) {
+        switch (token) {
+            case START_OBJECT:
+                return "object";
+            case START_ARRAY:
+                return "array";
+            case VALUE_STRING:
+                return "string";
+            case VALUE_NUMBER_INT:
+                return "integer";
+            case VALUE_NUMBER_FLOAT:
+                return "number";
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return "boolean";
+            default:
+                return token.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // 数据中某个路径上的对象：字段按名称查找，每个字段的子节点在第一次遇到时创建
+    private static final class ObjectNode {
+        final ClassShape shape;
+        final String path;
+        final List<FieldShape> fields;
+        final Map<String, Integer> indexByName = new HashMap<>();
+        private final Slot[] slots;
+
+        ObjectNode(ClassShape shape, String path) {
+            this.shape = shape;
+            this.path = path;
+            this.fields = shape.getFields();
+            this.slots = new Slot[fields.size()];
+            for (int i = 0; i < fields.size(); i++) {
+                indexByName.putIfAbsent(fields.get(i).getName(), i);
+            }
+        }
+
+        Slot slot(int index) {
+            if (slots[index] == null) {
+                FieldShape field = fields.get(index);
+                slots[index] = new Slot(field.getType(), path + "." + field.getName());
+            }
+            return slots[index];
+        }
+    }
+
+    // 数据中某个路径上的值
+    private static final class Slot {
+        final TypeShape type;
+        final String path;
+        private Slot element;
+        private ObjectNode object;
+        private Set<String> constants;
+
+        Slot(TypeShape type, String path) {
+            this.type = type;
+            this.path = path;
+        }
+
+        Slot element() {
+            if (element == null) {
+                element = new Slot(type.getElement(), path + "[]");
+            }
+            return element;
+        }
+
+        ObjectNode object() {
+            if (object == null) {
+                object = new ObjectNode(type.getTarget(), path);
+            }
+            return object;
+        }
+
+        Set<String> constants() {
+            if (constants == null) {
+                constants = new HashSet<>(type.getEnumConstants());
+            }
+            return constants;
+        }
+    }
+
+    // 文件的一段，多个线程通过各自的流按位置读取同一个通道
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == 1 ? one[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int count = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, end - position)), position);
+            if (count > 0) {
+                position += count;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 校验结果：记录数和按（类型, 路径）汇总的问题，每个问题保留第一次出现的位置和说明。
+     */
+    public static final class Report {
+        private long records;
+        private final Map<String, Issue> issues = new LinkedHashMap<>();
+        private final long[] totals = new long[IssueKind.values().length];
+        private long omitted;
+
+        void add(IssueKind kind, String path, String detail, long offset) {
+            totals[kind.ordinal()]++;
+            String key = kind + " " + path;
+            Issue issue = issues.get(key);
+            if (issue != null) {
+                issue.count++;
+            } else if (issues.size() < MAX_ISSUES) {
+                issues.put(key, new Issue(kind, path, detail, offset));
+            } else {
+                omitted++;
+            }
+        }
+
+        // other 的内容在文件中位于当前结果之后
+        void merge(Report other) {
+            records += other.records;
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += other.totals[i];
+            }
+            omitted += other.omitted;
+            for (Map.Entry<String, Issue> entry : other.issues.entrySet()) {
+                Issue issue = issues.get(entry.getKey());
+                if (issue != null) {
+                    issue.count += entry.getValue().count;
+                } else if (issues.size() < MAX_ISSUES) {
+                    issues.put(entry.getKey(), entry.getValue());
+                } else {
+                    omitted += entry.getValue().count;
+                }
+            }
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        // 某一类问题出现的总次数，包括没有单独记录的
+        public long getCount(IssueKind kind) {
+            return totals[kind.ordinal()];
+        }
+
+        public boolean isValid() {
+            for (long total : totals) {
+                if (total > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 按出现次数从多到少
+        public List<Issue> getIssues() {
+            List<Issue> list = new ArrayList<>(issues.values());
+            list.sort(Comparator.comparingLong(Issue::getCount).reversed());
+            return list;
+        }
+
+        // 超过 MAX_ISSUES 之后没有单独记录的问题次数
+        public long getOmitted() {
+            return omitted;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records: %d missing, %d unknown, %d type mismatches, %d malformed",
+                    records, getCount(IssueKind.MISSING), getCount(IssueKind.UNKNOWN),
+                    getCount(IssueKind.TYPE_MISMATCH), getCount(IssueKind.MALFORMED));
+        }
+    }
+
+    public static final class Issue {
+        private final IssueKind kind;
+        private final String path;
+        private final String detail;
+        private final long firstOffset;
+        private long count = 1;
+
+        Issue(IssueKind kind, String path, String detail, long firstOffset) {
+            this.kind = kind;
+            this.path = path;
+            this.detail = detail;
+            this.firstOffset = firstOffset;
+        }
+
+        public IssueKind getKind() {
+            return kind;
+        }
+
+        // 例如 $.items[].price
+        public String getPath() {
+            return path;
+        }
+
+        // 第一次出现时的说明，MISSING 和 UNKNOWN 为 null
+        public String getDetail() {
+            return detail;
+        }
+
+        // 第一次出现的字节位置
+        public long getFirstOffset() {
+            return firstOffset;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + path + " x" + count + (detail != null ? " (" + detail + ")" : "") +
+                   ", first at byte " + firstOffset;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.java2json;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.EditorKind;
+import com.intellij.openapi.editor.EditorSettings;
+import com.intellij.openapi.editor.FoldRegion;
+import com.intellij.openapi.editor.FoldingModel;
+import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.editor.highlighter.EditorHighlighterFactory;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.openapi.fileTypes.UnknownFileType;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.testFramework.LightVirtualFile;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.util.DocumentUtil;
+import com.intellij.util.text.CharArrayUtil;
+import com.intellij.util.text.CharSequenceReader;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 用只读编辑器显示生成的 JSON：内存中的 JSON 虚拟文件，按可见区域高亮，支持折叠和查找（Ctrl+F）。
+ * 折叠区域只建在外面几层，数量有上限，过大的文档不建折叠区域，避免在 EDT 上一次创建几万个区域。
+ * 同时生成多个格式时每个格式一个标签页。复制和保存直接读取文档内容，不再生成完整的字符串副本。
+ * 对话框打开期间可以用 update 替换内容，例如索引就绪后重新生成的结果。
+ */
+public class JsonViewerDialog extends DialogWrapper {
+    private static final int WRITE_CHUNK = 8192;
+    // 只折叠根对象之下这么多层以内的对象和数组
+    static final int MAX_FOLD_DEPTH = 4;
+    // 折叠区域的数量上限，超出时优先保留外层的
+    static final int MAX_FOLD_REGIONS = 2000;
+    // 超过这个长度的文档不建折叠区域；生成的输出本身受 GenerationBudget 的字节数上限约束（默认 32 MB）
+    static final int MAX_FOLDING_TEXT_LENGTH = 4 * 1024 * 1024;
+
+    private final Project project;
+    private final List<Viewer> viewers = new ArrayList<>();
+    // 内容上方的提示，没有提示时隐藏
+    private final JBLabel notice = new JBLabel();
+    private JBTabbedPane tabs;
+
+    public JsonViewerDialog(Project project, String fileName, CharSequence json) {
+        this(project, "Generated JSON With Comment", List.of(new Output("JSON", fileName, json)));
+    }
+
+    public JsonViewerDialog(Project project, String title, List<Output> outputs) {
+        super(project);
+        this.project = project;
+        for (Output output : outputs) {
+            Viewer viewer = new Viewer(project, output);
+            viewers.add(viewer);
+            Disposer.register(getDisposable(), () -> EditorFactory.getInstance().releaseEditor(viewer.editor));
+        }
+        setTitle(title);
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JComponent component;
+        if (viewers.size() == 1) {
+            component = viewers.get(0).editor.getComponent();
+        } else {
+            tabs = new JBTabbedPane();
+            for (Viewer viewer : viewers) {
+                tabs.addTab(viewer.title, viewer.editor.getComponent());
+            }
+            component = tabs;
+        }
+        component.setPreferredSize(JBUI.size(640, 480));
+        JPanel panel = new JPanel(new BorderLayout());
+        notice.setBorder(JBUI.Borders.emptyBottom(6));
+        notice.setVisible(notice.getText() != null && !notice.getText().isEmpty());
+        panel.add(notice, BorderLayout.NORTH);
+        panel.add(component, BorderLayout.CENTER);
+        return panel;
+    }
+
+    // 设置内容上方的提示，null 时隐藏。在 EDT 上调用
+    public void setNotice(@Nullable String text) {
+        notice.setText(text);
+        notice.setVisible(text != null);
+    }
+
+    // 按顺序替换各个标签页的内容，标签页数量不同时只替换能对应上的部分。在 EDT 上调用
+    public void update(List<Output> outputs) {
+        for (int i = 0; i < Math.min(viewers.size(), outputs.size()); i++) {
+            Viewer viewer = viewers.get(i);
+            CharSequence text = outputs.get(i).text;
+            // 文档对用户只读，替换内容时临时解除
+            viewer.document.setReadOnly(false);
+            try {
+                DocumentUtil.writeInRunUndoTransparentAction(() -> viewer.document.setText(text));
+            } finally {
+                viewer.document.setReadOnly(true);
+            }
+            updateFoldRegions(viewer.editor.getFoldingModel(), viewer.document.getImmutableCharSequence());
+        }
+    }
+
+    @Override
+    public @Nullable JComponent getPreferredFocusedComponent() {
+        return selected().editor.getContentComponent();
+    }
+
+    private Viewer selected() {
+        return tabs != null ? viewers.get(Math.max(0, tabs.getSelectedIndex())) : viewers.get(0);
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[]{new DialogWrapperAction("复制到剪贴板") {
+            @Override
+            protected void doAction(ActionEvent e) {
+                CopyPasteManager.getInstance().setContents(new CharSequenceTransferable(selected().document.getImmutableCharSequence()));
+                // 复制后自动关闭窗口
+                close(OK_EXIT_CODE);
+            }
+        }, new DialogWrapperAction("另存为...") {
+            @Override
+            protected void doAction(ActionEvent e) {
+                save(selected());
+            }
+        }, getCancelAction()};
+    }
+
+    private void save(Viewer viewer) {
+        String extension = viewer.file.getExtension() != null ? viewer.file.getExtension() : "json";
+        VirtualFileWrapper target = FileChooserFactory.getInstance()
+                .createSaveFileDialog(new FileSaverDescriptor("Save " + viewer.title, "Save the generated output to a file", extension), project)
+                .save(viewer.file.getName());
+        if (target == null) {
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(target.getFile().toPath(), StandardCharsets.UTF_8)) {
+            writeChunks(viewer.document.getImmutableCharSequence(), writer);
+        } catch (IOException ex) {
+            Messages.showErrorDialog(project, ex.getMessage(), "Save Failed");
+        }
+    }
+
+    // 对话框中显示的一份输出：标签页标题、文件名（决定语法高亮）和内容
+    public static final class Output {
+        final String title;
+        final String fileName;
+        final CharSequence text;
+
+        public Output(String title, String fileName, CharSequence text) {
+            this.title = title;
+            this.fileName = fileName;
+            this.text = text;
+        }
+    }
+
+    private static final class Viewer {
+        final String title;
+        final LightVirtualFile file;
+        final Document document;
+        final EditorEx editor;
+
+        Viewer(Project project, Output output) {
+            title = output.title;
+            // 没有对应语言支持时按纯文本显示
+            FileType fileType = FileTypeManager.getInstance().getFileTypeByFileName(output.fileName);
+            if (fileType == UnknownFileType.INSTANCE) {
+                fileType = PlainTextFileType.INSTANCE;
+            }
+            file = new LightVirtualFile(output.fileName, fileType, output.text);
+            file.setWritable(false);
+            document = FileDocumentManager.getInstance().getDocument(file);
+
+            editor = (EditorEx) EditorFactory.getInstance().createViewer(document, project, EditorKind.PREVIEW);
+            editor.setHighlighter(EditorHighlighterFactory.getInstance().createEditorHighlighter(project, file));
+            EditorSettings settings = editor.getSettings();
+            settings.setLineNumbersShown(true);
+            settings.setFoldingOutlineShown(true);
+            settings.setUseSoftWraps(false);
+            settings.setAdditionalLinesCount(0);
+            settings.setAdditionalColumnsCount(0);
+            updateFoldRegions(editor.getFoldingModel(), document.getImmutableCharSequence());
+        }
+    }
+
+    // 按块写出，避免 Writer.append(CharSequence) 对整个文档调用 toString()
+    static void writeChunks(CharSequence text, Writer writer) throws IOException {
+        char[] buffer = new char[Math.min(WRITE_CHUNK, Math.max(1, text.length()))];
+        for (int start = 0; start < text.length(); start += buffer.length) {
+            int length = Math.min(buffer.length, text.length() - start);
+            CharArrayUtil.getChars(text, buffer, start, 0, length);
+            writer.write(buffer, 0, length);
+        }
+    }
+
+    // 去掉不再对应括号的折叠区域，补上新出现的，已有区域的折叠状态保持不变
+    static void updateFoldRegions(FoldingModel foldingModel, CharSequence text) {
+        List<int[]> ranges = text.length() > MAX_FOLDING_TEXT_LENGTH
+                ? Collections.emptyList() : findFoldRanges(text, MAX_FOLD_DEPTH, MAX_FOLD_REGIONS);
+        Set<Long> keys = new HashSet<>();
+        for (int[] range : ranges) {
+            keys.add(rangeKey(range[0], range[1]));
+        }
+        foldingModel.runBatchFoldingOperation(() -> {
+            for (FoldRegion region : foldingModel.getAllFoldRegions()) {
+                if (!region.isValid() || !keys.remove(rangeKey(region.getStartOffset(), region.getEndOffset()))) {
+                    foldingModel.removeFoldRegion(region);
+                }
+            }
+            for (int[] range : ranges) {
+                if (keys.contains(rangeKey(range[0], range[1]))) {
+                    foldingModel.addFoldRegion(range[0], range[1], text.charAt(range[0]) == '{' ? "{...}" : "[...]");
+                }
+            }
+        });
+    }
+
+    private static long rangeKey(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    static List<int[]> findFoldRanges(CharSequence text) {
+        return findFoldRanges(text, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    // 找出跨行的对象和数组，范围从左括号到右括号（含），跳过字符串中的括号。
+    // 根对象的深度为 0，只保留深度不超过 maxDepth 的；超过 maxRegions 个时按深度由浅到深保留，结果仍按右括号出现的顺序
+    static List<int[]> findFoldRanges(CharSequence text, int maxDepth, int maxRegions) {
+        List<int[]> ranges = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        Deque<Integer> open = new ArrayDeque<>();
+        boolean inString = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    open.push(i);
+                    break;
+                case '}':
+                case ']':
+                    if (!open.isEmpty()) {
+                        int start = open.pop();
+                        if (open.size() <= maxDepth && CharArrayUtil.containLineBreaks(text, start, i)) {
+                            ranges.add(new int[]{start, i + 1});
+                            depths.add(open.size());
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return ranges.size() <= maxRegions ? ranges : outermost(ranges, depths, maxRegions);
+    }
+
+    // 从外层开始保留 maxRegions 个区域，最后一层放不下时保留其中靠前的
+    private static List<int[]> outermost(List<int[]> ranges, List<Integer> depths, int maxRegions) {
+        int[] counts = new int[Collections.max(depths) + 1];
+        for (int depth : depths) {
+            counts[depth]++;
+        }
+        int lastDepth = 0;
+        int remaining = maxRegions;
+        while (lastDepth < counts.length && counts[lastDepth] <= remaining) {
+            remaining -= counts[lastDepth];
+            lastDepth++;
+        }
+        List<int[]> kept = new ArrayList<>(maxRegions);
+        for (int i = 0; i < ranges.size(); i++) {
+            int depth = depths.get(i);
+            if (depth < lastDepth) {
+                kept.add(ranges.get(i));
+            } else if (depth == lastDepth && remaining > 0) {
+                kept.add(ranges.get(i));
+                remaining--;
+            }
+        }
+        return kept;
+    }
+
+    // 只有在粘贴时才把文档内容转换成字符串，支持 Reader 的目标可以直接读取文档
+    private static final class CharSequenceTransferable implements Transferable {
+        private static final DataFlavor READER_FLAVOR = readerFlavor();
+
+        private final CharSequence text;
+
+        CharSequenceTransferable(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public DataFlavor[] getTransferDataFlavors() {
+            return READER_FLAVOR != null
+                    ? new DataFlavor[]{DataFlavor.stringFlavor, READER_FLAVOR}
+                    : new DataFlavor[]{DataFlavor.stringFlavor};
+        }
+
+        @Override
+        public boolean isDataFlavorSupported(DataFlavor flavor) {
+            return DataFlavor.stringFlavor.equals(flavor) || flavor.equals(READER_FLAVOR);
+        }
+
+        @Override
+        public @NotNull Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException {
+            if (DataFlavor.stringFlavor.equals(flavor)) {
+                return text.toString();
+            }
+            if (flavor.equals(READER_FLAVOR)) {
+                return new CharSequenceReader(text);
+            }
+            throw new UnsupportedFlavorException(flavor);
+        }
+
+        private static DataFlavor readerFlavor() {
+            try {
+                return new DataFlavor("text/plain;class=java.io.Reader");
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.java2json;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 线程安全的定长 LRU 缓存，附带命中/未命中/淘汰计数。
+ * 子类可以覆盖 onDropFromCache，在条目被淘汰时清理与它关联的数据。
+ */
+public class LruCache<K, V> {
+    private final int maxSize;
+    private final LinkedHashMap<K, V> map;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        // accessOrder = true，按访问顺序排列，最久未访问的在最前面
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    onDropFromCache(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        V value = map.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    // 命中时计数，未命中时不计数：调用方还会查其他来源，都没有时再调用 recordMiss()
+    public synchronized V getIfPresent(K key) {
+        V value = map.get(key);
+        if (value != null) {
+            hits++;
+        }
+        return value;
+    }
+
+    public synchronized void recordMiss() {
+        misses++;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, value);
+    }
+
+    public synchronized V remove(K key) {
+        return map.remove(key);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    // 超出容量淘汰条目时调用，调用时持有缓存的锁；remove 和 clear 不会调用
+    protected void onDropFromCache(K key, V value) {
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long total = hits + misses;
+        long hitRate = total == 0 ? 0 : hits * 100 / total;
+        return "size=" + map.size() + "/" + maxSize +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", hitRate=" + hitRate + "%" +
+                ", evictions=" + evictions;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.java2json;
+
+import java.io.IOException;
+
+/**
+ * 由同一张类结构图输出的格式。多个格式一起生成时只编译一次类结构图。
+ */
+public enum OutputFormat {
+    JSON_SAMPLE("JSON Sample", ".json", false) {
+        @Override
+        public String render(ClassShape root) throws IOException {
+            return JsonOutput.writeToString(gen -> new ShapeJsonRenderer().writeRoot(gen, root), true);
+        }
+    },
+    JSON_SCHEMA("JSON Schema", ".schema.json", true) {
+        @Override
+        public String render(ClassShape root) throws IOException {
+            return JsonOutput.writeToString(gen -> new ShapeSchemaRenderer().writeRoot(gen, root), true);
+        }
+    },
+    TYPESCRIPT("TypeScript", ".ts", true) {
+        @Override
+        public String render(ClassShape root) {
+            return new ShapeTypeScriptRenderer().render(root);
+        }
+    },
+    YAML_SAMPLE("YAML Sample", ".yaml", false) {
+        @Override
+        public String render(ClassShape root) throws IOException {
+            return new ShapeYamlRenderer().render(root);
+        }
+    };
+
+    private final String displayName;
+    private final String extension;
+    // 按类型定义输出，需要整张类图而不是样例的嵌套深度
+    private final boolean fullGraph;
+
+    OutputFormat(String displayName, String extension, boolean fullGraph) {
+        this.displayName = displayName;
+        this.extension = extension;
+        this.fullGraph = fullGraph;
+    }
+
+    public abstract String render(ClassShape root) throws IOException;
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // 编译类结构图需要的深度
+    public int getCompileBudget() {
+        int sampleBudget = GenerationBudget.current().getCompileBudget();
+        return fullGraph ? Math.max(ShapeCompiler.FULL_GRAPH_BUDGET, sampleBudget) : sampleBudget;
+    }
+}
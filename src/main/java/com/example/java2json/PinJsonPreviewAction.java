@@ -0,0 +1,67 @@
+package com.example.java2json;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 把光标所在的类固定到 JSON 预览工具窗口。
+ * 从工具窗口自己的工具栏调用时，使用当前选中的 Java 编辑器。
+ */
+public class PinJsonPreviewAction extends AnAction {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        Editor editor = e.getData(CommonDataKeys.EDITOR);
+        PsiFile psiFile = e.getData(CommonDataKeys.PSI_FILE);
+        if (!(psiFile instanceof PsiJavaFile)) {
+            // 在预览窗口中触发时，上下文里的编辑器是预览本身
+            editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+            psiFile = editor != null ? PsiDocumentManager.getInstance(project).getPsiFile(editor.getDocument()) : null;
+        }
+        if (editor == null || !(psiFile instanceof PsiJavaFile)) {
+            return;
+        }
+
+        PsiElement element = psiFile.findElementAt(editor.getSelectionModel().getSelectionStart());
+        PsiClass psiClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+        if (psiClass == null) {
+            return;
+        }
+
+        SmartPsiElementPointer<PsiClass> pointer = SmartPointerManager.createPointer(psiClass);
+        ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(JsonPreviewToolWindowFactory.TOOL_WINDOW_ID);
+        if (toolWindow == null) {
+            return;
+        }
+        toolWindow.show(() -> {
+            JsonPreviewPanel panel = JsonPreviewPanel.find(toolWindow);
+            if (panel != null) {
+                panel.pin(pointer);
+            }
+        });
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.intellij.openapi.progress.ProgressIndicator;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * 压测用的样例数据：类结构图先编译成记录模板，之后按模板把任意多条记录流式写成 NDJSON（每行一条）。
+ * 值按字段类型生成：整数（byte、short 不超过各自的上限）、小数、布尔、字符串（char 只有一个字符）、日期时间、UUID、枚举常量，
+ * 集合的元素个数在配置的范围内，Jackson 和 Gson 都能把记录反序列化回原来的类。
+ * 第 i 条记录只由种子和 i 决定，相同的参数总是得到相同的输出。
+ * 模板不引用 PSI，写记录时不需要读操作；记录写出后不保留，内存占用与记录数无关。
+ * 循环引用和超过嵌套层数的对象写成 null。一个实例同一时间只能由一个线程写。
+ */
+public final class SampleRecordGenerator {
+    // 模板中最多的对象数，超出的对象写成 null
+    static final int MAX_TEMPLATE_OBJECTS = GenerationBudget.DEFAULT_MAX_NODES;
+    // 日期从 2020-01-01 开始的五年内
+    private static final long FIRST_DAY = LocalDate.of(2020, 1, 1).toEpochDay();
+    private static final int DAYS = 5 * 365;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // 每 1024 条记录检查一次取消并更新进度
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final Options options;
+    private final Template root;
+    private final Cursor cursor;
+    private int objects;
+    private int bufferSize = 40;
+
+    public SampleRecordGenerator(ClassShape shape, Options options) {
+        this.options = options;
+        Set<ClassShape> path = new HashSet<>();
+        path.add(shape);
+        this.root = compileObject(shape, 0, path);
+        this.cursor = new Cursor(bufferSize);
+    }
+
+    // 生成第 index 条记录
+    public void writeRecord(JsonGenerator gen, long index) throws IOException {
+        cursor.random = new SplittableRandom(mix(options.seed, index));
+        root.write(gen, cursor);
+    }
+
+    // 每条记录的种子需要充分打散：SplittableRandom 内部按固定步长推进，相邻的线性种子会让后一条记录重复前一条的数值
+    static long mix(long seed, long index) {
+        long z = seed + index * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    public String recordToString(long index) throws IOException {
+        return JsonOutput.writeToString(gen -> writeRecord(gen, index), false);
+    }
+
+    // 写出从第 0 条开始的 count 条记录，返回写出的字节数；indicator 可以为 null
+    public long writeNdjson(Path file, long count, ProgressIndicator indicator) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            JsonOutput.write(channel, gen -> {
+                // 记录之间只用换行分隔
+                gen.setRootValueSeparator(null);
+                for (long i = 0; i < count; i++) {
+                    if (indicator != null && i % CHECK_INTERVAL == 0) {
+                        indicator.checkCanceled();
+                        indicator.setFraction(i / (double) count);
+                    }
+                    writeRecord(gen, i);
+                    gen.writeRaw('\n');
+                }
+            }, false);
+            return channel.size();
+        }
+    }
+
+    private Template compileType(FieldShape field, TypeShape type, int depth, Set<ClassShape> path) {
+        switch (type.getKind()) {
+            case ARRAY:
+                if (type.getElement() == null) {
+                    return EMPTY_ARRAY;
+                }
+                return new ArrayTemplate(compileType(field, type.getElement(), depth, path),
+                        options.minItems, options.maxItems);
+            case MAP:
+                return EMPTY_OBJECT;
+            case OBJECT:
+                ClassShape target = type.getTarget();
+                // 只按模板自身的路径判断循环：共享节点可能来自缓存中以其他类为根的编译
+                if (path.contains(target) || depth >= options.maxDepth) {
+                    return NULL;
+                }
+                if (target.isJavaStandard()) {
+                    return EMPTY_OBJECT;
+                }
+                path.add(target);
+                try {
+                    return compileObject(target, depth + 1, path);
+                } finally {
+                    path.remove(target);
+                }
+            default:
+                return compileValue(field, type);
+        }
+    }
+
+    private Template compileObject(ClassShape shape, int depth, Set<ClassShape> path) {
+        if (++objects > MAX_TEMPLATE_OBJECTS) {
+            return NULL;
+        }
+        List<FieldShape> fields = shape.getFields();
+        SerializableString[] names = new SerializableString[fields.size()];
+        Template[] values = new Template[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            FieldShape field = fields.get(i);
+            names[i] = new SerializedString(field.getName());
+            values[i] = compileType(field, field.getType(), depth, path);
+        }
+        return new ObjectTemplate(names, values);
+    }
+
+    private Template compileValue(FieldShape field, TypeShape type) {
+        if (type.getUnresolvedType() != null) {
+            return NULL;
+        }
+        if (type.getEnumConstants() != null) {
+            List<SerializableString> constants = new ArrayList<>();
+            for (String constant : type.getEnumConstants()) {
+                constants.add(new SerializedString(constant));
+            }
+            return constants.isEmpty() ? NULL : new EnumTemplate(constants.toArray(new SerializableString[0]));
+        }
+        if (type.getFormat() == TypeShape.ValueFormat.BYTE) {
+            return BYTE;
+        }
+        if (type.getFormat() == TypeShape.ValueFormat.SHORT) {
+            return SHORT;
+        }
+        if (type.getFormat() != null) {
+            return new FormattedTemplate(type.getFormat());
+        }
+        switch (type.getValueType()) {
+            case STRING:
+                // 字段名加编号，例如 name-4821
+                char[] prefix = (field.getName() + "-").toCharArray();
+                bufferSize = Math.max(bufferSize, prefix.length + 10);
+                return new StringTemplate(prefix);
+            case INTEGER:
+                return INTEGER;
+            case NUMBER:
+                return NUMBER;
+            case BOOLEAN:
+                return BOOLEAN;
+            default:
+                return NULL;
+        }
+    }
+
+    // 写一条记录时的状态：这条记录的随机数和格式化用的缓冲区
+    private static final class Cursor {
+        SplittableRandom random;
+        final char[] buffer;
+
+        Cursor(int bufferSize) {
+            this.buffer = new char[bufferSize];
+        }
+    }
+
+    private interface Template {
+        void write(JsonGenerator gen, Cursor cursor) throws IOException;
+    }
+
+    private static final Template NULL = (gen, cursor) -> gen.writeNull();
+
+    private static final Template EMPTY_ARRAY = (gen, cursor) -> {
+        gen.writeStartArray();
+        gen.writeEndArray();
+    };
+
+    private static final Template EMPTY_OBJECT = (gen, cursor) -> {
+        gen.writeStartObject();
+        gen.writeEndObject();
+    };
+
+    private static final Template INTEGER = (gen, cursor) -> gen.writeNumber(cursor.random.nextInt(1, 100_000));
+
+    private static final Template BYTE = (gen, cursor) -> gen.writeNumber(cursor.random.nextInt(1, Byte.MAX_VALUE + 1));
+
+    private static final Template SHORT = (gen, cursor) -> gen.writeNumber(cursor.random.nextInt(1, Short.MAX_VALUE + 1));
+
+    private static final Template BOOLEAN = (gen, cursor) -> gen.writeBoolean(cursor.random.nextBoolean());
+
+    // 两位小数，0.00 到 99999.99
+    private static final Template NUMBER = (gen, cursor) -> {
+        int cents = cursor.random.nextInt(10_000_000);
+        char[] buffer = cursor.buffer;
+        int end = writeInt(buffer, 0, cents / 100);
+        buffer[end++] = '.';
+        end = writeDigits(buffer, end, cents % 100, 2);
+        gen.writeNumber(buffer, 0, end);
+    };
+
+    private static final class ObjectTemplate implements Template {
+        private final SerializableString[] names;
+        private final Template[] values;
+
+        ObjectTemplate(SerializableString[] names, Template[] values) {
+            this.names = names;
+            this.values = values;
+        }
+
+        @Override
+        public void write(JsonGenerator gen, Cursor cursor) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                gen.writeFieldName(names[i]);
+                values[i].write(gen, cursor);
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class ArrayTemplate implements Template {
+        private final Template element;
+        private final int minItems;
+        private final int maxItems;
+
+        ArrayTemplate(Template element, int minItems, int maxItems) {
+            this.element = element;
+            this.minItems = minItems;
+            this.maxItems = maxItems;
+        }
+
+        @Override
+        public void write(JsonGenerator gen, Cursor cursor) throws IOException {
+            int size = minItems == maxItems ? minItems : cursor.random.nextInt(minItems, maxItems + 1);
+            gen.writeStartArray();
+            for (int i = 0; i < size; i++) {
+                element.write(gen, cursor);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    private static final class StringTemplate implements Template {
+        private final char[] prefix;
+
+        StringTemplate(char[] prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public void write(JsonGenerator gen, Cursor cursor) throws IOException {
+            char[] buffer = cursor.buffer;
+            System.arraycopy(prefix, 0, buffer, 0, prefix.length);
+            int end = writeInt(buffer, prefix.length, cursor.random.nextInt(1, 100_000));
+            gen.writeString(buffer, 0, end);
+        }
+    }
+
+    private static final class EnumTemplate implements Template {
+        private final SerializableString[] constants;
+
+        EnumTemplate(SerializableString[] constants) {
+            this.constants = constants;
+        }
+
+        @Override
+        public void write(JsonGenerator gen, Cursor cursor) throws IOException {
+            gen.writeString(constants[cursor.random.nextInt(constants.length)]);
+        }
+    }
+
+    private static final class FormattedTemplate implements Template {
+        private final TypeShape.ValueFormat format;
+
+        FormattedTemplate(TypeShape.ValueFormat format) {
+            this.format = format;
+        }
+
+        @Override
+        public void write(JsonGenerator gen, Cursor cursor) throws IOException {
+            SplittableRandom random = cursor.random;
+            char[] buffer = cursor.buffer;
+            int end;
+            switch (format) {
+                case DATE:
+                    end = writeDate(buffer, 0, FIRST_DAY + random.nextInt(DAYS));
+                    break;
+                case DATE_TIME:
+                case INSTANT:
+                    end = writeDate(buffer, 0, FIRST_DAY + random.nextInt(DAYS));
+                    buffer[end++] = 'T';
+                    end = writeTime(buffer, end, random.nextInt(SECONDS_PER_DAY));
+                    if (format == TypeShape.ValueFormat.INSTANT) {
+                        buffer[end++] = 'Z';
+                    }
+                    break;
+                case TIME:
+                    end = writeTime(buffer, 0, random.nextInt(SECONDS_PER_DAY));
+                    break;
+                case CHAR:
+                    buffer[0] = (char) ('a' + random.nextInt(26));
+                    end = 1;
+                    break;
+                default:
+                    end = writeUuid(buffer, random.nextLong(), random.nextLong());
+                    break;
+            }
+            gen.writeString(buffer, 0, end);
+        }
+    }
+
+    // yyyy-MM-dd
+    private static int writeDate(char[] buffer, int start, long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int end = writeDigits(buffer, start, date.getYear(), 4);
+        buffer[end++] = '-';
+        end = writeDigits(buffer, end, date.getMonthValue(), 2);
+        buffer[end++] = '-';
+        return writeDigits(buffer, end, date.getDayOfMonth(), 2);
+    }
+
+    // HH:mm:ss
+    private static int writeTime(char[] buffer, int start, int secondOfDay) {
+        int end = writeDigits(buffer, start, secondOfDay / 3600, 2);
+        buffer[end++] = ':';
+        end = writeDigits(buffer, end, secondOfDay / 60 % 60, 2);
+        buffer[end++] = ':';
+        return writeDigits(buffer, end, secondOfDay % 60, 2);
+    }
+
+    // 版本 4（随机）UUID 的标准写法
+    private static int writeUuid(char[] buffer, long high, long low) {
+        high = (high & ~0xF000L) | 0x4000L;
+        low = (low & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        int end = writeHex(buffer, 0, high >>> 32, 8);
+        buffer[end++] = '-';
+        end = writeHex(buffer, end, high >>> 16, 4);
+        buffer[end++] = '-';
+        end = writeHex(buffer, end, high, 4);
+        buffer[end++] = '-';
+        end = writeHex(buffer, end, low >>> 48, 4);
+        buffer[end++] = '-';
+        return writeHex(buffer, end, low, 12);
+    }
+
+    private static int writeHex(char[] buffer, int start, long value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            buffer[start + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return start + width;
+    }
+
+    // 不足 width 位时前面补 0
+    private static int writeDigits(char[] buffer, int start, int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            buffer[start + i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return start + width;
+    }
+
+    // 非负整数
+    private static int writeInt(char[] buffer, int start, int value) {
+        int width = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            width++;
+        }
+        return writeDigits(buffer, start, value, width);
+    }
+
+    /**
+     * 生成参数：随机种子、集合元素个数的范围（包含两端）和对象的最大嵌套层数。
+     */
+    public static final class Options {
+        public static final Options DEFAULT = new Options(0, 1, 3, GenerationBudget.DEFAULT_MAX_DEPTH);
+
+        private final long seed;
+        private final int minItems;
+        private final int maxItems;
+        private final int maxDepth;
+
+        public Options(long seed, int minItems, int maxItems, int maxDepth) {
+            if (minItems < 0 || maxItems < minItems) {
+                throw new IllegalArgumentException("Invalid collection size range: " + minItems + ".." + maxItems);
+            }
+            this.seed = seed;
+            this.minItems = minItems;
+            this.maxItems = maxItems;
+            this.maxDepth = Math.max(0, maxDepth);
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public int getMinItems() {
+            return minItems;
+        }
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        // 编译类结构图时需要的深度，见 GenerationBudget.getCompileBudget()
+        public int getCompileBudget() {
+            return maxDepth + 2;
+        }
+
+        @Override
+        public String toString() {
+            return "Options(seed " + seed + ", items " + minItems + ".." + maxItems + ", depth " + maxDepth + ")";
+        }
+    }
+}
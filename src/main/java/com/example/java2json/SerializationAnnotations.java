@@ -0,0 +1,266 @@
+package com.example.java2json;
+
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.psi.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 按 Jackson 和 Gson 的注解决定字段是否输出、输出的名称以及是否可能被省略。
+ * 类级别的注解（@JsonIgnoreProperties、@JsonNaming、@JsonInclude）每个类只读取一次，由 ShapeCompiler 按类缓存并沿继承链合并；
+ * 字段注解先比较短名称，只有可能匹配时才解析全限定名。Lombok 生成的访问器不改变字段上的注解，按字段处理即可。
+ */
+public final class SerializationAnnotations {
+    static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+    static final String JSON_IGNORE_PROPERTIES = "com.fasterxml.jackson.annotation.JsonIgnoreProperties";
+    static final String JSON_INCLUDE = "com.fasterxml.jackson.annotation.JsonInclude";
+    static final String JSON_NAMING = "com.fasterxml.jackson.databind.annotation.JsonNaming";
+    static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+
+    private static final Set<String> FIELD_ANNOTATIONS = Set.of("JsonProperty", "JsonIgnore", "JsonInclude", "SerializedName");
+
+    private SerializationAnnotations() {
+    }
+
+    // 类上的序列化规则，子类的注解覆盖父类的
+    public static final class ClassRules {
+        static final ClassRules NONE = new ClassRules(Collections.emptySet(), null, false, Collections.emptySet());
+
+        private final Set<String> ignoredProperties;
+        // 为 null 时使用字段名
+        private final NamingStrategy naming;
+        private final boolean optionalByDefault;
+        // 读取了注解的类（包括没有注解的父类），这些类修改后规则可能变化
+        private final Set<String> sourceClasses;
+
+        ClassRules(Set<String> ignoredProperties, NamingStrategy naming, boolean optionalByDefault, Set<String> sourceClasses) {
+            this.ignoredProperties = ignoredProperties;
+            this.naming = naming;
+            this.optionalByDefault = optionalByDefault;
+            this.sourceClasses = sourceClasses;
+        }
+
+        public Set<String> getSourceClasses() {
+            return sourceClasses;
+        }
+    }
+
+    // 字段在 JSON 中的名称，不输出时返回 null
+    public static final class Property {
+        final String name;
+        final boolean optional;
+
+        Property(String name, boolean optional) {
+            this.name = name;
+            this.optional = optional;
+        }
+    }
+
+    enum NamingStrategy {
+        SNAKE_CASE('_', false),
+        UPPER_SNAKE_CASE('_', true),
+        KEBAB_CASE('-', false),
+        LOWER_DOT_CASE('.', false),
+        LOWER_CASE((char) 0, false),
+        UPPER_CAMEL_CASE((char) 0, false);
+
+        private final char separator;
+        private final boolean upper;
+
+        NamingStrategy(char separator, boolean upper) {
+            this.separator = separator;
+            this.upper = upper;
+        }
+
+        // 与 Jackson 的 PropertyNamingStrategies 一致：连续的大写字母作为一个词
+        String translate(String name) {
+            if (this == UPPER_CAMEL_CASE) {
+                return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            }
+            if (this == LOWER_CASE) {
+                return name.toLowerCase(Locale.ROOT);
+            }
+            StringBuilder sb = new StringBuilder(name.length() + 4);
+            boolean previousUpper = false;
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (Character.isUpperCase(c)) {
+                    if (!previousUpper && sb.length() > 0 && sb.charAt(sb.length() - 1) != separator) {
+                        sb.append(separator);
+                    }
+                    previousUpper = true;
+                    c = Character.toLowerCase(c);
+                } else {
+                    previousUpper = false;
+                }
+                sb.append(upper ? Character.toUpperCase(c) : c);
+            }
+            return sb.toString();
+        }
+
+        // @JsonNaming 的参数，例如 PropertyNamingStrategies.SnakeCaseStrategy.class，只看类名不解析
+        static NamingStrategy fromClassName(String text) {
+            String name = text.endsWith(".class") ? text.substring(0, text.length() - ".class".length()) : text;
+            name = name.substring(name.lastIndexOf('.') + 1);
+            switch (name) {
+                case "SnakeCaseStrategy":
+                case "LowerCaseWithUnderscoresStrategy":
+                    return SNAKE_CASE;
+                case "UpperSnakeCaseStrategy":
+                    return UPPER_SNAKE_CASE;
+                case "KebabCaseStrategy":
+                    return KEBAB_CASE;
+                case "LowerDotCaseStrategy":
+                    return LOWER_DOT_CASE;
+                case "LowerCaseStrategy":
+                    return LOWER_CASE;
+                case "UpperCamelCaseStrategy":
+                case "PascalCaseStrategy":
+                    return UPPER_CAMEL_CASE;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    // 类自己的注解覆盖从父类继承的规则 inherited
+    public static ClassRules classRules(PsiClass psiClass, ClassRules inherited) {
+        Set<String> ignored = inherited.ignoredProperties;
+        NamingStrategy naming = inherited.naming;
+        boolean optional = inherited.optionalByDefault;
+        Set<String> sourceClasses = inherited.sourceClasses;
+        if (psiClass.getQualifiedName() != null) {
+            sourceClasses = new HashSet<>(sourceClasses);
+            sourceClasses.add(psiClass.getQualifiedName());
+        }
+        PsiModifierList modifiers = psiClass.getModifierList();
+        PsiAnnotation[] annotations = modifiers != null ? modifiers.getAnnotations() : PsiAnnotation.EMPTY_ARRAY;
+        for (PsiAnnotation annotation : annotations) {
+            String shortName = shortName(annotation);
+            if ("JsonIgnoreProperties".equals(shortName) && is(annotation, JSON_IGNORE_PROPERTIES)) {
+                ignored = strings(annotation.findDeclaredAttributeValue("value"));
+            } else if ("JsonNaming".equals(shortName) && is(annotation, JSON_NAMING)) {
+                PsiAnnotationMemberValue value = annotation.findDeclaredAttributeValue("value");
+                naming = value != null ? NamingStrategy.fromClassName(value.getText()) : null;
+            } else if ("JsonInclude".equals(shortName) && is(annotation, JSON_INCLUDE)) {
+                optional = isOptionalInclusion(annotation);
+            }
+        }
+        return new ClassRules(ignored, naming, optional, sourceClasses);
+    }
+
+    // 字段在 JSON 中的名称和是否可能被省略；字段不会被序列化时返回 null
+    public static Property property(PsiField field, ClassRules rules) {
+        if (field.hasModifierProperty(PsiModifier.TRANSIENT)) {
+            return null;
+        }
+        String explicitName = null;
+        boolean optional = rules.optionalByDefault;
+        PsiModifierList modifiers = field.getModifierList();
+        if (modifiers != null) {
+            for (PsiAnnotation annotation : modifiers.getAnnotations()) {
+                String shortName = shortName(annotation);
+                if (shortName == null || !FIELD_ANNOTATIONS.contains(shortName)) {
+                    continue;
+                }
+                if ("JsonIgnore".equals(shortName) && is(annotation, JSON_IGNORE)) {
+                    // @JsonIgnore(false) 不忽略
+                    PsiAnnotationMemberValue value = annotation.findDeclaredAttributeValue("value");
+                    if (value == null || !"false".equals(value.getText())) {
+                        return null;
+                    }
+                } else if ("JsonProperty".equals(shortName) && is(annotation, JSON_PROPERTY)) {
+                    // 只写属性（反序列化时使用）不输出
+                    PsiAnnotationMemberValue access = annotation.findDeclaredAttributeValue("access");
+                    if (access != null && access.getText().endsWith("WRITE_ONLY")) {
+                        return null;
+                    }
+                    String name = string(annotation.findDeclaredAttributeValue("value"));
+                    if (name != null && !name.isEmpty()) {
+                        explicitName = name;
+                    }
+                } else if ("SerializedName".equals(shortName) && is(annotation, SERIALIZED_NAME)) {
+                    // Jackson 的 @JsonProperty 优先
+                    if (explicitName == null) {
+                        explicitName = string(annotation.findDeclaredAttributeValue("value"));
+                    }
+                } else if ("JsonInclude".equals(shortName) && is(annotation, JSON_INCLUDE)) {
+                    optional = isOptionalInclusion(annotation);
+                }
+            }
+        }
+        String name = field.getName();
+        if (rules.ignoredProperties.contains(name)) {
+            return null;
+        }
+        if (explicitName != null) {
+            name = explicitName;
+        } else if (rules.naming != null) {
+            name = rules.naming.translate(name);
+        }
+        if (rules.ignoredProperties.contains(name)) {
+            return null;
+        }
+        return new Property(name, optional);
+    }
+
+    // @JsonInclude(NON_NULL) 等：值为空时字段会被省略
+    private static boolean isOptionalInclusion(PsiAnnotation annotation) {
+        PsiAnnotationMemberValue value = annotation.findDeclaredAttributeValue("value");
+        if (value == null) {
+            return false;
+        }
+        String text = value.getText();
+        return !text.endsWith("ALWAYS") && !text.endsWith("USE_DEFAULTS");
+    }
+
+    private static String shortName(PsiAnnotation annotation) {
+        PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+        return reference != null ? reference.getReferenceName() : null;
+    }
+
+    // 短名称已经匹配后才解析全限定名；索引未就绪无法解析时只按短名称判断
+    private static boolean is(PsiAnnotation annotation, String qualifiedName) {
+        try {
+            return qualifiedName.equals(annotation.getQualifiedName());
+        } catch (IndexNotReadyException e) {
+            return true;
+        }
+    }
+
+    private static String string(PsiAnnotationMemberValue value) {
+        if (value instanceof PsiExpression) {
+            try {
+                Object constant = JavaPsiFacade.getInstance(value.getProject()).getConstantEvaluationHelper()
+                        .computeConstantExpression(value);
+                return constant instanceof String ? (String) constant : null;
+            } catch (IndexNotReadyException e) {
+                // 引用其他类中的常量，索引就绪前无法计算
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> strings(PsiAnnotationMemberValue value) {
+        Set<String> result = new HashSet<>();
+        if (value instanceof PsiArrayInitializerMemberValue) {
+            for (PsiAnnotationMemberValue initializer : ((PsiArrayInitializerMemberValue) value).getInitializers()) {
+                String string = string(initializer);
+                if (string != null) {
+                    result.add(string);
+                }
+            }
+        } else {
+            String string = string(value);
+            if (string != null) {
+                result.add(string);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.java2json;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassOwner;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 监听 Java PSI 的修改，只让被修改的类（以及依赖它们的类）的结构缓存失效。
+ * 在写操作中同步执行，只做查找类名这样的轻量工作。
+ */
+class ShapeCacheInvalidator extends PsiTreeChangeAdapter {
+    private final ClassShapeCache cache;
+
+    ShapeCacheInvalidator(ClassShapeCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void beforeChildRemoval(@NotNull PsiTreeChangeEvent event) {
+        // 删除整个文件时，删除之后就拿不到其中的类了
+        if (event.getChild() instanceof PsiJavaFile) {
+            invalidateFile((PsiJavaFile) event.getChild());
+        }
+    }
+
+    @Override
+    public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getFile(), event.getParent());
+    }
+
+    @Override
+    public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getFile(), event.getParent());
+    }
+
+    @Override
+    public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getFile(), event.getParent());
+    }
+
+    @Override
+    public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getFile(), event.getParent());
+    }
+
+    @Override
+    public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getFile(), event.getOldParent());
+        changed(event.getFile(), event.getNewParent());
+    }
+
+    @Override
+    public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+        // 文件改名或者移动：按文件中的所有类处理
+        if (event.getElement() instanceof PsiJavaFile) {
+            invalidateFile((PsiJavaFile) event.getElement());
+        }
+    }
+
+    private void changed(PsiFile file, PsiElement parent) {
+        if (!(file instanceof PsiJavaFile) || parent == null) {
+            return;
+        }
+        // 方法体内的修改（最常见的输入）不影响类结构
+        if (PsiTreeUtil.getParentOfType(parent, PsiCodeBlock.class, false) != null) {
+            return;
+        }
+        PsiClass psiClass = PsiTreeUtil.getParentOfType(parent, PsiClass.class, false);
+        String qualifiedName = psiClass != null ? psiClass.getQualifiedName() : null;
+        if (qualifiedName != null) {
+            cache.invalidate(List.of(qualifiedName));
+        } else {
+            // import、package 语句或者匿名类的修改，按文件中的所有类处理
+            invalidateFile((PsiJavaFile) file);
+        }
+    }
+
+    private void invalidateFile(PsiClassOwner file) {
+        Collection<String> names = new ArrayList<>();
+        for (PsiClass psiClass : file.getClasses()) {
+            collectNames(psiClass, names);
+        }
+        cache.invalidate(names);
+    }
+
+    private static void collectNames(PsiClass psiClass, Collection<String> names) {
+        if (psiClass.getQualifiedName() != null) {
+            names.add(psiClass.getQualifiedName());
+        }
+        for (PsiClass inner : psiClass.getInnerClasses()) {
+            collectNames(inner, names);
+        }
+    }
+}
@@ -0,0 +1,775 @@
+package com.example.java2json;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 把 PsiClass 编译成去重的类结构图（ClassShape）。
+ * 每个类只编译一次，重复出现的类共享同一个节点，循环引用就是指向已有节点的普通引用。
+ * 节点的内容只由类本身决定，与从哪个根类、经过哪条路径到达无关，因此可以在缓存中被不同的根类共享。
+ * 只展开渲染时能到达的深度，更深的类保留为未展开的节点，之后从更浅的位置到达时再展开。
+ * 一个类的字段先按声明顺序编译好，再展开字段引用的类；这些子树互不依赖，多于一个时在 fork-join 线程池中并行展开。
+ * 类型解析结果按类型的全限定名缓存，一次生成中每个类型只解析一次；按名称查找类时限定在根类所在模块及其依赖中。
+ * 必须在读操作中调用，并行的子任务共享调用方的读操作，编译过程中会检查取消状态。
+ * 索引未就绪（dumb mode）时降级编译：字段类型按源码中写的名称识别，引用同一文件中的类时照常展开，
+ * 其余无法解析的类型标记为 unresolved；已缓存的类照常使用，降级编译的结果不写入缓存。
+ */
+public class ShapeCompiler {
+    // 默认配置下的编译深度，见 GenerationBudget.getCompileBudget()
+    static final int ROOT_BUDGET = GenerationBudget.DEFAULT.getCompileBudget();
+    // 按类型定义输出的格式（JSON Schema、TypeScript）需要整张类图，仍然限制深度以免递归过深
+    static final int FULL_GRAPH_BUDGET = 64;
+    // 待展开的子树达到这个数量时才并行，只有一个时直接在当前线程展开
+    private static final int PARALLEL_THRESHOLD = 2;
+    // 降级编译时按简单类名识别的集合、Map 和标准值类型，与 compileType 中按全限定名的判断对应
+    private static final Set<String> COLLECTION_NAMES = Set.of("List", "Set", "Collection");
+    private static final Map<String, TypeShape.ValueType> SIMPLE_VALUE_TYPES = Map.ofEntries(
+            Map.entry("String", TypeShape.ValueType.STRING),
+            Map.entry("Character", TypeShape.ValueType.STRING),
+            Map.entry("CharSequence", TypeShape.ValueType.STRING),
+            Map.entry("Date", TypeShape.ValueType.STRING),
+            Map.entry("LocalDate", TypeShape.ValueType.STRING),
+            Map.entry("LocalDateTime", TypeShape.ValueType.STRING),
+            Map.entry("LocalTime", TypeShape.ValueType.STRING),
+            Map.entry("Instant", TypeShape.ValueType.STRING),
+            Map.entry("UUID", TypeShape.ValueType.STRING),
+            Map.entry("Integer", TypeShape.ValueType.INTEGER),
+            Map.entry("Long", TypeShape.ValueType.INTEGER),
+            Map.entry("Short", TypeShape.ValueType.INTEGER),
+            Map.entry("Byte", TypeShape.ValueType.INTEGER),
+            Map.entry("BigInteger", TypeShape.ValueType.INTEGER),
+            Map.entry("Float", TypeShape.ValueType.NUMBER),
+            Map.entry("Double", TypeShape.ValueType.NUMBER),
+            Map.entry("Number", TypeShape.ValueType.NUMBER),
+            Map.entry("BigDecimal", TypeShape.ValueType.NUMBER),
+            Map.entry("Boolean", TypeShape.ValueType.BOOLEAN),
+            Map.entry("Object", TypeShape.ValueType.ANY));
+    // 有固定格式或取值范围更窄的标准类型，生成样例数据时使用
+    private static final Map<String, TypeShape.ValueFormat> VALUE_FORMATS = Map.ofEntries(
+            Map.entry("java.time.LocalDate", TypeShape.ValueFormat.DATE),
+            Map.entry("java.sql.Date", TypeShape.ValueFormat.DATE),
+            Map.entry("java.time.LocalDateTime", TypeShape.ValueFormat.DATE_TIME),
+            Map.entry("java.time.OffsetDateTime", TypeShape.ValueFormat.INSTANT),
+            Map.entry("java.time.ZonedDateTime", TypeShape.ValueFormat.INSTANT),
+            Map.entry("java.time.Instant", TypeShape.ValueFormat.INSTANT),
+            Map.entry("java.util.Date", TypeShape.ValueFormat.INSTANT),
+            Map.entry("java.sql.Timestamp", TypeShape.ValueFormat.INSTANT),
+            Map.entry("java.time.LocalTime", TypeShape.ValueFormat.TIME),
+            Map.entry("java.util.UUID", TypeShape.ValueFormat.UUID),
+            Map.entry("char", TypeShape.ValueFormat.CHAR),
+            Map.entry("java.lang.Character", TypeShape.ValueFormat.CHAR),
+            Map.entry("byte", TypeShape.ValueFormat.BYTE),
+            Map.entry("java.lang.Byte", TypeShape.ValueFormat.BYTE),
+            Map.entry("short", TypeShape.ValueFormat.SHORT),
+            Map.entry("java.lang.Short", TypeShape.ValueFormat.SHORT));
+    private static final Map<String, TypeShape.ValueFormat> SIMPLE_VALUE_FORMATS = Map.of(
+            "Date", TypeShape.ValueFormat.INSTANT,
+            "LocalDate", TypeShape.ValueFormat.DATE,
+            "LocalDateTime", TypeShape.ValueFormat.DATE_TIME,
+            "LocalTime", TypeShape.ValueFormat.TIME,
+            "Instant", TypeShape.ValueFormat.INSTANT,
+            "UUID", TypeShape.ValueFormat.UUID,
+            "Character", TypeShape.ValueFormat.CHAR,
+            "Byte", TypeShape.ValueFormat.BYTE,
+            "Short", TypeShape.ValueFormat.SHORT);
+
+    private final Project project;
+    private final ClassShapeCache shapeCache;
+    private final GenerationStats stats;
+    // 创建时索引未就绪，整个编译过程都按降级方式进行
+    private final boolean degraded;
+    // 以下集合会被并行展开的多个线程同时访问
+    // 本次编译中用到的节点，按全限定名去重
+    private final Map<String, ClassShape> compiled = new ConcurrentHashMap<>();
+    // 本次创建、尚未展开的节点对应的类，展开时不必再查找
+    private final Map<ClassShape, PsiClass> pendingClasses = new ConcurrentHashMap<>();
+    // 每个节点的展开状态，访问时锁住这个 map
+    private final Map<ClassShape, Expansion> expansions = new IdentityHashMap<>();
+    // 本次新展开的节点，整张图编译结束后才放入缓存
+    private final Queue<ClassShape> newShapes = new ConcurrentLinkedQueue<>();
+    // 新展开的库中的类（编译后的 class 文件）-> 所在的库根目录
+    private final Map<ClassShape, VirtualFile> libraryRoots = new ConcurrentHashMap<>();
+    // 声明字段的类 -> 索引中的字段，注释从这里读取，不需要加载源文件的语法树
+    private final Map<PsiClass, Map<String, ClassFieldIndex.IndexedField>> indexedFields = new ConcurrentHashMap<>();
+    // 类 -> 类及其父类上的 Jackson/Gson 注解规则，父类的规则被所有子类共用
+    private final Map<PsiClass, SerializationAnnotations.ClassRules> classRules = new ConcurrentHashMap<>();
+    // 类型的全限定名（去掉类型参数）-> 解析结果，每次生成中同一个类型只解析一次，解析不到也记录下来
+    private final Map<String, Optional<PsiClass>> resolvedTypes = new ConcurrentHashMap<>();
+    // 按名称查找类的范围：根类所在模块及其依赖和库，多个根类时取并集；为 null 时使用整个项目
+    private volatile GlobalSearchScope searchScope;
+    // 降级编译时每个文件中按简单类名查找的类
+    private final Map<PsiFile, Map<String, PsiClass>> fileClasses = new ConcurrentHashMap<>();
+    private final AtomicInteger resolveCount = new AtomicInteger();
+    private final AtomicInteger expandedCount = new AtomicInteger();
+    private final AtomicInteger unresolvedCount = new AtomicInteger();
+    // 为 false 时只在调用线程中展开，例如后台预热时不占用 fork-join 线程池
+    private boolean parallel = true;
+    private int nesting;
+
+    public ShapeCompiler(Project project) {
+        this(project, null);
+    }
+
+    public ShapeCompiler(Project project, ClassShapeCache shapeCache) {
+        this(project, shapeCache, GenerationStats.NONE);
+    }
+
+    public ShapeCompiler(Project project, ClassShapeCache shapeCache, GenerationStats stats) {
+        this.project = project;
+        this.shapeCache = shapeCache;
+        this.stats = stats;
+        this.degraded = ApplicationManager.getApplication() != null && DumbService.isDumb(project);
+    }
+
+    // 按当前配置的嵌套层数编译
+    public ClassShape compile(PsiClass psiClass) {
+        return compile(psiClass, GenerationBudget.current().getCompileBudget());
+    }
+
+    // budget 是从根节点开始展开的层数，根节点自身算一层
+    public ClassShape compile(PsiClass psiClass, int budget) {
+        nesting++;
+        try {
+            addSearchScope(psiClass);
+            ClassShape shape = nodeFor(psiClass);
+            expand(shape, budget);
+            return shape;
+        } finally {
+            if (--nesting == 0) {
+                flushToCache();
+            }
+        }
+    }
+
+    // 类型解析（resolve/findClass）的次数
+    public int getResolveCount() {
+        return resolveCount.get();
+    }
+
+    // 按全限定名记录过解析结果的类型数量；没有包名的类型（类型参数等）不记录，每次都要解析
+    int getResolvedTypeCount() {
+        return resolvedTypes.size();
+    }
+
+    // 本次实际从 PSI 展开字段的类的数量，缓存命中的不算
+    public int getExpandedCount() {
+        return expandedCount.get();
+    }
+
+    // 只在调用线程中展开，不并行
+    public ShapeCompiler sequential() {
+        parallel = false;
+        return this;
+    }
+
+    // 是否在索引未就绪时降级编译，结果中可能有无法解析的类型
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    // 降级编译时无法解析的类型、父类和未展开的类的数量
+    public int getUnresolvedCount() {
+        return unresolvedCount.get();
+    }
+
+    private void flushToCache() {
+        // 降级编译的结果不完整，索引就绪后需要重新编译
+        if (shapeCache != null && !degraded) {
+            for (ClassShape shape : newShapes) {
+                if (!shape.isComplete()) {
+                    continue;
+                }
+                VirtualFile libraryRoot = libraryRoots.get(shape);
+                if (libraryRoot != null) {
+                    shapeCache.putLibraryShape(libraryRoot, shape.getQualifiedName(), shape);
+                } else {
+                    shapeCache.put(shape.getQualifiedName(), shape);
+                }
+            }
+        }
+        newShapes.clear();
+        libraryRoots.clear();
+    }
+
+    // 取得类对应的节点：本次已有的、缓存中的，或者新建一个未展开的节点
+    private ClassShape nodeFor(PsiClass psiClass) {
+        ProgressManager.checkCanceled();
+        stats.classVisited();
+
+        String qualifiedName = psiClass.getQualifiedName();
+        if (qualifiedName != null) {
+            ClassShape shape = compiled.get(qualifiedName);
+            if (shape != null) {
+                return shape;
+            }
+            if (shapeCache != null) {
+                shape = shapeCache.get(qualifiedName);
+                if (shape != null) {
+                    stats.cacheHit();
+                    ClassShape existing = compiled.putIfAbsent(qualifiedName, shape);
+                    return existing != null ? existing : shape;
+                }
+            }
+            // 如果是Java标准类，不展开字段
+            if (qualifiedName.startsWith("java.")) {
+                shape = ClassShape.empty(qualifiedName);
+                ClassShape existing = compiled.putIfAbsent(qualifiedName, shape);
+                return existing != null ? existing : shape;
+            }
+        }
+
+        ClassShape shape = new ClassShape(qualifiedName);
+        // 先登记对应的类再公开节点，其他线程拿到节点时不必重新查找类
+        pendingClasses.put(shape, psiClass);
+        if (qualifiedName != null) {
+            ClassShape existing = compiled.putIfAbsent(qualifiedName, shape);
+            if (existing != null) {
+                pendingClasses.remove(shape);
+                return existing;
+            }
+        }
+        return shape;
+    }
+
+    private void expand(ClassShape shape, int budget) {
+        if (budget <= 0 || !claim(shape, budget)) {
+            return;
+        }
+        // 已展开的节点（来自缓存或更深位置的编译）只需要把更大的深度传递给引用的类
+        List<FieldShape> fields = shape.isComplete() ? shape.getFields() : compileShape(shape);
+        // 展开期间其他分支可能以更大的深度到达这个节点，由当前线程补上
+        for (int current = budget; current > 0; current = release(shape, current)) {
+            expandTargets(fields, current - 1);
+        }
+    }
+
+    // 记录节点需要的展开深度。返回 false 表示不需要展开：已经按不小于 budget 的深度展开过，
+    // 或者另一个线程正在展开它（结束前会按这里记录的更大深度补上）
+    private boolean claim(ClassShape shape, int budget) {
+        synchronized (expansions) {
+            Expansion expansion = expansions.computeIfAbsent(shape, s -> new Expansion());
+            if (expansion.budget >= budget) {
+                return false;
+            }
+            expansion.budget = budget;
+            if (expansion.running) {
+                return false;
+            }
+            expansion.running = true;
+            return true;
+        }
+    }
+
+    // 按 budget 展开结束，返回期间其他线程要求的更大深度；没有时释放节点并返回 0
+    private int release(ClassShape shape, int budget) {
+        synchronized (expansions) {
+            Expansion expansion = expansions.get(shape);
+            if (expansion.budget > budget) {
+                return expansion.budget;
+            }
+            expansion.running = false;
+            return 0;
+        }
+    }
+
+    private boolean needsExpansion(ClassShape shape, int budget) {
+        synchronized (expansions) {
+            Expansion expansion = expansions.get(shape);
+            return expansion == null || expansion.budget < budget;
+        }
+    }
+
+    // 从 PSI 编译节点的字段，返回节点最终的字段（同一个节点被并发填充时只有第一次生效）
+    private List<FieldShape> compileShape(ClassShape shape) {
+        PsiClass psiClass = pendingClasses.remove(shape);
+        if (psiClass == null) {
+            // 之前编译留下的未展开节点：同名类已经有展开好的节点时直接共用它的字段
+            ClassShape existing = completeNodeFor(shape.getQualifiedName());
+            if (existing != null) {
+                shape.complete(existing.getFields(), existing.getSuperClasses());
+                return shape.getFields();
+            }
+            if (degraded) {
+                // 不能按名称查找类；节点可能属于缓存中的类结构图，保持未展开，不写入不完整的字段
+                unresolvedCount.incrementAndGet();
+                return shape.getFields();
+            }
+            psiClass = findClass(shape.getQualifiedName());
+        }
+        Set<String> superClasses = new HashSet<>();
+        List<FieldShape> fields = psiClass != null ? compileFields(psiClass, superClasses) : new ArrayList<>();
+        if (shape.complete(fields, superClasses) && shape.getQualifiedName() != null) {
+            VirtualFile libraryRoot = libraryRootOf(psiClass);
+            if (libraryRoot != null) {
+                libraryRoots.put(shape, libraryRoot);
+            }
+            newShapes.add(shape);
+        }
+        return shape.getFields();
+    }
+
+    // 展开字段引用的类，同一个类只展开一次，多个时并行
+    private void expandTargets(List<FieldShape> fields, int budget) {
+        if (budget <= 0) {
+            return;
+        }
+        List<ClassShape> targets = new ArrayList<>();
+        Set<ClassShape> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (FieldShape field : fields) {
+            TypeShape type = field.getType();
+            while (type.getKind() == TypeShape.Kind.ARRAY && type.getElement() != null) {
+                type = type.getElement();
+            }
+            if (type.getKind() != TypeShape.Kind.OBJECT) {
+                continue;
+            }
+            ClassShape target = type.getTarget();
+            if (target.getQualifiedName() != null) {
+                compiled.putIfAbsent(target.getQualifiedName(), target);
+            }
+            if (seen.add(target) && needsExpansion(target, budget)) {
+                targets.add(target);
+            }
+        }
+        if (targets.size() >= PARALLEL_THRESHOLD && parallel && canRunConcurrently()) {
+            JobLauncher.getInstance().invokeConcurrentlyUnderProgress(targets,
+                    ProgressManager.getInstance().getProgressIndicator(), target -> {
+                        expand(target, budget);
+                        return true;
+                    });
+        } else {
+            for (ClassShape target : targets) {
+                expand(target, budget);
+            }
+        }
+    }
+
+    // 没有运行中的 IDE（例如使用模拟 PSI 的单元测试）时顺序展开
+    private static boolean canRunConcurrently() {
+        return ApplicationManager.getApplication() != null;
+    }
+
+    private ClassShape completeNodeFor(String qualifiedName) {
+        if (qualifiedName == null) {
+            return null;
+        }
+        ClassShape shape = compiled.get(qualifiedName);
+        if ((shape == null || !shape.isComplete()) && shapeCache != null) {
+            shape = shapeCache.get(qualifiedName);
+        }
+        return shape != null && shape.isComplete() ? shape : null;
+    }
+
+    // 依赖库和 JDK 中的类通过编译后的 class 文件 PSI 读取字段，不加载到 IDE 进程中
+    private VirtualFile libraryRootOf(PsiClass psiClass) {
+        if (!(psiClass instanceof PsiCompiledElement)) {
+            return null;
+        }
+        PsiFile file = psiClass.getContainingFile();
+        VirtualFile virtualFile = file != null ? file.getVirtualFile() : null;
+        return virtualFile != null ? ProjectFileIndex.getInstance(project).getClassRootForFile(virtualFile) : null;
+    }
+
+    // 多模块项目中同名的类可能有多个，优先取根类能看到的那个
+    private void addSearchScope(PsiClass psiClass) {
+        GlobalSearchScope scope = psiClass.getResolveScope();
+        if (scope == null) {
+            return;
+        }
+        GlobalSearchScope current = searchScope;
+        if (current == null) {
+            searchScope = scope;
+        } else if (!current.equals(scope)) {
+            searchScope = current.uniteWith(scope);
+        }
+    }
+
+    private PsiClass findClass(String qualifiedName) {
+        if (qualifiedName == null) {
+            return null;
+        }
+        Optional<PsiClass> cached = resolvedTypes.get(qualifiedName);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        resolveCount.incrementAndGet();
+        stats.resolved();
+        long start = stats.start();
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        GlobalSearchScope scope = searchScope;
+        PsiClass psiClass = scope != null ? facade.findClass(qualifiedName, scope) : null;
+        if (psiClass == null) {
+            // 缓存中的节点可能来自其他模块的根类，范围内找不到时再在整个项目中查找
+            psiClass = facade.findClass(qualifiedName, GlobalSearchScope.allScope(project));
+        }
+        stats.stop(GenerationStats.Phase.FIND_CLASS, start);
+        resolvedTypes.putIfAbsent(qualifiedName, Optional.ofNullable(psiClass));
+        return psiClass;
+    }
+
+    // 类型引用按所在文件的模块范围解析，结果按类型的全限定名缓存
+    private PsiClass resolve(PsiClassType type) {
+        String key = typeKey(type);
+        if (key != null) {
+            Optional<PsiClass> cached = resolvedTypes.get(key);
+            if (cached != null) {
+                return cached.orElse(null);
+            }
+        }
+        resolveCount.incrementAndGet();
+        stats.resolved();
+        long start = stats.start();
+        PsiClass psiClass = type.resolve();
+        stats.stop(GenerationStats.Phase.RESOLVE, start);
+        if (key != null) {
+            resolvedTypes.putIfAbsent(key, Optional.ofNullable(psiClass));
+        }
+        return psiClass;
+    }
+
+    // 去掉类型参数后的类型文本。没有包名的（类型参数、默认包中的类、无法解析的简单名称）不缓存，
+    // 它们在不同的类中可能指向不同的类
+    static String typeKey(PsiClassType type) {
+        String text = type.getCanonicalText();
+        if (text == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(text.length());
+        int depth = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (depth == 0) {
+                key.append(c);
+            }
+        }
+        return key.indexOf(".") >= 0 ? key.toString() : null;
+    }
+
+    private List<FieldShape> compileFields(PsiClass psiClass, Set<String> superClasses) {
+        expandedCount.incrementAndGet();
+        // 只包含这个类自己的字段，引用的类在字段编译完之后另外展开
+        long start = stats.enterClass();
+        try {
+            return collectFields(psiClass, superClasses);
+        } finally {
+            stats.exitClass(psiClass.getQualifiedName(), start);
+        }
+    }
+
+    private List<FieldShape> collectFields(PsiClass psiClass, Set<String> superClasses) {
+        List<FieldShape> fields = new ArrayList<>();
+        // 同名字段（子类隐藏父类字段）只保留一次
+        Set<String> fieldNames = new HashSet<>();
+        // 改名之后 JSON 中的字段名也不能重复
+        Set<String> outputNames = new HashSet<>();
+        SerializationAnnotations.ClassRules rules = rulesOf(psiClass);
+        for (String source : rules.getSourceClasses()) {
+            if (!source.equals(psiClass.getQualifiedName())) {
+                superClasses.add(source);
+            }
+        }
+        long start = stats.start();
+        PsiField[] allFields = allFieldsOf(psiClass);
+        stats.stop(GenerationStats.Phase.FIELDS, start);
+        for (PsiField field : allFields) {
+            ProgressManager.checkCanceled();
+
+            // 跳过静态字段和常量；final 实例字段照常输出，不可变 DTO（Lombok @Value、构造器注入）通过访问器序列化
+            if (field.hasModifierProperty(PsiModifier.STATIC)) {
+                continue;
+            }
+
+            String fieldName = field.getName();
+            if (!fieldNames.add(fieldName)) {
+                continue;
+            }
+            // transient、@JsonIgnore 等不会被序列化的字段不输出
+            SerializationAnnotations.Property property = SerializationAnnotations.property(field, rules);
+            if (property == null || !outputNames.add(property.name)) {
+                continue;
+            }
+            // 记录提供继承字段的父类，父类修改时这个类也要失效
+            PsiClass declaringClass = field.getContainingClass();
+            if (declaringClass != null && declaringClass != psiClass && declaringClass.getQualifiedName() != null) {
+                superClasses.add(declaringClass.getQualifiedName());
+            }
+
+            // 获取字段的文档注释
+            start = stats.start();
+            String commentText = commentOf(field, declaringClass);
+            stats.stop(GenerationStats.Phase.COMMENTS, start);
+            TypeShape type = degraded ? compileTypeByName(field.getType(), field) : compileType(field.getType());
+            fields.add(new FieldShape(property.name, commentText, type, property.optional));
+        }
+        return fields;
+    }
+
+    // 降级编译时父类可能无法解析，这时只取类自身声明的字段
+    private PsiField[] allFieldsOf(PsiClass psiClass) {
+        if (!degraded) {
+            return psiClass.getAllFields();
+        }
+        try {
+            return psiClass.getAllFields();
+        } catch (IndexNotReadyException e) {
+            unresolvedCount.incrementAndGet();
+            return psiClass.getFields();
+        }
+    }
+
+    // 类上的注解规则，沿继承链合并，每个类只读取一次注解
+    private SerializationAnnotations.ClassRules rulesOf(PsiClass psiClass) {
+        if (psiClass == null || CommonClassNames.JAVA_LANG_OBJECT.equals(psiClass.getQualifiedName())) {
+            return SerializationAnnotations.ClassRules.NONE;
+        }
+        SerializationAnnotations.ClassRules rules = classRules.get(psiClass);
+        if (rules == null) {
+            rules = SerializationAnnotations.classRules(psiClass, rulesOf(superClassOf(psiClass)));
+            classRules.putIfAbsent(psiClass, rules);
+        }
+        return rules;
+    }
+
+    private PsiClass superClassOf(PsiClass psiClass) {
+        try {
+            return psiClass.getSuperClass();
+        } catch (IndexNotReadyException e) {
+            return null;
+        }
+    }
+
+    // 优先使用字段索引中的注释，索引不可用时才读取 JavaDoc
+    private String commentOf(PsiField field, PsiClass declaringClass) {
+        if (declaringClass != null) {
+            Map<String, ClassFieldIndex.IndexedField> declared = indexedFields.get(declaringClass);
+            if (declared == null) {
+                // 不在 computeIfAbsent 中读取索引，避免读索引时阻塞其他线程
+                declared = readIndexedFields(declaringClass);
+                indexedFields.putIfAbsent(declaringClass, declared);
+            }
+            ClassFieldIndex.IndexedField indexed = declared.get(field.getName());
+            if (indexed != null) {
+                return indexed.getComment();
+            }
+        }
+        return DocCommentExtractor.extract(field);
+    }
+
+    private Map<String, ClassFieldIndex.IndexedField> readIndexedFields(PsiClass psiClass) {
+        Map<String, ClassFieldIndex.IndexedField> fields = ClassFieldIndex.getDeclaredFields(project, psiClass);
+        return fields != null ? fields : Collections.emptyMap();
+    }
+
+    private TypeShape compileType(PsiType fieldType) {
+        // 首先处理集合类型
+        String fieldTypeName = fieldType.getCanonicalText();
+        if (fieldTypeName.startsWith("java.util.List") ||
+            fieldTypeName.startsWith("java.util.Set") ||
+            fieldTypeName.startsWith("java.util.Collection")) {
+
+            // 处理泛型集合
+            if (fieldType instanceof PsiClassType) {
+                PsiType[] parameters = ((PsiClassType) fieldType).getParameters();
+                if (parameters.length > 0 && parameters[0] instanceof PsiClassType) {
+                    PsiType paramType = parameters[0];
+                    // Java标准类型的元素使用注释，不需要解析
+                    if (isJavaStandardType(paramType)) {
+                        return TypeShape.arrayOf(valueShapeOf(paramType));
+                    }
+                    PsiClass paramClass = resolve((PsiClassType) paramType);
+                    if (paramClass != null) {
+                        // 自定义类递归处理，枚举元素按枚举值处理
+                        return TypeShape.arrayOf(paramClass.isEnum() ? enumOf(paramClass) : objectOf(paramClass));
+                    }
+                }
+            }
+            return TypeShape.EMPTY_ARRAY;
+        }
+
+        // 然后处理Map类型
+        if (fieldTypeName.startsWith("java.util.Map")) {
+            return TypeShape.MAP;
+        }
+
+        // 然后处理自定义类型，枚举和Java标准类按普通值处理
+        if (fieldType instanceof PsiClassType && !isJavaStandardType(fieldType)) {
+            PsiClass fieldPsiClass = resolve((PsiClassType) fieldType);
+            if (fieldPsiClass != null && !fieldPsiClass.isEnum()) {
+                return objectOf(fieldPsiClass);
+            }
+            // 枚举按字符串处理，无法解析的类型不确定
+            return fieldPsiClass != null ? enumOf(fieldPsiClass) : TypeShape.VALUE;
+        }
+
+        // 默认处理 - 使用注释或空字符串
+        return valueShapeOf(fieldType);
+    }
+
+    // 标准类型和基本类型的值，日期时间、UUID、char、byte 和 short 带上格式
+    static TypeShape valueShapeOf(PsiType type) {
+        String typeName = type.getCanonicalText();
+        TypeShape.ValueFormat format = typeName != null ? VALUE_FORMATS.get(typeName) : null;
+        return format != null ? TypeShape.formatted(format) : TypeShape.valueOf(valueTypeOf(type));
+    }
+
+    // 枚举值，记录声明的常量名
+    private static TypeShape enumOf(PsiClass enumClass) {
+        List<String> constants = new ArrayList<>();
+        for (PsiField field : enumClass.getFields()) {
+            if (field instanceof PsiEnumConstant && field.getName() != null) {
+                constants.add(field.getName());
+            }
+        }
+        return TypeShape.enumOf(enumClass.getQualifiedName(), constants);
+    }
+
+    // 降级编译：只使用源码中的类型名称和类型参数，不依赖索引
+    private TypeShape compileTypeByName(PsiType fieldType, PsiElement context) {
+        if (!(fieldType instanceof PsiClassType)) {
+            return valueShapeOf(fieldType);
+        }
+        PsiClassType classType = (PsiClassType) fieldType;
+        String name = classType.getClassName();
+        if (COLLECTION_NAMES.contains(name)) {
+            PsiType[] parameters = classType.getParameters();
+            if (parameters.length > 0 && parameters[0] instanceof PsiClassType) {
+                return TypeShape.arrayOf(compileTypeByName(parameters[0], context));
+            }
+            return TypeShape.EMPTY_ARRAY;
+        }
+        if ("Map".equals(name)) {
+            return TypeShape.MAP;
+        }
+        TypeShape.ValueFormat format = SIMPLE_VALUE_FORMATS.get(name);
+        if (format != null) {
+            return TypeShape.formatted(format);
+        }
+        TypeShape.ValueType valueType = SIMPLE_VALUE_TYPES.get(name);
+        if (valueType != null) {
+            return TypeShape.valueOf(valueType);
+        }
+        PsiClass psiClass = resolveInFile(classType, name, context);
+        if (psiClass != null) {
+            return psiClass.isEnum() ? enumOf(psiClass) : objectOf(psiClass);
+        }
+        unresolvedCount.incrementAndGet();
+        return TypeShape.unresolved(classType.getPresentableText());
+    }
+
+    // 同一文件中的类不需要索引就能解析（例如内部类）；需要索引的解析失败时按简单类名在文件中查找
+    private PsiClass resolveInFile(PsiClassType type, String name, PsiElement context) {
+        try {
+            PsiClass psiClass = resolve(type);
+            if (psiClass != null) {
+                return psiClass;
+            }
+        } catch (IndexNotReadyException ignored) {
+            // 按名称查找
+        }
+        PsiFile file = context.getContainingFile();
+        if (file == null) {
+            return null;
+        }
+        Map<String, PsiClass> classes = fileClasses.get(file);
+        if (classes == null) {
+            classes = new ConcurrentHashMap<>();
+            for (PsiClass psiClass : PsiTreeUtil.findChildrenOfType(file, PsiClass.class)) {
+                if (psiClass.getName() != null && !(psiClass instanceof PsiTypeParameter)) {
+                    classes.putIfAbsent(psiClass.getName(), psiClass);
+                }
+            }
+            fileClasses.putIfAbsent(file, classes);
+        }
+        return classes.get(name);
+    }
+
+    // Java 标准类型和基本类型对应的 JSON 值类型
+    static TypeShape.ValueType valueTypeOf(PsiType type) {
+        String typeName = type.getCanonicalText();
+        if (typeName == null || !(type instanceof PsiPrimitiveType || type instanceof PsiClassType)) {
+            return TypeShape.ValueType.ANY;
+        }
+        int typeArguments = typeName.indexOf('<');
+        if (typeArguments >= 0) {
+            typeName = typeName.substring(0, typeArguments);
+        }
+        switch (typeName) {
+            case "boolean":
+            case "java.lang.Boolean":
+                return TypeShape.ValueType.BOOLEAN;
+            case "int":
+            case "long":
+            case "short":
+            case "byte":
+            case "java.lang.Integer":
+            case "java.lang.Long":
+            case "java.lang.Short":
+            case "java.lang.Byte":
+            case "java.math.BigInteger":
+            case "java.util.concurrent.atomic.AtomicInteger":
+            case "java.util.concurrent.atomic.AtomicLong":
+                return TypeShape.ValueType.INTEGER;
+            case "float":
+            case "double":
+            case "java.lang.Float":
+            case "java.lang.Double":
+            case "java.lang.Number":
+            case "java.math.BigDecimal":
+                return TypeShape.ValueType.NUMBER;
+            case "char":
+                return TypeShape.ValueType.STRING;
+            case "java.lang.Object":
+                return TypeShape.ValueType.ANY;
+            default:
+                // 字符串、日期时间等其余标准类型按字符串输出
+                return typeName.startsWith("java.") ? TypeShape.ValueType.STRING : TypeShape.ValueType.ANY;
+        }
+    }
+
+    // 只创建节点，展开在字段全部编译完之后进行
+    private TypeShape objectOf(PsiClass psiClass) {
+        return TypeShape.objectOf(nodeFor(psiClass));
+    }
+
+    // 判断是否为Java标准类型
+    boolean isJavaStandardType(PsiType type) {
+        if (type instanceof PsiPrimitiveType) {
+            return true;
+        }
+
+        String typeName = type.getCanonicalText();
+        return typeName.startsWith("java.");
+    }
+
+    // 节点已记录的展开深度，以及是否有线程正在展开它
+    private static final class Expansion {
+        int budget;
+        boolean running;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.intellij.openapi.progress.ProgressManager;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 把类结构图渲染为带注释占位符的 JSON 样例。
+ * 遇到当前路径上已有的类或者未展开的类时输出空对象。
+ * 渲染时检查 {@link GenerationBudget}：超过嵌套层数的对象写成 {"$truncated": "原因 at 位置"}；
+ * 对象数或输出字节数用完时在当前位置写出同样的占位符，然后不再输出任何字段，只关闭已经打开的对象和数组。
+ * 索引未就绪时无法解析的类型写成 {"$unresolved": "源码中的类型"}。
+ */
+public class ShapeJsonRenderer {
+    static final String TRUNCATED_FIELD = "$truncated";
+    static final String UNRESOLVED_FIELD = "$unresolved";
+
+    private final GenerationBudget budget;
+    // 当前渲染路径上的类，进入时加入、离开时移除，整个渲染过程共用一个集合
+    private final Set<ClassShape> path = new HashSet<>();
+    // 当前位置的 JSON 路径，用于截断占位符
+    private final Deque<String> jsonPath = new ArrayDeque<>();
+    private int nodes;
+    private long outputBytes;
+    private boolean stopped;
+    private int truncations;
+
+    public ShapeJsonRenderer() {
+        this(GenerationBudget.current());
+    }
+
+    public ShapeJsonRenderer(GenerationBudget budget) {
+        this.budget = budget;
+    }
+
+    public void writeRoot(JsonGenerator gen, ClassShape root) throws IOException {
+        path.add(root);
+        try {
+            writeFields(gen, root, 0);
+        } finally {
+            path.remove(root);
+        }
+    }
+
+    // 对象数或字节数用完后为 true，之后写出的根对象都是空的
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    // 写出的截断占位符个数
+    public int getTruncations() {
+        return truncations;
+    }
+
+    private void writeObject(JsonGenerator gen, ClassShape shape, int depth) throws IOException {
+        // 防止循环引用
+        if (shape.isJavaStandard() || path.contains(shape)) {
+            writeEmptyObject(gen);
+            return;
+        }
+        // 增加深度限制，避免无限递归
+        if (depth > budget.getMaxDepth()) {
+            writeTruncated(gen, "max depth " + budget.getMaxDepth() + " reached");
+            return;
+        }
+        path.add(shape);
+        try {
+            writeFields(gen, shape, depth + 1);
+        } finally {
+            path.remove(shape);
+        }
+    }
+
+    private void writeFields(JsonGenerator gen, ClassShape shape, int depth) throws IOException {
+        ProgressManager.checkCanceled();
+        if (!stopped && exhausted() != null) {
+            stopped = true;
+            writeTruncated(gen, exhausted());
+            return;
+        }
+        nodes++;
+        outputBytes += 2;
+        gen.writeStartObject();
+        for (FieldShape field : shape.getFields()) {
+            if (stopped) {
+                break;
+            }
+            // 字段名加上引号、冒号和逗号
+            outputBytes += GenerationStats.utf8Length(field.getName()) + 4;
+            gen.writeFieldName(field.getName());
+            jsonPath.addLast("." + field.getName());
+            try {
+                writeType(gen, field, field.getType(), depth);
+            } finally {
+                jsonPath.removeLast();
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    // 对象数或字节数超出时返回原因
+    private String exhausted() {
+        if (nodes >= budget.getMaxNodes()) {
+            return "max nodes " + budget.getMaxNodes() + " reached";
+        }
+        if (outputBytes >= budget.getMaxOutputBytes()) {
+            return "max output " + budget.getMaxOutputBytes() + " bytes reached";
+        }
+        return null;
+    }
+
+    private void writeTruncated(JsonGenerator gen, String reason) throws IOException {
+        truncations++;
+        StringBuilder location = new StringBuilder("$");
+        for (String segment : jsonPath) {
+            location.append(segment);
+        }
+        String message = reason + " at " + location;
+        outputBytes += GenerationStats.utf8Length(message) + TRUNCATED_FIELD.length() + 8;
+        gen.writeStartObject();
+        gen.writeStringField(TRUNCATED_FIELD, message);
+        gen.writeEndObject();
+    }
+
+    private void writeType(JsonGenerator gen, FieldShape field, TypeShape type, int depth) throws IOException {
+        switch (type.getKind()) {
+            case ARRAY:
+                gen.writeStartArray();
+                outputBytes += 2;
+                TypeShape element = type.getElement();
+                if (element != null) {
+                    jsonPath.addLast("[0]");
+                    try {
+                        if (element.getKind() == TypeShape.Kind.VALUE && element.getUnresolvedType() == null && !field.hasComment()) {
+                            // 没有注释的标准类型元素使用空对象
+                            writeEmptyObject(gen);
+                        } else {
+                            writeType(gen, field, element, depth);
+                        }
+                    } finally {
+                        jsonPath.removeLast();
+                    }
+                }
+                gen.writeEndArray();
+                break;
+            case MAP:
+                writeEmptyObject(gen);
+                break;
+            case OBJECT:
+                writeObject(gen, type.getTarget(), depth);
+                break;
+            default:
+                if (type.getUnresolvedType() != null) {
+                    writeUnresolved(gen, type.getUnresolvedType());
+                    break;
+                }
+                // 使用注释或空字符串
+                String value = field.hasComment() ? "${" + field.getComment() + "}" : "";
+                outputBytes += GenerationStats.utf8Length(value) + 2;
+                gen.writeString(value);
+                break;
+        }
+    }
+
+    private void writeUnresolved(JsonGenerator gen, String typeText) throws IOException {
+        outputBytes += GenerationStats.utf8Length(typeText) + UNRESOLVED_FIELD.length() + 8;
+        gen.writeStartObject();
+        gen.writeStringField(UNRESOLVED_FIELD, typeText);
+        gen.writeEndObject();
+    }
+
+    private void writeEmptyObject(JsonGenerator gen) throws IOException {
+        outputBytes += 2;
+        gen.writeStartObject();
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.java2json;
+
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 项目打开后在后台预先编译常用类的结构图并放入 ClassShapeCache，第一次转换时不必再解析。
+ * 默认关闭，通过 Registry 中的 comment2json.prewarm 打开；预热最近转换过的类（跨会话保存）和
+ * comment2json.prewarm.packages 中配置的包下的类。
+ * 索引就绪后才开始，每个类在单独的 non-blocking read action 中顺序编译：有写操作时让出并稍后重启，
+ * 同一时间只占用一个后台线程，也不并行展开子树。
+ */
+public class ShapePrewarmer implements StartupActivity, DumbAware {
+    private static final Logger LOG = Logger.getInstance(ShapePrewarmer.class);
+    static final String RECENT_CLASSES_KEY = "comment2json.recent.classes";
+    // 记住的最近转换的类的数量
+    static final int MAX_RECENT_CLASSES = 50;
+    // 一次最多预热的类的数量
+    static final int MAX_CLASSES = 500;
+    // 项目打开后等待一段时间再开始，避开启动阶段的其他任务
+    private static final int START_DELAY_SECONDS = 10;
+
+    private static final ExecutorService EXECUTOR =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("Comment2JSON Prewarm", 1);
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        // 命令行导出和测试不需要预热
+        if (ApplicationManager.getApplication().isHeadlessEnvironment() || !Registry.is("comment2json.prewarm", false)) {
+            return;
+        }
+        AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+            if (project.isDisposed()) {
+                return;
+            }
+            List<String> packages = splitPackages(Registry.stringValue("comment2json.prewarm.packages"));
+            ReadAction.nonBlocking(() -> classesToWarm(project, packages))
+                    .inSmartMode(project)
+                    .expireWith(project)
+                    .submit(EXECUTOR)
+                    .onSuccess(classes -> warmNext(project, classes, 0, 0, System.nanoTime()));
+        }, START_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // 逐个预热，上一个完成后再提交下一个，其间排队的交互操作不会被一大批任务挡住
+    private static void warmNext(Project project, List<String> classes, int index, int warmed, long start) {
+        if (index >= classes.size()) {
+            LOG.info("Comment2JSON prewarmed " + warmed + " of " + classes.size() + " classes in " +
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+            return;
+        }
+        ReadAction.nonBlocking(() -> warm(project, ClassShapeCache.getInstance(project), classes.get(index)))
+                .inSmartMode(project)
+                .expireWith(project)
+                .submit(EXECUTOR)
+                .onSuccess(compiled -> warmNext(project, classes, index + 1, compiled ? warmed + 1 : warmed, start));
+    }
+
+    // 在读操作中执行：类存在且还没有缓存时编译并放入缓存，返回是否编译了
+    static boolean warm(Project project, ClassShapeCache shapeCache, String qualifiedName) {
+        if (shapeCache.get(qualifiedName) != null) {
+            return false;
+        }
+        PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(qualifiedName, GlobalSearchScope.allScope(project));
+        if (psiClass == null || !ClassCollector.isExportable(psiClass)) {
+            return false;
+        }
+        new ShapeCompiler(project, shapeCache).sequential().compile(psiClass);
+        return true;
+    }
+
+    // 在读操作中执行：先是最近转换过的类（最近的在前），再是配置的包下的类，去重后最多 MAX_CLASSES 个
+    static List<String> classesToWarm(Project project, List<String> packages) {
+        Set<String> classes = new LinkedHashSet<>(recentClasses(project));
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        for (String packageName : packages) {
+            PsiPackage psiPackage = facade.findPackage(packageName);
+            if (psiPackage == null) {
+                continue;
+            }
+            for (SmartPsiElementPointer<PsiClass> pointer : new ClassCollector().add(psiPackage).toPointers()) {
+                PsiClass psiClass = pointer.getElement();
+                if (psiClass != null) {
+                    classes.add(psiClass.getQualifiedName());
+                }
+            }
+        }
+        List<String> result = new ArrayList<>(classes);
+        return result.size() > MAX_CLASSES ? new ArrayList<>(result.subList(0, MAX_CLASSES)) : result;
+    }
+
+    // 记录刚转换过的类，最近的排在最前面
+    static void remember(Project project, Collection<String> qualifiedNames) {
+        Set<String> recent = new LinkedHashSet<>(qualifiedNames);
+        recent.addAll(recentClasses(project));
+        List<String> list = new ArrayList<>(recent);
+        if (list.size() > MAX_RECENT_CLASSES) {
+            list = list.subList(0, MAX_RECENT_CLASSES);
+        }
+        PropertiesComponent.getInstance(project).setList(RECENT_CLASSES_KEY, list);
+    }
+
+    static List<String> recentClasses(Project project) {
+        List<String> recent = PropertiesComponent.getInstance(project).getList(RECENT_CLASSES_KEY);
+        return recent != null ? recent : List.of();
+    }
+
+    static List<String> splitPackages(String value) {
+        List<String> packages = new ArrayList<>();
+        for (String name : value.split("[,;\\s]+")) {
+            if (!name.isEmpty()) {
+                packages.add(name);
+            }
+        }
+        return packages;
+    }
+}
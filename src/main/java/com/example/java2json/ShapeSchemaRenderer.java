@@ -0,0 +1,136 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.intellij.openapi.progress.ProgressManager;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 把类结构图渲染为 JSON Schema（draft 2020-12）。
+ * 每个展开的类在 $defs 中定义一次，字段通过 $ref 引用，循环引用不需要特殊处理；注释作为 description。
+ */
+public class ShapeSchemaRenderer {
+    static final String SCHEMA_VERSION = "https://json-schema.org/draft/2020-12/schema";
+
+    public void writeRoot(JsonGenerator gen, ClassShape root) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("$schema", SCHEMA_VERSION);
+        if (root.getQualifiedName() != null) {
+            gen.writeStringField("title", simpleName(root.getQualifiedName()));
+        }
+        List<ClassShape> definitions = collectDefinitions(root);
+        if (definitions.contains(root)) {
+            gen.writeStringField("$ref", ref(root));
+        } else {
+            gen.writeStringField("type", "object");
+        }
+        if (!definitions.isEmpty()) {
+            gen.writeObjectFieldStart("$defs");
+            for (ClassShape shape : definitions) {
+                ProgressManager.checkCanceled();
+                gen.writeFieldName(shape.getQualifiedName());
+                writeDefinition(gen, shape);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    // 从根节点可以到达的、需要单独定义的类，按广度优先顺序
+    static List<ClassShape> collectDefinitions(ClassShape root) {
+        List<ClassShape> definitions = new ArrayList<>();
+        Set<ClassShape> visited = new HashSet<>();
+        Deque<ClassShape> queue = new ArrayDeque<>();
+        queue.add(root);
+        visited.add(root);
+        while (!queue.isEmpty()) {
+            ClassShape shape = queue.poll();
+            if (!isDefinition(shape)) {
+                continue;
+            }
+            definitions.add(shape);
+            for (FieldShape field : shape.getFields()) {
+                ClassShape target = targetOf(field.getType());
+                if (target != null && visited.add(target)) {
+                    queue.add(target);
+                }
+            }
+        }
+        return definitions;
+    }
+
+    // 数组元素或对象字段最终指向的类
+    static ClassShape targetOf(TypeShape type) {
+        while (type != null && type.getKind() == TypeShape.Kind.ARRAY) {
+            type = type.getElement();
+        }
+        return type != null && type.getKind() == TypeShape.Kind.OBJECT ? type.getTarget() : null;
+    }
+
+    // 未展开的、Java 标准类和匿名类直接写成 {"type": "object"}
+    private static boolean isDefinition(ClassShape shape) {
+        return shape.isComplete() && !shape.isJavaStandard() && shape.getQualifiedName() != null;
+    }
+
+    private void writeDefinition(JsonGenerator gen, ClassShape shape) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "object");
+        gen.writeObjectFieldStart("properties");
+        for (FieldShape field : shape.getFields()) {
+            gen.writeFieldName(field.getName());
+            gen.writeStartObject();
+            writeType(gen, field.getType());
+            if (field.hasComment()) {
+                gen.writeStringField("description", field.getComment());
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    // 写出类型的内容（不含外层的大括号）
+    private void writeType(JsonGenerator gen, TypeShape type) throws IOException {
+        switch (type.getKind()) {
+            case ARRAY:
+                gen.writeStringField("type", "array");
+                if (type.getElement() != null) {
+                    gen.writeObjectFieldStart("items");
+                    writeType(gen, type.getElement());
+                    gen.writeEndObject();
+                }
+                break;
+            case MAP:
+                gen.writeStringField("type", "object");
+                break;
+            case OBJECT:
+                if (isDefinition(type.getTarget())) {
+                    gen.writeStringField("$ref", ref(type.getTarget()));
+                } else {
+                    gen.writeStringField("type", "object");
+                }
+                break;
+            default:
+                // ANY 不限制类型
+                if (type.getValueType() != null && type.getValueType() != TypeShape.ValueType.ANY) {
+                    gen.writeStringField("type", type.getValueType().name().toLowerCase(Locale.ROOT));
+                }
+                break;
+        }
+    }
+
+    private static String ref(ClassShape shape) {
+        return "#/$defs/" + shape.getQualifiedName();
+    }
+
+    static String simpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+}
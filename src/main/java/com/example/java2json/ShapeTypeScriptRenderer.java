@@ -0,0 +1,93 @@
+package com.example.java2json;
+
+import com.intellij.openapi.progress.ProgressManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 把类结构图渲染为 TypeScript 接口定义，每个展开的类一个 interface，注释写成 JSDoc。
+ * 不同包中的同名类在名称后加序号区分。
+ */
+public class ShapeTypeScriptRenderer {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+    private static final String UNKNOWN_OBJECT = "Record<string, unknown>";
+
+    public String render(ClassShape root) {
+        List<ClassShape> definitions = ShapeSchemaRenderer.collectDefinitions(root);
+        Map<ClassShape, String> names = assignNames(definitions);
+        StringBuilder sb = new StringBuilder();
+        for (ClassShape shape : definitions) {
+            ProgressManager.checkCanceled();
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append("export interface ").append(names.get(shape)).append(" {\n");
+            for (FieldShape field : shape.getFields()) {
+                if (field.hasComment()) {
+                    sb.append("  /** ").append(field.getComment().replace("*/", "*\\/")).append(" */\n");
+                }
+                sb.append("  ").append(propertyName(field.getName())).append(field.isOptional() ? "?: " : ": ")
+                        .append(typeOf(field.getType(), names)).append(";\n");
+            }
+            sb.append("}\n");
+        }
+        if (definitions.isEmpty()) {
+            sb.append("export type Root = ").append(UNKNOWN_OBJECT).append(";\n");
+        }
+        return sb.toString();
+    }
+
+    private static Map<ClassShape, String> assignNames(List<ClassShape> definitions) {
+        Map<ClassShape, String> names = new HashMap<>();
+        Set<String> used = new HashSet<>();
+        for (ClassShape shape : definitions) {
+            String base = ShapeSchemaRenderer.simpleName(shape.getQualifiedName());
+            String name = base;
+            for (int i = 2; !used.add(name); i++) {
+                name = base + i;
+            }
+            names.put(shape, name);
+        }
+        return names;
+    }
+
+    private static String typeOf(TypeShape type, Map<ClassShape, String> names) {
+        switch (type.getKind()) {
+            case ARRAY:
+                if (type.getElement() == null) {
+                    return "unknown[]";
+                }
+                String element = typeOf(type.getElement(), names);
+                return element.contains(" ") ? "Array<" + element + ">" : element + "[]";
+            case MAP:
+                return UNKNOWN_OBJECT;
+            case OBJECT:
+                String name = names.get(type.getTarget());
+                return name != null ? name : UNKNOWN_OBJECT;
+            default:
+                if (type.getValueType() == null) {
+                    return "unknown";
+                }
+                switch (type.getValueType()) {
+                    case STRING:
+                        return "string";
+                    case INTEGER:
+                    case NUMBER:
+                        return "number";
+                    case BOOLEAN:
+                        return "boolean";
+                    default:
+                        return "unknown";
+                }
+        }
+    }
+
+    private static String propertyName(String name) {
+        return IDENTIFIER.matcher(name).matches() ? name : "\"" + name.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
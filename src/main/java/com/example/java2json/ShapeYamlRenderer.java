@@ -0,0 +1,119 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * 以 YAML 输出与 JSON 样例相同的内容：先由 ShapeJsonRenderer 写入 token 缓冲，再逐个 token 转成块格式的 YAML。
+ * 字符串统一使用双引号，转义规则与 JSON 相同。
+ */
+public class ShapeYamlRenderer {
+    private static final Pattern PLAIN_KEY = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+    // YAML 1.1 中会被解析成布尔值或 null 的单词，作为键时需要加引号
+    private static final Pattern RESERVED_KEY = Pattern.compile("(?i)y|n|yes|no|true|false|on|off|null");
+
+    public String render(ClassShape root) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(null, false);
+        new ShapeJsonRenderer().writeRoot(buffer, root);
+        StringBuilder out = new StringBuilder();
+        try (JsonParser parser = buffer.asParser()) {
+            toYaml(parser, out);
+        }
+        return out.toString();
+    }
+
+    // 把 parser 中的一个 JSON 对象转为 YAML
+    static void toYaml(JsonParser parser, StringBuilder out) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object");
+        }
+        if (parser.nextToken() == JsonToken.END_OBJECT) {
+            out.append("{}\n");
+            return;
+        }
+        writeFields(parser, out, 0, false);
+    }
+
+    // 当前 token 是值的第一个 token，输出位置在 "key:" 之后
+    private static void writeValue(JsonParser parser, StringBuilder out, int indent) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT:
+                if (parser.nextToken() == JsonToken.END_OBJECT) {
+                    out.append(" {}\n");
+                } else {
+                    out.append('\n');
+                    writeFields(parser, out, indent + 2, false);
+                }
+                break;
+            case START_ARRAY:
+                if (parser.nextToken() == JsonToken.END_ARRAY) {
+                    out.append(" []\n");
+                } else {
+                    out.append('\n');
+                    writeItems(parser, out, indent + 2);
+                }
+                break;
+            default:
+                out.append(' ').append(scalar(parser)).append('\n');
+                break;
+        }
+    }
+
+    // 当前 token 是第一个字段名，结束时当前 token 是 END_OBJECT；firstInline 表示第一个字段接在 "- " 之后
+    private static void writeFields(JsonParser parser, StringBuilder out, int indent, boolean firstInline) throws IOException {
+        boolean first = true;
+        do {
+            if (!first || !firstInline) {
+                indent(out, indent);
+            }
+            first = false;
+            out.append(key(parser.getCurrentName())).append(':');
+            parser.nextToken();
+            writeValue(parser, out, indent);
+        } while (parser.nextToken() == JsonToken.FIELD_NAME);
+    }
+
+    // 当前 token 是第一个元素的第一个 token，结束时当前 token 是 END_ARRAY
+    private static void writeItems(JsonParser parser, StringBuilder out, int indent) throws IOException {
+        do {
+            indent(out, indent);
+            out.append('-');
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                if (parser.nextToken() == JsonToken.END_OBJECT) {
+                    out.append(" {}\n");
+                } else {
+                    out.append(' ');
+                    writeFields(parser, out, indent + 2, true);
+                }
+            } else {
+                writeValue(parser, out, indent);
+            }
+        } while (parser.nextToken() != JsonToken.END_ARRAY);
+    }
+
+    private static String scalar(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return quote(parser.getText());
+        }
+        return parser.getText();
+    }
+
+    private static String key(String name) {
+        return PLAIN_KEY.matcher(name).matches() && !RESERVED_KEY.matcher(name).matches() ? name : quote(name);
+    }
+
+    private static String quote(String text) {
+        return "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(text)) + "\"";
+    }
+
+    private static void indent(StringBuilder out, int indent) {
+        for (int i = 0; i < indent; i++) {
+            out.append(' ');
+        }
+    }
+}
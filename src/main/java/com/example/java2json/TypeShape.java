@@ -0,0 +1,192 @@
+package com.example.java2json;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字段类型的结构：普通值、集合、Map 或者指向另一个类节点的引用。
+ */
+public final class TypeShape {
+
+    public enum Kind {
+        // Java 标准类型、基本类型、枚举，输出注释占位符；索引未就绪时无法解析的类型也是 VALUE，见 getUnresolvedType()
+        VALUE,
+        // List/Set/Collection，元素类型为 null 时输出空数组
+        ARRAY,
+        // Map 输出空对象
+        MAP,
+        // 自定义类，展开为嵌套对象
+        OBJECT
+    }
+
+    // VALUE 对应的 JSON 值类型，JSON 样例中不区分，Schema 和 TypeScript 中使用
+    public enum ValueType {
+        STRING,
+        INTEGER,
+        NUMBER,
+        BOOLEAN,
+        // 无法确定，例如 Object
+        ANY
+    }
+
+    // 值的格式：字符串的写法或整数的取值范围，用于生成符合类型的样例数据
+    public enum ValueFormat {
+        // LocalDate
+        DATE(ValueType.STRING),
+        // LocalDateTime，不带时区
+        DATE_TIME(ValueType.STRING),
+        // Instant、Date、OffsetDateTime 等表示时刻的类型，按 UTC 输出
+        INSTANT(ValueType.STRING),
+        // LocalTime
+        TIME(ValueType.STRING),
+        UUID(ValueType.STRING),
+        // char/Character，只有一个字符的字符串
+        CHAR(ValueType.STRING),
+        // byte/Byte，不超过 Byte.MAX_VALUE
+        BYTE(ValueType.INTEGER),
+        // short/Short，不超过 Short.MAX_VALUE
+        SHORT(ValueType.INTEGER);
+
+        private final ValueType valueType;
+
+        ValueFormat(ValueType valueType) {
+            this.valueType = valueType;
+        }
+
+        public ValueType getValueType() {
+            return valueType;
+        }
+    }
+
+    public static final TypeShape VALUE = new TypeShape(Kind.VALUE, null, null, ValueType.ANY, null, null, null, null);
+    public static final TypeShape MAP = new TypeShape(Kind.MAP, null, null, null, null, null, null, null);
+    public static final TypeShape EMPTY_ARRAY = new TypeShape(Kind.ARRAY, null, null, null, null, null, null, null);
+    public static final TypeShape VALUE_ARRAY = new TypeShape(Kind.ARRAY, VALUE, null, null, null, null, null, null);
+
+    private static final Map<ValueType, TypeShape> VALUES = new EnumMap<>(ValueType.class);
+    private static final Map<ValueType, TypeShape> VALUE_ARRAYS = new EnumMap<>(ValueType.class);
+    private static final Map<ValueFormat, TypeShape> FORMATTED_VALUES = new EnumMap<>(ValueFormat.class);
+
+    static {
+        for (ValueType valueType : ValueType.values()) {
+            TypeShape value = valueType == ValueType.ANY ? VALUE : new TypeShape(Kind.VALUE, null, null, valueType, null, null, null, null);
+            VALUES.put(valueType, value);
+            VALUE_ARRAYS.put(valueType, valueType == ValueType.ANY ? VALUE_ARRAY : new TypeShape(Kind.ARRAY, value, null, null, null, null, null, null));
+        }
+        for (ValueFormat format : ValueFormat.values()) {
+            FORMATTED_VALUES.put(format, new TypeShape(Kind.VALUE, null, null, format.getValueType(), null, format, null, null));
+        }
+    }
+
+    private final Kind kind;
+    private final TypeShape element;
+    private final ClassShape target;
+    private final ValueType valueType;
+    private final String unresolvedType;
+    private final ValueFormat format;
+    private final String enumClass;
+    private final List<String> enumConstants;
+
+    private TypeShape(Kind kind, TypeShape element, ClassShape target, ValueType valueType,
+                      String unresolvedType, ValueFormat format, String enumClass, List<String> enumConstants) {
+        this.kind = kind;
+        this.element = element;
+        this.target = target;
+        this.valueType = valueType;
+        this.unresolvedType = unresolvedType;
+        this.format = format;
+        this.enumClass = enumClass;
+        this.enumConstants = enumConstants;
+    }
+
+    // 每种值类型共用一个实例
+    public static TypeShape valueOf(ValueType valueType) {
+        return VALUES.get(valueType);
+    }
+
+    // 带格式的值，每种格式共用一个实例
+    public static TypeShape formatted(ValueFormat format) {
+        return FORMATTED_VALUES.get(format);
+    }
+
+    // 枚举按字符串输出，记录枚举类和常量名；enumClass 为 null 时不记录依赖
+    public static TypeShape enumOf(String enumClass, List<String> constants) {
+        return new TypeShape(Kind.VALUE, null, null, ValueType.STRING, null, null, enumClass,
+                Collections.unmodifiableList(constants));
+    }
+
+    public static TypeShape arrayOf(TypeShape element) {
+        if (element != null && element == VALUES.get(element.valueType)) {
+            return VALUE_ARRAYS.get(element.valueType);
+        }
+        return new TypeShape(Kind.ARRAY, element, null, null, null, null, null, null);
+    }
+
+    // 索引未就绪时无法解析的类型，typeText 是源码中写的类型
+    public static TypeShape unresolved(String typeText) {
+        return new TypeShape(Kind.VALUE, null, null, ValueType.ANY, typeText, null, null, null);
+    }
+
+    // 循环引用也是普通的引用，由使用结构图的一方按自己的路径检测
+    public static TypeShape objectOf(ClassShape target) {
+        return new TypeShape(Kind.OBJECT, null, target, null, null, null, null, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    // ARRAY 的元素类型，未知时为 null
+    public TypeShape getElement() {
+        return element;
+    }
+
+    // OBJECT 指向的类节点
+    public ClassShape getTarget() {
+        return target;
+    }
+
+    // 只有 VALUE 有值类型，其余为 null
+    public ValueType getValueType() {
+        return valueType;
+    }
+
+    // 无法解析的类型在源码中的写法，其余为 null
+    public String getUnresolvedType() {
+        return unresolvedType;
+    }
+
+    // 值的格式，没有时为 null
+    public ValueFormat getFormat() {
+        return format;
+    }
+
+    // 枚举值所属枚举类的全限定名，其余为 null
+    public String getEnumClass() {
+        return enumClass;
+    }
+
+    // 枚举值的常量名，不是枚举时为 null
+    public List<String> getEnumConstants() {
+        return enumConstants;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case ARRAY:
+                return element == null ? "[]" : "[" + element + "]";
+            case OBJECT:
+                return target.getQualifiedName();
+            case VALUE:
+                if (unresolvedType != null) {
+                    return "?" + unresolvedType;
+                }
+                return valueType == ValueType.ANY ? kind.name() : valueType.name();
+            default:
+                return kind.name();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.java2json;
+
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptor;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 选择一个 JSON 或 NDJSON 文件，按光标所在的类校验其中的记录，结果以通知显示，完整列表写入 idea.log。
+ */
+public class ValidateJsonFileAction extends AnAction {
+    private static final Logger LOG = Logger.getInstance(ValidateJsonFileAction.class);
+    private static final Set<String> EXTENSIONS = Set.of("json", "ndjson", "jsonl");
+    // 通知中列出的问题数
+    private static final int SHOWN_ISSUES = 5;
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null &&
+                                                 e.getData(CommonDataKeys.EDITOR) != null &&
+                                                 e.getData(CommonDataKeys.PSI_FILE) instanceof PsiJavaFile);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        Editor editor = e.getData(CommonDataKeys.EDITOR);
+        PsiFile psiFile = e.getData(CommonDataKeys.PSI_FILE);
+        if (project == null || editor == null || !(psiFile instanceof PsiJavaFile)) {
+            return;
+        }
+        PsiClass psiClass = PsiTreeUtil.getParentOfType(psiFile.findElementAt(editor.getCaretModel().getOffset()), PsiClass.class);
+        if (psiClass == null || psiClass.getQualifiedName() == null) {
+            return;
+        }
+        String className = psiClass.getQualifiedName();
+        SmartPsiElementPointer<PsiClass> pointer = SmartPointerManager.createPointer(psiClass);
+
+        FileChooserDescriptor descriptor = FileChooserDescriptorFactory.createSingleFileNoJarsDescriptor()
+                .withFileFilter(file -> file.getExtension() != null && EXTENSIONS.contains(file.getExtension().toLowerCase(Locale.ROOT)))
+                .withTitle("Choose JSON or NDJSON File to Validate Against " + psiClass.getName());
+        VirtualFile dataFile = FileChooser.chooseFile(descriptor, project, null);
+        if (dataFile == null) {
+            return;
+        }
+        Path dataPath = dataFile.toNioPath();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Validating " + dataFile.getName(), true) {
+            private JsonShapeValidator.Report report;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                indicator.setText("Compiling " + className);
+                ClassShape shape = ReadAction.nonBlocking(() -> {
+                            PsiClass element = pointer.getElement();
+                            return element != null && element.isValid()
+                                    ? new ShapeCompiler(project, ClassShapeCache.getInstance(project))
+                                            .compile(element, JsonShapeValidator.COMPILE_BUDGET)
+                                    : null;
+                        })
+                        .inSmartMode(project)
+                        .wrapProgress(indicator)
+                        .expireWith(project)
+                        .executeSynchronously();
+                if (shape == null) {
+                    return;
+                }
+
+                indicator.setIndeterminate(false);
+                indicator.setText("Validating " + dataFile.getName() + " against " + className);
+                try {
+                    report = new JsonShapeValidator(shape).validate(dataPath, indicator);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (report == null) {
+                    return;
+                }
+                List<JsonShapeValidator.Issue> issues = report.getIssues();
+                LOG.info("Comment2JSON validation of " + dataPath + " against " + className + ": " + report);
+                for (JsonShapeValidator.Issue issue : issues) {
+                    LOG.info("  " + issue);
+                }
+                StringBuilder content = new StringBuilder(StringUtil.escapeXmlEntities(report.toString()));
+                for (int i = 0; i < Math.min(SHOWN_ISSUES, issues.size()); i++) {
+                    content.append("<br/>").append(StringUtil.escapeXmlEntities(issues.get(i).toString()));
+                }
+                if (issues.size() > SHOWN_ISSUES || report.getOmitted() > 0) {
+                    content.append("<br/>... see idea.log for the remaining issues");
+                }
+                NotificationGroupManager.getInstance().getNotificationGroup("Comment2JSON")
+                        .createNotification(dataFile.getName() + (report.isValid() ? " matches " : " does not match ") +
+                                            StringUtil.getShortName(className),
+                                content.toString(),
+                                report.isValid() ? NotificationType.INFORMATION : NotificationType.WARNING)
+                        .notify(project);
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                Messages.showErrorDialog(project, error.getMessage(), "Validation Failed");
+            }
+        });
+    }
+}
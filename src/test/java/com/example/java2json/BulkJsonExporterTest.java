@@ -0,0 +1,152 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * 批量导出：包下的类按名称排序，在有界线程池中并行编译，NDJSON 按类名顺序输出，失效的类记入失败列表。
+ */
+public class BulkJsonExporterTest extends LightJavaCodeInsightFixtureTestCase {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int CLASS_COUNT = 12;
+
+    private Path outputDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        outputDir = FileUtil.createTempDirectory("comment2json", null, true).toPath();
+        // 声明顺序与类名顺序相反，导出顺序只能来自排序
+        for (int i = CLASS_COUNT - 1; i >= 0; i--) {
+            myFixture.addClass(String.format("package api.dto; public class Dto%02d { /** 编号 */ private Long id; private Dto%02d next; }",
+                    i, (i + 1) % CLASS_COUNT));
+        }
+        myFixture.addClass("package api.dto.sub; public class Line { private int count; }");
+        myFixture.addClass("package api.dto; public interface Marker { }");
+        myFixture.addClass("package api.dto; public enum Status { NEW }");
+        myFixture.addClass("package other; public class Outside { private String name; }");
+    }
+
+    public void testCollect_包下的类包括子包_按名称排序_排除接口和枚举() {
+        List<String> names = new ArrayList<>();
+        for (SmartPsiElementPointer<PsiClass> pointer : collect("api.dto")) {
+            names.add(pointer.getElement().getQualifiedName());
+        }
+
+        assertEquals(CLASS_COUNT + 1, names.size());
+        assertEquals("api.dto.Dto00", names.get(0));
+        assertEquals("api.dto.sub.Line", names.get(names.size() - 1));
+        List<String> sorted = new ArrayList<>(names);
+        sorted.sort(null);
+        assertEquals(sorted, names);
+    }
+
+    public void testExportFiles_每个类一个文件() throws Exception {
+        List<SmartPsiElementPointer<PsiClass>> classes = collect("api.dto");
+
+        BulkJsonExporter.Summary summary = run(() -> new BulkJsonExporter(getProject(), 2)
+                .exportFiles(classes, outputDir, new EmptyProgressIndicator()));
+
+        assertEquals(CLASS_COUNT + 1, summary.getTotal());
+        assertEquals(CLASS_COUNT + 1, summary.getSucceeded());
+        assertEmpty(summary.getFailures());
+        assertTrue(summary.getBytes() > 0);
+        JsonNode order = MAPPER.readTree(outputDir.resolve("api.dto.Dto03.json").toFile());
+        assertTrue(order.has("id"));
+        assertTrue(order.get("next").has("next"));
+        assertTrue(Files.exists(outputDir.resolve("api.dto.sub.Line.json")));
+        assertFalse(Files.exists(outputDir.resolve("other.Outside.json")));
+    }
+
+    public void testExportNdjson_按类名顺序每行一个类() throws Exception {
+        List<SmartPsiElementPointer<PsiClass>> classes = collect("api.dto");
+        Path bundle = outputDir.resolve("bundle/json-samples.ndjson");
+
+        BulkJsonExporter.Summary summary = run(() -> new BulkJsonExporter(getProject(), 3)
+                .exportNdjson(classes, bundle, new EmptyProgressIndicator()));
+
+        List<String> lines = Files.readAllLines(bundle);
+        assertEquals(summary.getSucceeded(), lines.size());
+        List<String> names = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode record = MAPPER.readTree(line);
+            names.add(record.get("class").asText());
+            assertTrue(line, record.get("sample").isObject());
+        }
+        List<String> sorted = new ArrayList<>(names);
+        sorted.sort(null);
+        assertEquals(sorted, names);
+        assertEquals("api.dto.Dto00", names.get(0));
+    }
+
+    public void testExport_失效的类记入失败列表其余照常导出() throws Exception {
+        PsiFile removed = myFixture.addFileToProject("api/dto/Removed.java", "package api.dto; public class Removed { private int id; }");
+        List<SmartPsiElementPointer<PsiClass>> classes = collect("api.dto");
+        WriteCommandAction.runWriteCommandAction(getProject(), removed::delete);
+        Path bundle = outputDir.resolve("json-samples.ndjson");
+
+        BulkJsonExporter.Summary summary = run(() -> new BulkJsonExporter(getProject(), 2)
+                .exportNdjson(classes, bundle, new EmptyProgressIndicator()));
+
+        assertEquals(CLASS_COUNT + 2, summary.getTotal());
+        assertEquals(CLASS_COUNT + 1, summary.getSucceeded());
+        assertEquals(1, summary.getFailures().size());
+        assertTrue(summary.getFailures().get(0), summary.getFailures().get(0).contains("Class is no longer valid"));
+        assertEquals(CLASS_COUNT + 1, Files.readAllLines(bundle).size());
+    }
+
+    public void testExport_取消时停止() {
+        List<SmartPsiElementPointer<PsiClass>> classes = collect("api.dto");
+        EmptyProgressIndicator indicator = new EmptyProgressIndicator();
+        indicator.cancel();
+
+        try {
+            run(() -> new BulkJsonExporter(getProject(), 2).exportFiles(classes, outputDir, indicator));
+            fail("export should be cancelled");
+        } catch (Throwable e) {
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof ProcessCanceledException)) {
+                cause = cause.getCause();
+            }
+            assertNotNull(String.valueOf(e), cause);
+        }
+    }
+
+    public void testUpdate_包目录文件和类可以导出() {
+        PsiClass order = myFixture.findClass("api.dto.Dto00");
+
+        assertTrue(ExportJsonSamplesAction.hasExportableElement(new PsiElement[]{order}));
+        assertTrue(ExportJsonSamplesAction.hasExportableElement(new PsiElement[]{order.getContainingFile()}));
+        assertTrue(ExportJsonSamplesAction.hasExportableElement(new PsiElement[]{order.getContainingFile().getContainingDirectory()}));
+        assertTrue(ExportJsonSamplesAction.hasExportableElement(new PsiElement[]{JavaPsiFacade.getInstance(getProject()).findPackage("api.dto")}));
+        assertFalse(ExportJsonSamplesAction.hasExportableElement(new PsiElement[]{order.getFields()[0]}));
+        assertFalse(ExportJsonSamplesAction.hasExportableElement(null));
+    }
+
+    private List<SmartPsiElementPointer<PsiClass>> collect(String packageName) {
+        return new ClassCollector().add(JavaPsiFacade.getInstance(getProject()).findPackage(packageName)).toPointers();
+    }
+
+    // 与导出动作相同，在后台线程中导出
+    private <T> T run(Callable<T> export) {
+        return PlatformTestUtil.waitForFuture(ApplicationManager.getApplication().executeOnPooledThread(export), 60_000);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.java2json;
+
+import com.intellij.openapi.vfs.VirtualFileFilter;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.impl.PsiManagerEx;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.Map;
+
+public class ClassFieldIndexTest extends LightJavaCodeInsightFixtureTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addFileToProject("model/Address.java", "package model;\n" +
+                "public class Address {\n" +
+                "    /** 城市，见 {@link String} */\n" +
+                "    private String city;\n" +
+                "    private String zip;\n" +
+                "    public static final String TYPE = \"address\";\n" +
+                "    public static class Geo {\n" +
+                "        /** 纬度 */\n" +
+                "        private Double lat;\n" +
+                "    }\n" +
+                "}");
+        myFixture.addFileToProject("model/Order.java", "package model;\n" +
+                "import java.util.List;\n" +
+                "public class Order {\n" +
+                "    /** 收货地址 */\n" +
+                "    private Address shipping;\n" +
+                "    /** 明细 */\n" +
+                "    private List<Address.Geo> points;\n" +
+                "}");
+    }
+
+    public void testGetDeclaredFields_字段名类型文本和注释() {
+        Map<String, ClassFieldIndex.IndexedField> fields = ClassFieldIndex.getDeclaredFields(getProject(), findClass("model.Address"));
+
+        assertNotNull(fields);
+        assertEquals(2, fields.size());
+        assertEquals("城市，见 String", fields.get("city").getComment());
+        assertEquals("String", fields.get("city").getTypeText());
+        assertNull(fields.get("zip").getComment());
+        assertFalse(fields.containsKey("TYPE"));
+
+        Map<String, ClassFieldIndex.IndexedField> inner = ClassFieldIndex.getDeclaredFields(getProject(), findClass("model.Address.Geo"));
+        assertEquals("纬度", inner.get("lat").getComment());
+        assertEquals("List<Address.Geo>",
+                ClassFieldIndex.getDeclaredFields(getProject(), findClass("model.Order")).get("points").getTypeText());
+    }
+
+    public void testGetDeclaredFields_索引final实例字段() {
+        myFixture.addFileToProject("model/Money.java", "package model;\n" +
+                "public class Money {\n" +
+                "    /** 币种 */\n" +
+                "    private final String currency;\n" +
+                "    public static final String DEFAULT_CURRENCY = \"CNY\";\n" +
+                "    public Money(String currency) { this.currency = currency; }\n" +
+                "}");
+
+        Map<String, ClassFieldIndex.IndexedField> fields = ClassFieldIndex.getDeclaredFields(getProject(), findClass("model.Money"));
+
+        assertNotNull(fields);
+        assertEquals(1, fields.size());
+        assertEquals("币种", fields.get("currency").getComment());
+    }
+
+    public void testCompile_不加载源文件语法树() {
+        PsiClass order = findClass("model.Order");
+        // 之后任何源文件的语法树加载都会导致测试失败
+        ((PsiManagerEx) getPsiManager()).setAssertOnFileLoadingFilter(VirtualFileFilter.ALL, getTestRootDisposable());
+
+        ClassShape shape = new ShapeCompiler(getProject()).compile(order);
+
+        assertEquals("收货地址", shape.getFields().get(0).getComment());
+        assertEquals("城市，见 String", shape.getFields().get(0).getType().getTarget().getFields().get(0).getComment());
+        assertEquals("纬度", shape.getFields().get(1).getType().getElement().getTarget().getFields().get(0).getComment());
+    }
+
+    private PsiClass findClass(String qualifiedName) {
+        PsiClass psiClass = JavaPsiFacade.getInstance(getProject()).findClass(qualifiedName, GlobalSearchScope.projectScope(getProject()));
+        assertNotNull(psiClass);
+        return psiClass;
+    }
+}
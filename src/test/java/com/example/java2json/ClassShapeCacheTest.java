@@ -0,0 +1,109 @@
+package com.example.java2json;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.LightVirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.List;
+
+/**
+ * 修改类之后只失效这个类和依赖它的类；淘汰的类不在依赖关系图中留下边。
+ */
+public class ClassShapeCacheTest extends LightJavaCodeInsightFixtureTestCase {
+    private ClassShapeCache shapeCache;
+    private PsiClass order;
+    private PsiClass address;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package model; public class Base { /** 编号 */ private Long id; }");
+        address = myFixture.addClass("package model; public class Address { /** 城市 */ private String city; }");
+        order = myFixture.addClass("package model; public class Order extends Base { private Address shipping; }");
+        myFixture.addClass("package model; public class Unrelated { private String note; }");
+        shapeCache = ClassShapeCache.getInstance(getProject());
+        shapeCache.clear();
+
+        new ShapeCompiler(getProject(), shapeCache).compile(order);
+        new ShapeCompiler(getProject(), shapeCache).compile(myFixture.findClass("model.Unrelated"));
+    }
+
+    public void testFieldChange_失效被修改的类和依赖它的类() {
+        addField(address, "private String street;");
+
+        assertNull(shapeCache.get("model.Address"));
+        assertNull(shapeCache.get("model.Order"));
+        assertNotNull(shapeCache.get("model.Unrelated"));
+
+        ShapeCompiler compiler = new ShapeCompiler(getProject(), shapeCache);
+        ClassShape shape = compiler.compile(order);
+        assertEquals(2, compiler.getExpandedCount());
+        for (FieldShape field : shape.getFields()) {
+            if (field.getName().equals("shipping")) {
+                assertEquals(2, field.getType().getTarget().getFields().size());
+                return;
+            }
+        }
+        fail("shipping field not found");
+    }
+
+    public void testSuperClassChange_失效子类() {
+        addField(myFixture.findClass("model.Base"), "private String createdBy;");
+
+        assertNull(shapeCache.get("model.Order"));
+        assertNotNull(shapeCache.get("model.Address"));
+        assertNotNull(shapeCache.get("model.Unrelated"));
+    }
+
+    public void testMethodBodyChange_不失效() {
+        WriteCommandAction.runWriteCommandAction(getProject(), () ->
+                address.add(factory().createMethodFromText("void touch() { int x = 1; }", address)));
+        assertNull(shapeCache.get("model.Address"));
+
+        new ShapeCompiler(getProject(), shapeCache).compile(order);
+        long count = shapeCache.getModificationCount();
+        WriteCommandAction.runWriteCommandAction(getProject(), () ->
+                address.getMethods()[0].getBody().add(factory().createStatementFromText("x++;", address)));
+        assertEquals(count, shapeCache.getModificationCount());
+        assertNotNull(shapeCache.get("model.Address"));
+    }
+
+    public void testEviction_淘汰的类不保留依赖边() {
+        ClassShapeCache small = new ClassShapeCache(getProject(), 2);
+        Disposer.register(getTestRootDisposable(), small);
+        for (int i = 0; i < 50; i++) {
+            small.put("model.Dto" + i, ClassShape.empty("model.Dto" + i), List.of("model.Shared", "model.Other" + i));
+        }
+
+        // 只剩缓存中的 Dto48 和 Dto49 的边
+        assertEquals(4, small.getDependencyEdgeCount());
+        assertEquals(2, small.invalidate(List.of("model.Shared")));
+        assertEquals(0, small.getDependencyEdgeCount());
+    }
+
+    public void testLibraryHit_不计入未命中() {
+        ClassShapeCache cache = new ClassShapeCache(getProject(), 2);
+        Disposer.register(getTestRootDisposable(), cache);
+        cache.putLibraryShape(new LightVirtualFile("lib"), "lib.Money", ClassShape.empty("lib.Money"));
+
+        assertNotNull(cache.get("lib.Money"));
+        assertNotNull(cache.get("lib.Money"));
+        assertNull(cache.get("lib.Missing"));
+
+        String statistics = cache.getStatistics();
+        assertTrue(statistics, statistics.contains("misses=1,"));
+        assertTrue(statistics, statistics.contains("libraryHits=2"));
+    }
+
+    private void addField(PsiClass psiClass, String text) {
+        WriteCommandAction.runWriteCommandAction(getProject(), () ->
+                psiClass.add(factory().createFieldFromText(text, psiClass)));
+    }
+
+    private PsiElementFactory factory() {
+        return PsiElementFactory.getInstance(getProject());
+    }
+}
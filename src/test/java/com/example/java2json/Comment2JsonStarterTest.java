@@ -0,0 +1,128 @@
+package com.example.java2json;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 无界面模式的参数解析和退出码；导出部分在轻量测试项目中进行，不打开新项目。
+ */
+public class Comment2JsonStarterTest extends LightJavaCodeInsightFixtureTestCase {
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final Comment2JsonStarter starter = new Comment2JsonStarter(new PrintStream(output, true, StandardCharsets.UTF_8));
+    private Path outputDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        outputDir = FileUtil.createTempDirectory("comment2json", null, true).toPath();
+        myFixture.addClass("package dto; public class Order { private Long id; private String name; }");
+        myFixture.addClass("package dto; public class Item { private String sku; }");
+    }
+
+    public void testParse_读取路径目标和选项() {
+        Comment2JsonStarter.Arguments arguments = starter.parse(List.of("comment2json", "project", "out",
+                "--ndjson", "--timeout=30", "--records=100", "--seed=7", "--items=2..5", "dto", "dto.Order"));
+
+        assertNotNull(arguments);
+        assertEquals(Path.of("project").toAbsolutePath(), arguments.projectPath);
+        assertEquals(Path.of("out").toAbsolutePath(), arguments.outputPath);
+        assertEquals(List.of("dto", "dto.Order"), arguments.targets);
+        assertTrue(arguments.ndjson);
+        assertEquals(30, arguments.timeoutSeconds);
+        assertEquals(100, arguments.records);
+        assertEquals(7, arguments.recordOptions.getSeed());
+        assertEquals(2, arguments.recordOptions.getMinItems());
+        assertEquals(5, arguments.recordOptions.getMaxItems());
+    }
+
+    public void testParse_items只给一个数时为固定个数() {
+        Comment2JsonStarter.Arguments arguments = starter.parse(List.of("comment2json", "project", "out", "--items=3", "dto"));
+
+        assertEquals(3, arguments.recordOptions.getMinItems());
+        assertEquals(3, arguments.recordOptions.getMaxItems());
+        assertEquals(0, arguments.timeoutSeconds);
+    }
+
+    public void testRun_参数错误返回2() throws Exception {
+        assertEquals(Comment2JsonStarter.EXIT_USAGE, starter.run(List.of("comment2json")));
+        assertTrue(output(), output().contains("Usage: comment2json"));
+
+        assertEquals(Comment2JsonStarter.EXIT_USAGE, starter.run(List.of("comment2json", "project", "out")));
+        assertEquals(Comment2JsonStarter.EXIT_USAGE, starter.run(List.of("comment2json", "project", "out", "--timeout=soon", "dto")));
+        assertTrue(output(), output().contains("Invalid timeout: --timeout=soon"));
+        assertEquals(Comment2JsonStarter.EXIT_USAGE, starter.run(List.of("comment2json", "project", "out", "--records=many", "dto")));
+        assertTrue(output(), output().contains("Invalid number: --records=many"));
+        assertEquals(Comment2JsonStarter.EXIT_USAGE, starter.run(List.of("comment2json", "project", "out", "--items=5..2", "dto")));
+    }
+
+    public void testRun_项目目录不存在返回2() throws Exception {
+        Path missing = outputDir.resolve("missing");
+
+        assertEquals(Comment2JsonStarter.EXIT_USAGE,
+                starter.run(List.of("comment2json", missing.toString(), outputDir.toString(), "dto")));
+        assertTrue(output(), output().contains("Project directory not found: " + missing));
+    }
+
+    public void testExport_找不到类或包返回3() throws Exception {
+        assertEquals(Comment2JsonStarter.EXIT_UNRESOLVED, export(new EmptyProgressIndicator(), "dto.Order", "dto.Missing"));
+        assertTrue(output(), output().contains("Unresolved classes or packages: dto.Missing"));
+    }
+
+    public void testExport_每个类一个文件返回0() throws Exception {
+        assertEquals(Comment2JsonStarter.EXIT_OK, export(new EmptyProgressIndicator(), "dto"));
+
+        assertTrue(Files.exists(outputDir.resolve("dto.Order.json")));
+        assertTrue(Files.exists(outputDir.resolve("dto.Item.json")));
+        assertTrue(output(), output().contains("exported 2/2 classes"));
+    }
+
+    public void testExport_压测数据每个类一个NDJSON文件() throws Exception {
+        assertEquals(Comment2JsonStarter.EXIT_OK, export(new EmptyProgressIndicator(), "--records=5", "dto.Order"));
+
+        assertEquals(5, Files.readAllLines(outputDir.resolve("dto.Order.ndjson")).size());
+    }
+
+    public void testExport_超出时间预算返回4() throws Exception {
+        ProgressIndicator indicator = new EmptyProgressIndicator();
+        indicator.cancel();
+
+        assertEquals(Comment2JsonStarter.EXIT_TIMEOUT, export(indicator, "--timeout=1", "dto"));
+        assertTrue(output(), output().contains("exceeded the time budget of 1 s"));
+    }
+
+    public void testExport_没有时间预算时取消按失败处理() throws Exception {
+        ProgressIndicator indicator = new EmptyProgressIndicator();
+        indicator.cancel();
+
+        assertEquals(Comment2JsonStarter.EXIT_FAILURES, export(indicator, "dto"));
+        assertTrue(output(), output().contains("Comment2JSON export was cancelled"));
+        assertFalse(output(), output().contains("time budget"));
+    }
+
+    // 项目已经打开，项目路径不再使用；导出在后台线程中进行，与无界面模式相同
+    private int export(ProgressIndicator indicator, String... options) throws Exception {
+        List<String> args = new ArrayList<>(List.of("comment2json", "project", outputDir.toString()));
+        args.addAll(List.of(options));
+        Comment2JsonStarter.Arguments arguments = starter.parse(args);
+        assertNotNull(output(), arguments);
+        Comment2JsonStarter.PhaseTimer timer = new Comment2JsonStarter.PhaseTimer(new PrintStream(new ByteArrayOutputStream()));
+        return PlatformTestUtil.waitForFuture(ApplicationManager.getApplication().executeOnPooledThread(
+                () -> starter.export(getProject(), arguments, indicator, timer)), 60_000);
+    }
+
+    private String output() {
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
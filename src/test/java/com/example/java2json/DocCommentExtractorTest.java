@@ -0,0 +1,116 @@
+package com.example.java2json;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+/**
+ * 在真实的 JavaDoc PSI 上提取注释文本：多行合并、行内标签、@deprecated 和其余块标签。
+ */
+public class DocCommentExtractorTest extends LightJavaCodeInsightFixtureTestCase {
+    private PsiClass order;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package model;\n" +
+                "public class Address {\n" +
+                "    private String city;\n" +
+                "}");
+        order = myFixture.addClass("package model;\n" +
+                "public class Order {\n" +
+                "    /**\n" +
+                "     * 订单\n" +
+                "     *   编号\n" +
+                "     */\n" +
+                "    private Long id;\n" +
+                "    /** 见 {@link Address 收货地址}。 */\n" +
+                "    private Address shipping;\n" +
+                "    /** 城市，同 {@link Address#city} */\n" +
+                "    private String city;\n" +
+                "    /** 公式 {@code price * count} 计算 */\n" +
+                "    private java.math.BigDecimal total;\n" +
+                "    /**\n" +
+                "     * 用户名\n" +
+                "     * @deprecated 使用 nickName\n" +
+                "     */\n" +
+                "    private String userName;\n" +
+                "    /**\n" +
+                "     * 数量\n" +
+                "     * @param count 参数\n" +
+                "     * @see Address\n" +
+                "     */\n" +
+                "    private int count;\n" +
+                "    /** 单价 * 数量 */\n" +
+                "    private int amount;\n" +
+                "    /** */\n" +
+                "    private String empty;\n" +
+                "    private String none;\n" +
+                "}");
+    }
+
+    public void testExtract_多行合并为一行() {
+        assertEquals("订单 编号", extract("id"));
+    }
+
+    public void testExtract_link有标签时使用标签() {
+        assertEquals("见 收货地址。", extract("shipping"));
+    }
+
+    public void testExtract_link没有标签时使用引用() {
+        assertEquals("城市，同 Address#city", extract("city"));
+    }
+
+    public void testExtract_code保留内容() {
+        assertEquals("公式 price * count 计算", extract("total"));
+    }
+
+    public void testExtract_deprecated附加在末尾() {
+        assertEquals("用户名 (deprecated: 使用 nickName)", extract("userName"));
+    }
+
+    public void testExtract_丢弃其余块标签() {
+        assertEquals("数量", extract("count"));
+    }
+
+    public void testExtract_保留正文中的星号() {
+        assertEquals("单价 * 数量", extract("amount"));
+    }
+
+    public void testExtract_空注释和没有注释() {
+        assertEquals("", extract("empty"));
+        assertNull(extract("none"));
+    }
+
+    public void testAppendCollapsed_折叠空白() {
+        StringBuilder sb = new StringBuilder();
+        DocCommentExtractor.appendCollapsed(sb, "  用户\n\t 名称  ");
+        DocCommentExtractor.trimTrailingSpace(sb);
+
+        assertEquals("用户 名称", sb.toString());
+    }
+
+    public void testAppendCollapsed_保留正文中的星号() {
+        StringBuilder sb = new StringBuilder();
+        DocCommentExtractor.appendCollapsed(sb, "单价 * 数量");
+
+        assertEquals("单价 * 数量", sb.toString());
+    }
+
+    public void testWithDeprecation_有描述() {
+        assertEquals("用户名 (deprecated: 使用 nickName)",
+                DocCommentExtractor.withDeprecation("用户名", "使用 nickName"));
+        assertEquals("用户名 (deprecated)", DocCommentExtractor.withDeprecation("用户名", ""));
+    }
+
+    public void testWithDeprecation_无描述() {
+        assertEquals("deprecated: 使用 nickName", DocCommentExtractor.withDeprecation("", "使用 nickName"));
+        assertEquals("deprecated", DocCommentExtractor.withDeprecation("", ""));
+    }
+
+    private String extract(String fieldName) {
+        PsiField field = order.findFieldByName(fieldName, false);
+        assertNotNull(fieldName, field);
+        return DocCommentExtractor.extract(field);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.java2json;
+
+import com.intellij.openapi.project.DumbServiceImpl;
+import com.intellij.psi.PsiClass;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 索引未就绪时按源码降级生成：同一文件中的类照常展开，其余类型标记为无法解析，结果不写入缓存。
+ */
+public class DumbModeGenerationTest extends LightJavaCodeInsightFixtureTestCase {
+
+    public void testDumbMode_同一文件中的类照常展开其余类型标记为无法解析() throws Exception {
+        myFixture.addClass("package other; public class Customer { String name; }");
+        myFixture.addClass("package other; public class Item { int count; }");
+        PsiClass order = myFixture.addClass("package dto;\n" +
+                "import java.util.List;\n" +
+                "import other.*;\n" +
+                "public class Order {\n" +
+                "  String id;\n" +
+                "  Long total;\n" +
+                "  List<Item> items;\n" +
+                "  Customer customer;\n" +
+                "  Header header;\n" +
+                "  public static class Header { boolean urgent; }\n" +
+                "}");
+        ClassShapeCache cache = new ClassShapeCache(getProject());
+
+        DumbServiceImpl dumbService = DumbServiceImpl.getInstance(getProject());
+        dumbService.setDumb(true);
+        ShapeCompiler compiler;
+        ClassShape shape;
+        try {
+            compiler = new ShapeCompiler(getProject(), cache);
+            shape = compiler.compile(order);
+        } finally {
+            dumbService.setDumb(false);
+        }
+
+        assertTrue(compiler.isDegraded());
+        assertEquals(List.of("id: STRING", "total: INTEGER", "items: [?Item]", "customer: ?Customer", "header: dto.Order.Header"),
+                names(shape));
+        assertEquals(List.of("urgent: BOOLEAN"), names(shape.getFields().get(4).getType().getTarget()));
+        assertEquals(2, compiler.getUnresolvedCount());
+        String json = JsonOutput.writeToString(gen -> new ShapeJsonRenderer().writeRoot(gen, shape), false);
+        assertTrue(json, json.contains("\"customer\":{\"$unresolved\":\"Customer\"}"));
+        // 降级的结果不进入缓存，索引就绪后重新编译
+        assertNull(cache.get("dto.Order"));
+
+        ClassShape smart = new ShapeCompiler(getProject(), cache).compile(order);
+        assertEquals(List.of("id: STRING", "total: INTEGER", "items: [other.Item]", "customer: other.Customer", "header: dto.Order.Header"),
+                names(smart));
+    }
+
+    public void testNotice_说明无法解析的类型数量() {
+        assertEquals("Generated while indexing. The result will refresh when indexing finishes.",
+                Java2JsonAction.degradedNotice(0));
+        assertTrue(Java2JsonAction.degradedNotice(2).contains(" 2 types could not be resolved"));
+    }
+
+    private static List<String> names(ClassShape shape) {
+        List<String> fields = new ArrayList<>();
+        for (FieldShape field : shape.getFields()) {
+            fields.add(field.toString());
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.java2json;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GenerationStatsTest {
+
+    @Test
+    public void testNone_关闭时不记录() {
+        GenerationStats stats = GenerationStats.NONE;
+        assertEquals(0, stats.start());
+        stats.stop(GenerationStats.Phase.RESOLVE, 0);
+        stats.resolved();
+        stats.exitClass("a.A", stats.enterClass());
+        stats.output("{}");
+
+        assertEquals(0, stats.getResolves());
+        assertEquals(0, stats.getClassesExpanded());
+        assertEquals(0, stats.getOutputBytes());
+        assertEquals(0, stats.getPhaseNanos(GenerationStats.Phase.RESOLVE));
+        assertTrue(stats.getTopClasses(10).isEmpty());
+    }
+
+    @Test
+    public void testTopClasses_按编译耗时排序() throws Exception {
+        GenerationStats stats = GenerationStats.enabled();
+        long start = stats.enterClass();
+        Thread.sleep(30);
+        stats.exitClass("a.Slow", start);
+        stats.exitClass("a.Fast", stats.enterClass());
+
+        List<Map.Entry<String, Long>> top = stats.getTopClasses(1);
+        assertEquals(1, top.size());
+        assertEquals("a.Slow", top.get(0).getKey());
+        assertEquals(2, stats.getClassesExpanded());
+        assertTrue(stats.report("test", 5).contains("a.Slow"));
+    }
+
+    @Test
+    public void testReport_多个线程时注明阶段耗时是累计值() throws Exception {
+        GenerationStats stats = GenerationStats.enabled();
+        stats.stop(GenerationStats.Phase.RESOLVE, stats.start());
+        assertFalse(stats.report("test", 5).contains("summed over"));
+
+        Thread worker = new Thread(() -> stats.stop(GenerationStats.Phase.RESOLVE, stats.start()));
+        worker.start();
+        worker.join();
+
+        assertTrue(stats.report("test", 5).contains("phase times are summed over 2 threads"));
+    }
+
+    @Test
+    public void testOutput_按UTF8计算字节数() {
+        GenerationStats stats = GenerationStats.enabled();
+        stats.output("{\"a\":\"${名称}\"}");
+        assertEquals("{\"a\":\"${名称}\"}".getBytes(StandardCharsets.UTF_8).length, stats.getOutputBytes());
+        assertEquals(4, GenerationStats.utf8Length("😀"));
+    }
+}
@@ -43,15 +43,6 @@ public class Java2JsonActionTest {
     public void setUp() {
         MockitoAnnotations.initMocks(this);
         action = new Java2JsonAction();
-        
-        // 通过反射设置 project 字段
-        try {
-            java.lang.reflect.Field projectField = Java2JsonAction.class.getDeclaredField("project");
-            projectField.setAccessible(true);
-            projectField.set(action, project);
-        } catch (Exception e) {
-            fail("无法设置 project 字段: " + e.getMessage());
-        }
     }
 
     @Test
@@ -76,7 +67,7 @@ public class Java2JsonActionTest {
         when(psiClass.getAllFields()).thenReturn(new PsiField[]{stringField, intField});
         
         // 调用测试方法
-        Map<String, Object> result = callHandlePsiClass(psiClass, new HashSet<>(), 0);
+        Map<String, Object> result = callHandlePsiClass(psiClass);
         
         // 验证结果
         assertNotNull(result);
@@ -120,7 +111,7 @@ public class Java2JsonActionTest {
         when(psiClass.getAllFields()).thenReturn(new PsiField[]{nameField, addressField});
         
         // 调用测试方法
-        Map<String, Object> result = callHandlePsiClass(psiClass, new HashSet<>(), 0);
+        Map<String, Object> result = callHandlePsiClass(psiClass);
         
         // 验证结果
         assertNotNull(result);
@@ -174,7 +165,7 @@ public class Java2JsonActionTest {
         when(psiClass.getAllFields()).thenReturn(new PsiField[]{nameField, employeesField});
         
         // 调用测试方法
-        Map<String, Object> result = callHandlePsiClass(psiClass, new HashSet<>(), 0);
+        Map<String, Object> result = callHandlePsiClass(psiClass);
         
         // 验证结果
         assertNotNull(result);
@@ -218,7 +209,7 @@ public class Java2JsonActionTest {
         when(psiClass.getAllFields()).thenReturn(new PsiField[]{genderField});
         
         // 调用测试方法
-        Map<String, Object> result = callHandlePsiClass(psiClass, new HashSet<>(), 0);
+        Map<String, Object> result = callHandlePsiClass(psiClass);
         
         // 验证结果
         assertNotNull(result);
@@ -250,7 +241,7 @@ public class Java2JsonActionTest {
         when(psiClass.getAllFields()).thenReturn(new PsiField[]{nameField, managerField});
         
         // 调用测试方法
-        Map<String, Object> result = callHandlePsiClass(psiClass, new HashSet<>(), 0);
+        Map<String, Object> result = callHandlePsiClass(psiClass);
         
         // 验证结果
         assertNotNull(result);
@@ -263,12 +254,55 @@ public class Java2JsonActionTest {
         assertEquals(0, managerMap.size());  // 应该是空的，因为检测到循环引用
     }
 
-    // 通过反射调用私有方法 handlePsiClass
+    @Test
+    public void testCompile_共享类节点与循环引用() throws Exception {
+        when(psiClass.getQualifiedName()).thenReturn("com.example.Order");
+
+        // 两个字段引用同一个类
+        PsiClassType addressType = mock(PsiClassType.class);
+        PsiClass addressClass = mock(PsiClass.class);
+        when(addressType.getCanonicalText()).thenReturn("com.example.Address");
+        when(addressType.resolve()).thenReturn(addressClass);
+        when(addressClass.getQualifiedName()).thenReturn("com.example.Address");
+
+        // Address 反向引用 Order
+        PsiField orderField = mock(PsiField.class);
+        PsiClassType orderType = mock(PsiClassType.class);
+        when(orderField.getName()).thenReturn("order");
+        when(orderField.getType()).thenReturn(orderType);
+        when(orderType.getCanonicalText()).thenReturn("com.example.Order");
+        when(orderType.resolve()).thenReturn(psiClass);
+        when(addressClass.getAllFields()).thenReturn(new PsiField[]{orderField});
+
+        PsiField billingField = mock(PsiField.class);
+        when(billingField.getName()).thenReturn("billing");
+        when(billingField.getType()).thenReturn(addressType);
+        PsiField shippingField = mock(PsiField.class);
+        when(shippingField.getName()).thenReturn("shipping");
+        when(shippingField.getType()).thenReturn(addressType);
+        when(psiClass.getAllFields()).thenReturn(new PsiField[]{billingField, shippingField});
+
+        ClassShape shape = new ShapeCompiler(project).compile(psiClass);
+
+        assertEquals(2, shape.getFields().size());
+        ClassShape billing = shape.getFields().get(0).getType().getTarget();
+        ClassShape shipping = shape.getFields().get(1).getType().getTarget();
+        assertSame(billing, shipping);
+        verify(addressClass, times(1)).getAllFields();
+
+        // 循环引用就是指向根节点的普通引用，节点中不记录经过的路径
+        TypeShape back = billing.getFields().get(0).getType();
+        assertEquals(TypeShape.Kind.OBJECT, back.getKind());
+        assertSame(shape, back.getTarget());
+        assertEquals("order: com.example.Order", billing.getFields().get(0).toString());
+    }
+
+    // 编译类结构图并渲染为 JSON，再解析回 Map 进行断言
     @SuppressWarnings("unchecked")
-    private Map<String, Object> callHandlePsiClass(PsiClass psiClass, Set<String> processedClasses, int depth) throws Exception {
-        java.lang.reflect.Method method = Java2JsonAction.class.getDeclaredMethod("handlePsiClass", PsiClass.class, Set.class, int.class);
-        method.setAccessible(true);
-        return (Map<String, Object>) method.invoke(action, psiClass, processedClasses, depth);
+    private Map<String, Object> callHandlePsiClass(PsiClass psiClass) throws Exception {
+        ClassShape shape = new ShapeCompiler(project).compile(psiClass);
+        String json = JsonOutput.writeToString(gen -> new ShapeJsonRenderer().writeRoot(gen, shape), false);
+        return new ObjectMapper().readValue(json, LinkedHashMap.class);
     }
 
     // 测试辅助类
@@ -0,0 +1,58 @@
+package com.example.java2json;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多个光标、跨越多个类的选区以及 Project View 中的多选，都一次生成多个类。
+ */
+public class Java2JsonBatchTest extends LightJavaCodeInsightFixtureTestCase {
+
+    public void testMultipleCarets_每个光标所在的类按文件顺序去重() {
+        myFixture.configureByText("Api.java", "class Request { String <caret>a; }\n" +
+                                              "class Response { String <caret>b; String <caret>c; }\n" +
+                                              "class Unused { }");
+
+        assertEquals(List.of("Request", "Response"), names(classesInEditor()));
+    }
+
+    public void testSelection_选区内的所有类不含内层类() {
+        myFixture.configureByText("Api.java", "class Unused { }\n" +
+                                              "<selection>class Request { static class Header { } }\n" +
+                                              "class Response { }</selection>");
+
+        assertEquals(List.of("Request", "Response"), names(classesInEditor()));
+    }
+
+    public void testSelection_选区不包含完整的类时取所在的类() {
+        myFixture.configureByText("Api.java", "class Request { String <selection>a;</selection> }");
+
+        assertEquals(List.of("Request"), names(classesInEditor()));
+    }
+
+    public void testProjectView_选中的文件取顶层类() {
+        PsiFile file = myFixture.addFileToProject("dto/Api.java",
+                "package dto; class Request { static class Header { } } class Response { }");
+        PsiClass other = myFixture.addClass("package dto; public class Other { }");
+
+        List<PsiClass> classes = Java2JsonAction.classesIn(new PsiElement[]{file, other, file});
+        assertEquals(List.of("Request", "Response", "Other"), names(classes));
+    }
+
+    private List<PsiClass> classesInEditor() {
+        return Java2JsonAction.classesInEditor(myFixture.getFile(), myFixture.getEditor());
+    }
+
+    private static List<String> names(List<PsiClass> classes) {
+        List<String> names = new ArrayList<>();
+        for (PsiClass psiClass : classes) {
+            names.add(psiClass.getName());
+        }
+        return names;
+    }
+}
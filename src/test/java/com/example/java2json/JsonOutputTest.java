@@ -0,0 +1,68 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JsonOutputTest {
+
+    private static final JsonOutput.Body BODY = gen -> {
+        gen.writeStartObject();
+        gen.writeStringField("name", "${名称}");
+        gen.writeFieldName("items");
+        gen.writeStartArray();
+        gen.writeStartObject();
+        gen.writeEndObject();
+        gen.writeEndArray();
+        gen.writeEndObject();
+    };
+
+    @Test
+    public void testWriteToString_紧凑格式() throws Exception {
+        assertEquals("{\"name\":\"${名称}\",\"items\":[{}]}", JsonOutput.writeToString(BODY, false));
+    }
+
+    @Test
+    public void testWriteToString_美化格式与ObjectMapper一致() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "${名称}");
+        map.put("items", List.of(new LinkedHashMap<>()));
+        String expected = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(map);
+
+        assertEquals(expected, JsonOutput.writeToString(BODY, true));
+    }
+
+    @Test
+    public void testWrite_Writer不被关闭() throws Exception {
+        StringWriter writer = new StringWriter();
+        JsonOutput.write(writer, BODY, false);
+        writer.write("\n");
+
+        assertEquals("{\"name\":\"${名称}\",\"items\":[{}]}\n", writer.toString());
+    }
+
+    @Test
+    public void testWrite_文件通道() throws Exception {
+        Path file = Files.createTempFile("comment2json", ".json");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                JsonOutput.write(channel, BODY, false);
+            }
+            assertEquals("{\"name\":\"${名称}\",\"items\":[{}]}",
+                    new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
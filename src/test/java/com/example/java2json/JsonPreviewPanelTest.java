@@ -0,0 +1,29 @@
+package com.example.java2json;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JsonPreviewPanelTest {
+
+    @Test
+    public void testCommonEnds_只替换中间不同的部分() {
+        String before = "{\n  \"a\" : \"${甲}\",\n  \"b\" : \"\"\n}";
+        String after = "{\n  \"a\" : \"${乙}\",\n  \"b\" : \"\"\n}";
+        int[] common = JsonPreviewPanel.commonEnds(before, after);
+        assertEquals(before.indexOf('甲'), common[0]);
+        assertEquals(before.length() - before.indexOf('甲') - 1, common[1]);
+    }
+
+    @Test
+    public void testCommonEnds_前缀和后缀不重叠() {
+        // 插入重复内容时，后缀不能和前缀重叠
+        int[] common = JsonPreviewPanel.commonEnds("{}", "{}{}");
+        assertEquals(2, common[0]);
+        assertEquals(0, common[1]);
+
+        common = JsonPreviewPanel.commonEnds("same", "same");
+        assertEquals(4, common[0]);
+        assertEquals(0, common[1]);
+    }
+}
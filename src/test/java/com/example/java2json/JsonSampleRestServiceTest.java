@@ -0,0 +1,95 @@
+package com.example.java2json;
+
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.ide.BuiltInServerManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 通过内置 Web 服务器用普通的 HTTP 客户端请求生成结果，检查 ETag 和错误状态码。
+ */
+public class JsonSampleRestServiceTest extends LightJavaCodeInsightFixtureTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package dto;\n" +
+                "public class Order {\n" +
+                "  /** 订单号 */\n" +
+                "  private String id;\n" +
+                "}");
+    }
+
+    public void testGet_返回JSON并在缓存未失效时返回304() throws Exception {
+        HttpURLConnection first = open("class=dto.Order");
+        assertEquals(200, first.getResponseCode());
+        assertTrue(first.getContentType(), first.getContentType().startsWith("application/json"));
+        assertEquals("{\n  \"id\" : \"${订单号}\"\n}", read(first).trim());
+        String etag = first.getHeaderField("ETag");
+        assertNotNull(etag);
+
+        HttpURLConnection second = open("class=dto.Order");
+        second.setRequestProperty("If-None-Match", etag);
+        assertEquals(304, second.getResponseCode());
+
+        // 不同的格式有不同的 ETag
+        HttpURLConnection schema = open("class=dto.Order&format=schema");
+        schema.setRequestProperty("If-None-Match", etag);
+        assertEquals(200, schema.getResponseCode());
+        assertTrue(read(schema).contains("\"$defs\""));
+    }
+
+    public void testGet_修改类后ETag变化() throws Exception {
+        HttpURLConnection first = open("class=dto.Order");
+        assertEquals(200, first.getResponseCode());
+        String etag = first.getHeaderField("ETag");
+
+        ClassShapeCache.getInstance(getProject()).invalidate(java.util.List.of("dto.Order"));
+        HttpURLConnection second = open("class=dto.Order");
+        second.setRequestProperty("If-None-Match", etag);
+        assertEquals(200, second.getResponseCode());
+        assertFalse(etag.equals(second.getHeaderField("ETag")));
+    }
+
+    public void testGet_错误的请求() throws Exception {
+        assertEquals(400, open("format=json").getResponseCode());
+        assertEquals(400, open("class=dto.Order&format=xml").getResponseCode());
+        assertEquals(404, open("class=dto.Missing").getResponseCode());
+    }
+
+    public void testIndexing_生成中途开始索引时按503处理() {
+        assertTrue(JsonSampleRestService.isIndexing(IndexNotReadyException.create()));
+        assertTrue(JsonSampleRestService.isIndexing(new RuntimeException(IndexNotReadyException.create())));
+        assertFalse(JsonSampleRestService.isIndexing(new IllegalStateException("broken")));
+    }
+
+    public void testLoopback_只接受本机连接() {
+        assertTrue(JsonSampleRestService.isLoopback(new InetSocketAddress("127.0.0.1", 80)));
+        assertFalse(JsonSampleRestService.isLoopback(new InetSocketAddress("10.1.2.3", 80)));
+        assertFalse(JsonSampleRestService.isLoopback(null));
+    }
+
+    private HttpURLConnection open(String query) throws IOException {
+        int port = BuiltInServerManager.getInstance().waitForStart().getPort();
+        String project = URLEncoder.encode(getProject().getName(), StandardCharsets.UTF_8);
+        URL url = new URL("http://127.0.0.1:" + port + "/api/" + JsonSampleRestService.SERVICE_NAME + "?" + query +
+                          "&project=" + project);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(30000);
+        return connection;
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.java2json;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 按类结构图流式校验 JSON 和 NDJSON 文件：缺失、未知、类型不符和格式错误按路径汇总，并行分段的结果与单段相同。
+ */
+public class JsonShapeValidatorTest extends BasePlatformTestCase {
+
+    // Order { id: Long, status: Status, tags: List<String>, items: List<Item>, extra: Map, note?: String }
+    private static ClassShape order() {
+        ClassShape item = new ClassShape("dto.Item");
+        item.complete(List.of(
+                new FieldShape("sku", "SKU", TypeShape.valueOf(TypeShape.ValueType.STRING)),
+                new FieldShape("price", "单价", TypeShape.valueOf(TypeShape.ValueType.NUMBER))));
+        ClassShape order = new ClassShape("dto.Order");
+        order.complete(List.of(
+                new FieldShape("id", "订单号", TypeShape.valueOf(TypeShape.ValueType.INTEGER)),
+                new FieldShape("status", "状态", TypeShape.enumOf("dto.Status", List.of("NEW", "PAID"))),
+                new FieldShape("tags", null, TypeShape.arrayOf(TypeShape.valueOf(TypeShape.ValueType.STRING))),
+                new FieldShape("items", "明细", TypeShape.arrayOf(TypeShape.objectOf(item))),
+                new FieldShape("extra", null, TypeShape.MAP),
+                new FieldShape("note", "备注", TypeShape.valueOf(TypeShape.ValueType.STRING), true)));
+        return order;
+    }
+
+    public void testValidate_符合结构的记录没有问题() throws Exception {
+        Path file = write("orders.json", "[" +
+                "{\"id\":1,\"status\":\"NEW\",\"tags\":[\"a\"],\"items\":[{\"sku\":\"s\",\"price\":1.5}],\"extra\":{\"k\":[1]}}," +
+                "{\"id\":2,\"status\":null,\"tags\":[],\"items\":[{\"sku\":\"t\",\"price\":2}],\"extra\":{},\"note\":\"n\"}]");
+
+        JsonShapeValidator.Report report = new JsonShapeValidator(order()).validate(file, null);
+
+        assertEquals(2, report.getRecords());
+        assertTrue(report.toString(), report.isValid());
+    }
+
+    public void testValidate_按路径汇总问题() throws Exception {
+        Path file = write("orders.ndjson",
+                "{\"id\":\"1\",\"status\":\"LOST\",\"tags\":[1],\"items\":[{\"sku\":\"s\",\"color\":\"red\"}],\"extra\":[]}\n" +
+                "{\"id\":2,\"status\":\"PAID\",\"tags\":[],\"items\":[{\"price\":\"free\"},{\"sku\":\"t\",\"price\":1}],\"extra\":{}}\n");
+
+        JsonShapeValidator.Report report = new JsonShapeValidator(order()).validate(file, null);
+
+        assertEquals(2, report.getRecords());
+        assertEquals(2, report.getCount(JsonShapeValidator.IssueKind.MISSING));
+        assertEquals(1, report.getCount(JsonShapeValidator.IssueKind.UNKNOWN));
+        assertEquals(5, report.getCount(JsonShapeValidator.IssueKind.TYPE_MISMATCH));
+        assertEquals("expected integer, found string", issue(report, "TYPE_MISMATCH $.id").getDetail());
+        assertEquals("expected one of [NEW, PAID], found string", issue(report, "TYPE_MISMATCH $.status").getDetail());
+        assertNotNull(issue(report, "TYPE_MISMATCH $.tags[]"));
+        assertNotNull(issue(report, "TYPE_MISMATCH $.items[].price"));
+        assertEquals("expected object, found array", issue(report, "TYPE_MISMATCH $.extra").getDetail());
+        assertNotNull(issue(report, "UNKNOWN $.items[].color"));
+        // "1" 在第一行的第 6 个字节
+        assertEquals(6, issue(report, "TYPE_MISMATCH $.id").getFirstOffset());
+        assertEquals(1, issue(report, "MISSING $.items[].price").getCount());
+        assertEquals(1, issue(report, "MISSING $.items[].sku").getCount());
+    }
+
+    public void testValidate_格式错误的行跳过后继续() throws Exception {
+        Path file = write("orders.jsonl",
+                "{\"id\":1,\"status\":\"NEW\",\"tags\":[],\"items\":[],\"extra\":{}}\n" +
+                "{\"id\":2,\n" +
+                "{\"id\":3,\"status\":\"NEW\",\"tags\":[],\"items\":[],\"extra\":{}}\n" +
+                "xyz\n" +
+                "{\"id\":\"4\",\"status\":\"NEW\",\"tags\":[],\"items\":[],\"extra\":{}}\n");
+
+        JsonShapeValidator.Report report = new JsonShapeValidator(order()).validate(file, null);
+
+        // 不完整的第二行也算一条记录，第三行照常校验；不是 JSON 的第四行只记一次格式错误
+        assertEquals(4, report.getRecords());
+        assertEquals(2, report.getCount(JsonShapeValidator.IssueKind.MALFORMED));
+        assertEquals(1, report.getCount(JsonShapeValidator.IssueKind.TYPE_MISMATCH));
+        assertEquals(56 + 9 + 56 + 4 + 6, issue(report, "TYPE_MISMATCH $.id").getFirstOffset());
+    }
+
+    public void testValidate_并行分段的结果与单段相同() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            content.append(i % 7 == 0
+                    ? "{\"id\":\"" + i + "\",\"status\":\"NEW\",\"tags\":[],\"items\":[{\"sku\":1}],\"extra\":{}}\n"
+                    : "{\"id\":" + i + ",\"status\":\"PAID\",\"tags\":[\"x\"],\"items\":[],\"extra\":{},\"more\":true}\n");
+        }
+        Path file = write("orders.ndjson", content.toString());
+
+        JsonShapeValidator.Report single = new JsonShapeValidator(order(), 1, Long.MAX_VALUE).validate(file, null);
+        JsonShapeValidator.Report parallel = new JsonShapeValidator(order(), 4, 1024).validate(file, null);
+
+        assertEquals(2000, parallel.getRecords());
+        assertEquals(single.toString(), parallel.toString());
+        assertEquals(String.valueOf(single.getIssues()), String.valueOf(parallel.getIssues()));
+        assertEquals(2000 - 286, parallel.getCount(JsonShapeValidator.IssueKind.UNKNOWN));
+    }
+
+    public void testValidate_消息和扩展名与默认语言环境无关() throws Exception {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            Path file = write("ORDERS.NDJSON", "{\"id\":\"1\",\"status\":\"NEW\",\"tags\":[],\"items\":[],\"extra\":{}}\n");
+
+            assertTrue(JsonShapeValidator.isNdjson(file));
+            assertTrue(JsonShapeValidator.isNdjson(Path.of("LIST.JSONL")));
+            JsonShapeValidator.Report report = new JsonShapeValidator(order()).validate(file, null);
+            assertEquals("expected integer, found string", issue(report, "TYPE_MISMATCH $.id").getDetail());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    public void testValidate_根不是对象() throws Exception {
+        Path file = write("value.json", "42");
+
+        JsonShapeValidator.Report report = new JsonShapeValidator(order()).validate(file, null);
+
+        assertEquals("expected object, found integer", issue(report, "TYPE_MISMATCH $").getDetail());
+    }
+
+    private static JsonShapeValidator.Issue issue(JsonShapeValidator.Report report, String kindAndPath) {
+        for (JsonShapeValidator.Issue issue : report.getIssues()) {
+            if ((issue.getKind() + " " + issue.getPath()).equals(kindAndPath)) {
+                return issue;
+            }
+        }
+        fail(kindAndPath + " not in " + report.getIssues());
+        return null;
+    }
+
+    private static Path write(String name, String content) throws IOException {
+        Path file = Files.createTempDirectory("validate").resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+}
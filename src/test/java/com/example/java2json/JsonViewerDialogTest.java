@@ -0,0 +1,83 @@
+package com.example.java2json;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JsonViewerDialogTest {
+
+    @Test
+    public void testFindFoldRanges_只折叠跨行的对象和数组() {
+        String json = "{\n  \"a\" : { },\n  \"b\" : [ {\n    \"c\" : \"\"\n  } ]\n}";
+        List<int[]> ranges = JsonViewerDialog.findFoldRanges(json);
+
+        assertEquals(3, ranges.size());
+        // 按右括号出现的顺序：内层对象、数组、根对象
+        assertEquals("{\n    \"c\" : \"\"\n  }", json.substring(ranges.get(0)[0], ranges.get(0)[1]));
+        assertEquals('[', json.charAt(ranges.get(1)[0]));
+        assertEquals(0, ranges.get(2)[0]);
+        assertEquals(json.length(), ranges.get(2)[1]);
+    }
+
+    @Test
+    public void testFindFoldRanges_忽略字符串中的括号() {
+        String json = "{\n  \"a\" : \"${见 {@link Foo} \\\" ]}\"\n}";
+        List<int[]> ranges = JsonViewerDialog.findFoldRanges(json);
+
+        assertEquals(1, ranges.size());
+        assertEquals(0, ranges.get(0)[0]);
+        assertEquals(json.length(), ranges.get(0)[1]);
+    }
+
+    @Test
+    public void testFindFoldRanges_只折叠外层() {
+        String json = "{\n  \"a\" : {\n    \"b\" : {\n      \"c\" : \"\"\n    }\n  }\n}";
+        List<int[]> ranges = JsonViewerDialog.findFoldRanges(json, 1, Integer.MAX_VALUE);
+
+        assertEquals(2, ranges.size());
+        assertEquals('{', json.charAt(ranges.get(0)[0]));
+        assertEquals(json.indexOf("{", 1), ranges.get(0)[0]);
+        assertEquals(0, ranges.get(1)[0]);
+    }
+
+    @Test
+    public void testFindFoldRanges_超出上限时保留外层() {
+        StringBuilder json = new StringBuilder("{\n");
+        for (int i = 0; i < 10; i++) {
+            json.append("  \"f").append(i).append("\" : {\n    \"x\" : [\n      1\n    ]\n  },\n");
+        }
+        json.append("  \"end\" : 0\n}");
+        // 根对象 1 个，第一层 10 个，第二层 10 个
+        assertEquals(21, JsonViewerDialog.findFoldRanges(json).size());
+
+        List<int[]> ranges = JsonViewerDialog.findFoldRanges(json, Integer.MAX_VALUE, 15);
+        assertEquals(15, ranges.size());
+        int objects = 0;
+        for (int[] range : ranges) {
+            if (json.charAt(range[0]) == '{') {
+                objects++;
+            }
+        }
+        // 根对象和第一层的 10 个对象全部保留，第二层的数组只保留前 4 个
+        assertEquals(11, objects);
+        assertEquals(0, ranges.get(ranges.size() - 1)[0]);
+    }
+
+    @Test
+    public void testWriteChunks_分块写出完整内容() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("\"field").append(i).append("\" : \"${注释}\",\n");
+        }
+        StringWriter writer = new StringWriter();
+        JsonViewerDialog.writeChunks(text, writer);
+        assertEquals(text.toString(), writer.toString());
+
+        StringWriter empty = new StringWriter();
+        JsonViewerDialog.writeChunks("", empty);
+        assertEquals("", empty.toString());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.java2json;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LruCacheTest {
+
+    @Test
+    public void testGet_命中统计() {
+        LruCache<String, String> cache = new LruCache<>(4);
+        cache.put("com.example.Address", "address");
+
+        assertEquals("address", cache.get("com.example.Address"));
+        assertNull(cache.get("com.example.Money"));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testPut_超出容量淘汰最久未访问() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+
+        // 访问 a 之后，b 成为最久未访问的元素
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("C", cache.get("c"));
+    }
+
+    @Test
+    public void testPut_淘汰时通知被淘汰的条目() {
+        List<String> dropped = new ArrayList<>();
+        LruCache<String, String> cache = new LruCache<>(2) {
+            @Override
+            protected void onDropFromCache(String key, String value) {
+                dropped.add(key + "=" + value);
+            }
+        };
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.remove("b");
+        cache.put("c", "C");
+        cache.put("d", "D");
+
+        // 主动移除的不通知
+        assertEquals(Collections.singletonList("a=A"), dropped);
+    }
+
+    @Test
+    public void testGetIfPresent_未命中由调用方计数() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "A");
+
+        assertEquals("A", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+
+        cache.recordMiss();
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testClear_清空内容保留统计() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "A");
+        cache.get("a");
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_非法容量() {
+        new LruCache<String, String>(0);
+    }
+}
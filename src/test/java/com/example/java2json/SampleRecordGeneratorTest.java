@@ -0,0 +1,199 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 从真实 PSI 编译出的类结构生成压测数据：值符合字段类型，同样的种子和序号总是得到同样的记录。
+ */
+public class SampleRecordGeneratorTest extends LightJavaCodeInsightFixtureTestCase {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package dto;\n" +
+                "public enum Status { NEW, PAID, SHIPPED }");
+        myFixture.addClass("package dto;\n" +
+                "public class Item {\n" +
+                "  private String sku;\n" +
+                "  private int quantity;\n" +
+                "  private Order order;\n" +
+                "}");
+        myFixture.addClass("package dto;\n" +
+                "import java.util.*;\n" +
+                "import java.time.*;\n" +
+                "public class Order {\n" +
+                "  private Long id;\n" +
+                "  private String name;\n" +
+                "  private java.math.BigDecimal amount;\n" +
+                "  private boolean paid;\n" +
+                "  private Status status;\n" +
+                "  private List<Status> history;\n" +
+                "  private LocalDate day;\n" +
+                "  private LocalDateTime createdAt;\n" +
+                "  private Instant paidAt;\n" +
+                "  private LocalTime time;\n" +
+                "  private UUID token;\n" +
+                "  private List<Item> items;\n" +
+                "  private Map<String, String> extra;\n" +
+                "  private Object any;\n" +
+                "}");
+    }
+
+    public void testRecord_值符合字段类型() throws Exception {
+        SampleRecordGenerator generator = new SampleRecordGenerator(compile("dto.Order"),
+                new SampleRecordGenerator.Options(42, 2, 2, 5));
+        JsonNode record = MAPPER.readTree(generator.recordToString(0));
+
+        assertTrue(record.get("id").isIntegralNumber());
+        assertTrue(record.get("name").asText(), record.get("name").asText().matches("name-\\d+"));
+        assertTrue(record.get("amount").isNumber());
+        assertTrue(record.get("paid").isBoolean());
+        assertTrue(Set.of("NEW", "PAID", "SHIPPED").contains(record.get("status").asText()));
+        assertEquals(2, record.get("history").size());
+        assertTrue(Set.of("NEW", "PAID", "SHIPPED").contains(record.get("history").get(0).asText()));
+        assertTrue(record.get("day").asText().matches("\\d{4}-\\d{2}-\\d{2}"));
+        assertTrue(record.get("createdAt").asText().matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}"));
+        assertTrue(record.get("paidAt").asText().matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}Z"));
+        assertTrue(record.get("time").asText().matches("\\d{2}:\\d{2}:\\d{2}"));
+        assertTrue(record.get("token").asText().matches("[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}"));
+        assertEquals(2, record.get("items").size());
+        assertTrue(record.get("items").get(0).get("sku").asText().startsWith("sku-"));
+        // 引用回根对象的字段写成 null
+        assertTrue(record.get("items").get(0).get("order").isNull());
+        assertEquals(0, record.get("extra").size());
+        assertTrue(record.get("any").isNull());
+    }
+
+    public void testRecord_byte和short不超出范围_char只有一个字符() throws Exception {
+        myFixture.addClass("package dto;\n" +
+                "public class Packet {\n" +
+                "  private byte flag;\n" +
+                "  private Byte level;\n" +
+                "  private short port;\n" +
+                "  private Short code;\n" +
+                "  private char grade;\n" +
+                "  private Character mark;\n" +
+                "}");
+        SampleRecordGenerator generator = new SampleRecordGenerator(compile("dto.Packet"), SampleRecordGenerator.Options.DEFAULT);
+
+        for (int i = 0; i < 1000; i++) {
+            JsonNode record = MAPPER.readTree(generator.recordToString(i));
+            for (String name : List.of("flag", "level")) {
+                assertTrue(record.toString(), record.get(name).isInt());
+                assertTrue(record.toString(), record.get(name).intValue() <= Byte.MAX_VALUE);
+            }
+            for (String name : List.of("port", "code")) {
+                assertTrue(record.toString(), record.get(name).isInt());
+                assertTrue(record.toString(), record.get(name).intValue() <= Short.MAX_VALUE);
+            }
+            for (String name : List.of("grade", "mark")) {
+                assertTrue(record.toString(), record.get(name).isTextual());
+                assertEquals(record.toString(), 1, record.get(name).asText().length());
+            }
+        }
+    }
+
+    public void testRecord_相同种子和序号得到相同记录() throws Exception {
+        ClassShape shape = compile("dto.Order");
+        SampleRecordGenerator.Options options = new SampleRecordGenerator.Options(7, 0, 4, 5);
+        SampleRecordGenerator first = new SampleRecordGenerator(shape, options);
+        SampleRecordGenerator second = new SampleRecordGenerator(shape, options);
+
+        assertEquals(first.recordToString(3), second.recordToString(3));
+        // 与生成顺序无关
+        first.recordToString(0);
+        assertEquals(first.recordToString(3), second.recordToString(3));
+        assertFalse(first.recordToString(3).equals(first.recordToString(4)));
+        assertFalse(first.recordToString(3).equals(
+                new SampleRecordGenerator(shape, new SampleRecordGenerator.Options(8, 0, 4, 5)).recordToString(3)));
+    }
+
+    public void testWriteNdjson_每行一条记录() throws Exception {
+        SampleRecordGenerator generator = new SampleRecordGenerator(compile("dto.Order"), SampleRecordGenerator.Options.DEFAULT);
+        Path file = Files.createTempDirectory("records").resolve("dto.Order.ndjson");
+
+        long bytes = generator.writeNdjson(file, 1000, null);
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1000, lines.size());
+        assertEquals(Files.size(file), bytes);
+        assertEquals(generator.recordToString(0), lines.get(0));
+        assertEquals(generator.recordToString(999), lines.get(999));
+        for (String line : lines) {
+            assertTrue(MAPPER.readTree(line).isObject());
+        }
+    }
+
+    public void testWriteNdjson_缓存中经由其他根类编译的节点输出相同() throws Exception {
+        // 冷缓存：直接以 Order 为根编译
+        Path cold = Files.createTempDirectory("records").resolve("cold.ndjson");
+        new SampleRecordGenerator(compile("dto.Order"), SampleRecordGenerator.Options.DEFAULT).writeNdjson(cold, 200, null);
+
+        // 热缓存：先以 Item 为根编译，Order 节点经由 Item.order 进入缓存，再以 Order 为根编译时从缓存取得
+        ClassShapeCache cache = ClassShapeCache.getInstance(getProject());
+        cache.clear();
+        int budget = SampleRecordGenerator.Options.DEFAULT.getCompileBudget();
+        new ShapeCompiler(getProject(), cache).compile(findClass("dto.Item"), budget);
+        ClassShape warmShape = new ShapeCompiler(getProject(), cache).compile(findClass("dto.Order"), budget);
+        cache.clear();
+        Path warm = Files.createTempDirectory("records").resolve("warm.ndjson");
+        new SampleRecordGenerator(warmShape, SampleRecordGenerator.Options.DEFAULT).writeNdjson(warm, 200, null);
+
+        assertEquals(Files.readString(cold), Files.readString(warm));
+        // Item 不在 Order 为根的路径上，照常展开
+        assertTrue(MAPPER.readTree(Files.readAllLines(warm).get(0)).get("items").get(0).isObject());
+    }
+
+    public void testDepth_超过嵌套层数的对象写成null() throws Exception {
+        ClassShape leaf = new ClassShape("dto.Leaf");
+        leaf.complete(List.of(new FieldShape("value", null, TypeShape.valueOf(TypeShape.ValueType.INTEGER))));
+        ClassShape middle = new ClassShape("dto.Middle");
+        middle.complete(List.of(new FieldShape("leaf", null, TypeShape.objectOf(leaf))));
+        ClassShape root = new ClassShape("dto.Root");
+        root.complete(List.of(new FieldShape("middle", null, TypeShape.objectOf(middle))));
+
+        JsonNode record = MAPPER.readTree(
+                new SampleRecordGenerator(root, new SampleRecordGenerator.Options(0, 1, 1, 1)).recordToString(0));
+
+        assertTrue(record.get("middle").isObject());
+        assertTrue(record.get("middle").get("leaf").isNull());
+    }
+
+    public void testOptions_集合大小范围必须有效() {
+        try {
+            new SampleRecordGenerator.Options(0, 3, 2, 5);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testCompile_枚举记录常量并作为依赖() {
+        ClassShape shape = compile("dto.Order");
+        FieldShape status = shape.getFields().stream().filter(f -> f.getName().equals("status")).findFirst().orElseThrow();
+
+        assertEquals(Arrays.asList("NEW", "PAID", "SHIPPED"), status.getType().getEnumConstants());
+        assertTrue(shape.getDependencies().contains("dto.Status"));
+    }
+
+    private ClassShape compile(String qualifiedName) {
+        return new ShapeCompiler(getProject()).compile(findClass(qualifiedName), SampleRecordGenerator.Options.DEFAULT.getCompileBudget());
+    }
+
+    private PsiClass findClass(String qualifiedName) {
+        PsiClass psiClass = JavaPsiFacade.getInstance(getProject()).findClass(qualifiedName, GlobalSearchScope.allScope(getProject()));
+        assertNotNull(psiClass);
+        return psiClass;
+    }
+}
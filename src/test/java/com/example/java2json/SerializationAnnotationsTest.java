@@ -0,0 +1,147 @@
+package com.example.java2json;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 字段模型按 Jackson 和 Gson 的注解改名、忽略字段和标记可省略的字段。
+ */
+public class SerializationAnnotationsTest extends LightJavaCodeInsightFixtureTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package com.fasterxml.jackson.annotation; public @interface JsonProperty { " +
+                           "String value() default \"\"; Access access() default Access.AUTO; " +
+                           "enum Access { AUTO, READ_ONLY, WRITE_ONLY, READ_WRITE } }");
+        myFixture.addClass("package com.fasterxml.jackson.annotation; public @interface JsonIgnore { boolean value() default true; }");
+        myFixture.addClass("package com.fasterxml.jackson.annotation; public @interface JsonIgnoreProperties { String[] value() default {}; }");
+        myFixture.addClass("package com.fasterxml.jackson.annotation; public @interface JsonInclude { " +
+                           "Include value() default Include.ALWAYS; enum Include { ALWAYS, NON_NULL, NON_EMPTY, USE_DEFAULTS } }");
+        myFixture.addClass("package com.fasterxml.jackson.databind; public class PropertyNamingStrategies { " +
+                           "public static class SnakeCaseStrategy { } }");
+        myFixture.addClass("package com.fasterxml.jackson.databind.annotation; public @interface JsonNaming { Class<?> value(); }");
+        myFixture.addClass("package com.google.gson.annotations; public @interface SerializedName { String value(); }");
+    }
+
+    public void testRename_JsonProperty优先于SerializedName() {
+        PsiClass dto = myFixture.addClass("package dto;\n" +
+                "import com.fasterxml.jackson.annotation.JsonProperty;\n" +
+                "import com.google.gson.annotations.SerializedName;\n" +
+                "public class Dto {\n" +
+                "  @JsonProperty(\"user_id\") private Long userId;\n" +
+                "  @SerializedName(\"nick\") private String nickName;\n" +
+                "  @SerializedName(\"gson\") @JsonProperty(\"jackson\") private String both;\n" +
+                "  @JsonProperty private String plain;\n" +
+                "}");
+
+        assertEquals(List.of("user_id: INTEGER", "nick: STRING", "jackson: STRING", "plain: STRING"), fields(dto));
+    }
+
+    public void testIgnore_不会被序列化的字段不输出() {
+        PsiClass dto = myFixture.addClass("package dto;\n" +
+                "import com.fasterxml.jackson.annotation.*;\n" +
+                "@JsonIgnoreProperties({\"secret\"})\n" +
+                "public class Dto {\n" +
+                "  private String name;\n" +
+                "  private transient String cache;\n" +
+                "  @JsonIgnore private String internal;\n" +
+                "  @JsonIgnore(false) private String kept;\n" +
+                "  @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) private String password;\n" +
+                "  private String secret;\n" +
+                "}");
+
+        assertEquals(List.of("name: STRING", "kept: STRING"), fields(dto));
+    }
+
+    public void testNaming_类上的命名策略只作用于没有显式名称的字段() {
+        PsiClass dto = myFixture.addClass("package dto;\n" +
+                "import com.fasterxml.jackson.annotation.JsonProperty;\n" +
+                "import com.fasterxml.jackson.databind.PropertyNamingStrategies;\n" +
+                "import com.fasterxml.jackson.databind.annotation.JsonNaming;\n" +
+                "@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)\n" +
+                "public class Dto {\n" +
+                "  private String firstName;\n" +
+                "  private String userURL;\n" +
+                "  @JsonProperty(\"Last\") private String lastName;\n" +
+                "}");
+
+        assertEquals(List.of("first_name: STRING", "user_url: STRING", "Last: STRING"), fields(dto));
+    }
+
+    public void testInclude_可省略的字段并继承父类的规则() {
+        myFixture.addClass("package dto;\n" +
+                "import com.fasterxml.jackson.annotation.JsonInclude;\n" +
+                "@JsonInclude(JsonInclude.Include.NON_NULL)\n" +
+                "public class Base {\n" +
+                "  private String createdBy;\n" +
+                "}");
+        PsiClass dto = myFixture.addClass("package dto;\n" +
+                "import com.fasterxml.jackson.annotation.JsonInclude;\n" +
+                "public class Dto extends Base {\n" +
+                "  private String name;\n" +
+                "  @JsonInclude(JsonInclude.Include.ALWAYS) private String id;\n" +
+                "}");
+
+        assertEquals(List.of("name?: STRING", "id: STRING", "createdBy?: STRING"), fields(dto));
+        // 父类的注解变化时子类的缓存也要失效
+        ClassShape shape = new ShapeCompiler(getProject(), new ClassShapeCache(getProject())).compile(dto);
+        assertTrue(shape.getDependencies().toString(), shape.getDependencies().contains("dto.Base"));
+    }
+
+    public void testNamingStrategy_与Jackson的转换结果一致() {
+        assertEquals("user_name", SerializationAnnotations.NamingStrategy.SNAKE_CASE.translate("userName"));
+        assertEquals("htmlparser", SerializationAnnotations.NamingStrategy.SNAKE_CASE.translate("HTMLParser"));
+        assertEquals("USER_NAME", SerializationAnnotations.NamingStrategy.UPPER_SNAKE_CASE.translate("userName"));
+        assertEquals("user-name", SerializationAnnotations.NamingStrategy.KEBAB_CASE.translate("userName"));
+        assertEquals("user.name", SerializationAnnotations.NamingStrategy.LOWER_DOT_CASE.translate("userName"));
+        assertEquals("username", SerializationAnnotations.NamingStrategy.LOWER_CASE.translate("userName"));
+        assertEquals("UserName", SerializationAnnotations.NamingStrategy.UPPER_CAMEL_CASE.translate("userName"));
+    }
+
+    public void testNamingStrategy_与默认语言环境无关() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertEquals("itemid", SerializationAnnotations.NamingStrategy.LOWER_CASE.translate("ItemId"));
+            assertEquals("ITEM_ID", SerializationAnnotations.NamingStrategy.UPPER_SNAKE_CASE.translate("itemId"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    public void testFinalFields_不可变DTO的字段照常输出() {
+        myFixture.addClass("package lombok; public @interface Value { }");
+        PsiClass money = myFixture.addClass("package dto;\n" +
+                "@lombok.Value\n" +
+                "public class Money {\n" +
+                "  private final String currency;\n" +
+                "  private final java.math.BigDecimal amount;\n" +
+                "  public static final String DEFAULT_CURRENCY = \"CNY\";\n" +
+                "  private static int created;\n" +
+                "}");
+        PsiClass account = myFixture.addClass("package dto;\n" +
+                "public class Account {\n" +
+                "  private final Long id;\n" +
+                "  private String name;\n" +
+                "  public Account(Long id) { this.id = id; }\n" +
+                "  public Long getId() { return id; }\n" +
+                "}");
+
+        assertEquals(List.of("currency: STRING", "amount: NUMBER"), fields(money));
+        assertEquals(List.of("id: INTEGER", "name: STRING"), fields(account));
+    }
+
+    private List<String> fields(PsiClass psiClass) {
+        ClassShape shape = new ShapeCompiler(getProject(), new ClassShapeCache(getProject())).compile(psiClass);
+        List<String> fields = new ArrayList<>();
+        for (FieldShape field : shape.getFields()) {
+            fields.add(field.toString());
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.java2json;
+
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 在真实 PSI 上生成大量 DTO（继承、泛型、循环引用），检查生成的耗时和类型解析次数。
+ * 解析次数按生成的类图计算上限：每个被引用的 DTO 类型解析一次，另外每个展开的类解析一次父类字段上的类型参数 T；
+ * 同一个类型在一次生成中被重复解析会直接导致测试失败。
+ */
+public class ShapeCompilerPerformanceTest extends LightJavaCodeInsightFixtureTestCase {
+    private static final int CLASS_COUNT = 2000;
+    private static final int PACKAGE_COUNT = 20;
+    // 宽类的自定义类型字段数，这些字段的子树并行展开
+    private static final int WIDE_FIELDS = 80;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package dto;\n" +
+                "\n" +
+                "public class Base<T> {\n" +
+                "    /** 创建时间 */\n" +
+                "    private java.util.Date createdAt;\n" +
+                "    /** 版本号 */\n" +
+                "    private Integer version;\n" +
+                "    /** 载荷 */\n" +
+                "    private T payload;\n" +
+                "}");
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            myFixture.addFileToProject(packageOf(i).replace('.', '/') + "/Dto" + i + ".java", dtoSource(i));
+        }
+        ClassShapeCache.getInstance(getProject()).clear();
+    }
+
+    public void testColdGeneration_解析次数不超过类图规模() {
+        PsiClass root = findDto(0);
+        // 顺序展开，并行时两个线程可能同时解析同一个类型，次数不确定
+        ShapeCompiler compiler = new ShapeCompiler(getProject()).sequential();
+        ClassShape shape = compiler.compile(root);
+
+        Set<Integer> expanded = expandable(0);
+        int referenced = referencedBy(expanded);
+        assertTrue(shape.isComplete());
+        assertTrue("resolved " + compiler.getResolvedTypeCount() + " distinct types, " + referenced + " referenced",
+                compiler.getResolvedTypeCount() <= referenced);
+        // 不带包名的 T 不缓存，每个展开的类解析一次
+        assertTrue("resolved " + compiler.getResolveCount() + " types for " + expanded.size() + " classes referencing " +
+                   referenced + " types", compiler.getResolveCount() <= referenced + expanded.size());
+    }
+
+    public void testWarmGeneration_缓存命中不再解析() {
+        ClassShapeCache shapeCache = ClassShapeCache.getInstance(getProject());
+        new ShapeCompiler(getProject(), shapeCache).compile(findDto(0));
+
+        ShapeCompiler warm = new ShapeCompiler(getProject(), shapeCache);
+        warm.compile(findDto(0));
+        assertEquals(0, warm.getResolveCount());
+        assertEquals(0, warm.getExpandedCount());
+    }
+
+    public void testAllClasses_每个类只展开一次() {
+        ClassShapeCache shapeCache = ClassShapeCache.getInstance(getProject());
+        int resolves = 0;
+        int expanded = 0;
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            ShapeCompiler compiler = new ShapeCompiler(getProject(), shapeCache).sequential();
+            compiler.compile(findDto(i));
+            // 一次生成中每个带包名的类型（包括缓存里的未展开节点按名字查找的类）只解析一次，T 每个展开的类一次
+            assertTrue("Dto" + i + ": resolved " + compiler.getResolveCount() + " times, " + compiler.getResolvedTypeCount() +
+                       " distinct types, " + compiler.getExpandedCount() + " classes expanded",
+                    compiler.getResolveCount() <= compiler.getResolvedTypeCount() + compiler.getExpandedCount());
+            resolves += compiler.getResolveCount();
+            expanded += compiler.getExpandedCount();
+        }
+        // 每个 DTO 引用三个 DTO 类型和一个 T；缓存里的未展开节点展开前还要按名字查找一次类
+        assertTrue("resolved " + resolves + " types for " + expanded + " expanded classes",
+                resolves <= 5 * expanded);
+    }
+
+    public void testRepeatedType_同一类型每次生成只解析一次() {
+        myFixture.addClass("package dto;\n" +
+                "public class Address { private String street; }");
+        PsiClass holder = myFixture.addClass("package dto;\n" +
+                "public class Holder {\n" +
+                "    private Address home;\n" +
+                "    private Address office;\n" +
+                "    private java.util.List<Address> history;\n" +
+                "    private Address billing;\n" +
+                "    private Missing missing;\n" +
+                "    private Missing missingAgain;\n" +
+                "}");
+        ShapeCompiler compiler = new ShapeCompiler(getProject());
+        ClassShape shape = compiler.compile(holder);
+
+        assertEquals(6, shape.getFields().size());
+        // Address 解析一次；Missing 没有包名，每次都解析
+        assertEquals(3, compiler.getResolveCount());
+    }
+
+    public void testTypeKey_去掉类型参数() {
+        PsiElementFactory factory = JavaPsiFacade.getElementFactory(getProject());
+        assertEquals("java.util.Map", ShapeCompiler.typeKey(
+                (PsiClassType) factory.createTypeFromText("java.util.Map<java.lang.String, java.util.List<java.lang.Integer>>", null)));
+        assertNull(ShapeCompiler.typeKey((PsiClassType) factory.createTypeFromText("T", null)));
+    }
+
+    public void testWideClass_并行展开结果确定且每个类只展开一次() throws Exception {
+        StringBuilder source = new StringBuilder("package dto;\n\npublic class Wide {\n");
+        for (int i = 0; i < WIDE_FIELDS; i++) {
+            int target = i * 25;
+            source.append("    /** 字段").append(i).append(" */\n")
+                  .append("    private ").append(packageOf(target)).append(".Dto").append(target)
+                  .append(" f").append(i).append(";\n");
+        }
+        PsiClass wide = myFixture.addClass(source.append("}\n").toString());
+        ClassShapeCache shapeCache = ClassShapeCache.getInstance(getProject());
+
+        String expected = null;
+        String expectedGraph = null;
+        for (int run = 0; run < 3; run++) {
+            shapeCache.clear();
+            ShapeCompiler compiler = new ShapeCompiler(getProject(), shapeCache);
+            ClassShape shape = compiler.compile(wide);
+
+            assertEquals(WIDE_FIELDS, shape.getFields().size());
+            for (int i = 0; i < WIDE_FIELDS; i++) {
+                assertEquals("f" + i, shape.getFields().get(i).getName());
+            }
+            assertEquals(countCompleteNodes(shape), compiler.getExpandedCount());
+            String json = JsonOutput.writeToString(gen -> new ShapeJsonRenderer().writeRoot(gen, shape), true);
+            // 渲染结果之外，类结构图本身（节点、字段、类型和展开状态）也必须与展开顺序无关
+            String graph = describeGraph(shape);
+            if (expected == null) {
+                expected = json;
+                expectedGraph = graph;
+            } else {
+                assertEquals(expected, json);
+                assertEquals(expectedGraph, graph);
+            }
+        }
+    }
+
+    public void testColdGeneration_耗时() {
+        PsiClass root = findDto(0);
+        ClassShapeCache shapeCache = ClassShapeCache.getInstance(getProject());
+        PlatformTestUtil.startPerformanceTest("cold JSON generation over " + CLASS_COUNT + " DTOs", 2000, () -> {
+                    ClassShape shape = new ShapeCompiler(getProject(), shapeCache).compile(root);
+                    JsonOutput.writeToString(gen -> new ShapeJsonRenderer().writeRoot(gen, shape), true);
+                })
+                .setup(shapeCache::clear)
+                .attempts(3)
+                .assertTiming();
+    }
+
+    public void testWarmGeneration_耗时() {
+        PsiClass root = findDto(0);
+        ClassShapeCache shapeCache = ClassShapeCache.getInstance(getProject());
+        new ShapeCompiler(getProject(), shapeCache).compile(root);
+        PlatformTestUtil.startPerformanceTest("warm JSON generation over " + CLASS_COUNT + " DTOs", 200, () -> {
+                    ClassShape shape = new ShapeCompiler(getProject(), shapeCache).compile(root);
+                    JsonOutput.writeToString(gen -> new ShapeJsonRenderer().writeRoot(gen, shape), true);
+                })
+                .attempts(5)
+                .assertTiming();
+    }
+
+    private PsiClass findDto(int index) {
+        PsiClass psiClass = JavaPsiFacade.getInstance(getProject())
+                .findClass(packageOf(index) + ".Dto" + index, GlobalSearchScope.projectScope(getProject()));
+        assertNotNull(psiClass);
+        return psiClass;
+    }
+
+    // 从根节点可以到达的已展开的项目类节点数
+    private static int countCompleteNodes(ClassShape root) {
+        Set<ClassShape> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<ClassShape> queue = new ArrayDeque<>();
+        queue.add(root);
+        visited.add(root);
+        int count = 0;
+        while (!queue.isEmpty()) {
+            ClassShape shape = queue.poll();
+            if (!shape.isComplete() || shape.isJavaStandard()) {
+                continue;
+            }
+            count++;
+            for (FieldShape field : shape.getFields()) {
+                ClassShape target = ShapeSchemaRenderer.targetOf(field.getType());
+                if (target != null && visited.add(target)) {
+                    queue.add(target);
+                }
+            }
+        }
+        return count;
+    }
+
+    // 按字段顺序遍历从根节点可以到达的节点，每个节点一行：类名、是否展开和每个字段的类型
+    private static String describeGraph(ClassShape root) {
+        Set<ClassShape> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<ClassShape> queue = new ArrayDeque<>();
+        queue.add(root);
+        visited.add(root);
+        StringBuilder sb = new StringBuilder();
+        while (!queue.isEmpty()) {
+            ClassShape shape = queue.poll();
+            sb.append(shape.getQualifiedName()).append(shape.isComplete() ? "" : " (pending)");
+            for (FieldShape field : shape.getFields()) {
+                sb.append(" | ").append(field).append(field.hasComment() ? " /** " + field.getComment() + " */" : "");
+                ClassShape target = ShapeSchemaRenderer.targetOf(field.getType());
+                if (target != null && visited.add(target)) {
+                    queue.add(target);
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    // 按编译深度计算根节点能展开到的 DTO
+    private static Set<Integer> expandable(int root) {
+        Map<Integer, Integer> distances = new HashMap<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        distances.put(root, 0);
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            int distance = distances.get(current);
+            if (distance + 1 >= ShapeCompiler.ROOT_BUDGET) {
+                continue;
+            }
+            for (int next : new int[]{next(current), previous(current), child(current)}) {
+                if (!distances.containsKey(next)) {
+                    distances.put(next, distance + 1);
+                    queue.add(next);
+                }
+            }
+        }
+        return distances.keySet();
+    }
+
+    // 展开的 DTO 的字段引用的不同 DTO 类型数量
+    private static int referencedBy(Set<Integer> expanded) {
+        Set<Integer> referenced = new HashSet<>();
+        for (int i : expanded) {
+            referenced.add(next(i));
+            referenced.add(previous(i));
+            referenced.add(child(i));
+        }
+        return referenced.size();
+    }
+
+    private static int next(int i) {
+        return (i + 1) % CLASS_COUNT;
+    }
+
+    private static int previous(int i) {
+        return (i + CLASS_COUNT - 1) % CLASS_COUNT;
+    }
+
+    private static int child(int i) {
+        return (i * 7 + 3) % CLASS_COUNT;
+    }
+
+    private static String packageOf(int i) {
+        return "dto.p" + (i % PACKAGE_COUNT);
+    }
+
+    private static String dtoSource(int i) {
+        return "package " + packageOf(i) + ";\n" +
+                "\n" +
+                "import java.util.List;\n" +
+                "import java.util.Map;\n" +
+                "\n" +
+                "public class Dto" + i + " extends dto.Base<" + packageOf(next(i)) + ".Dto" + next(i) + "> {\n" +
+                "    /** 编号 */\n" +
+                "    private Long id;\n" +
+                "    /** 名称，见 {@code name} */\n" +
+                "    private String name;\n" +
+                "    /** 下一个 */\n" +
+                "    private " + packageOf(next(i)) + ".Dto" + next(i) + " next;\n" +
+                "    /** 上一个 */\n" +
+                "    private " + packageOf(previous(i)) + ".Dto" + previous(i) + " previous;\n" +
+                "    /** 子节点 */\n" +
+                "    private List<" + packageOf(child(i)) + ".Dto" + child(i) + "> children;\n" +
+                "    /** 标签 */\n" +
+                "    private List<String> tags;\n" +
+                "    /** 属性 */\n" +
+                "    private Map<String, String> attributes;\n" +
+                "    /** 常量不输出 */\n" +
+                "    private static final int VERSION = 1;\n" +
+                "}\n";
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.java2json;
+
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预热的类：最近转换过的类在前，然后是配置的包下的类；已经缓存的类不再编译。
+ */
+public class ShapePrewarmerTest extends LightJavaCodeInsightFixtureTestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            PropertiesComponent.getInstance(getProject()).unsetValue(ShapePrewarmer.RECENT_CLASSES_KEY);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testRemember_最近转换的类排在前面并且去重限量() {
+        ShapePrewarmer.remember(getProject(), List.of("dto.A", "dto.B"));
+        ShapePrewarmer.remember(getProject(), List.of("dto.C", "dto.A"));
+        assertEquals(List.of("dto.C", "dto.A", "dto.B"), ShapePrewarmer.recentClasses(getProject()));
+
+        List<String> many = new ArrayList<>();
+        for (int i = 0; i < ShapePrewarmer.MAX_RECENT_CLASSES + 10; i++) {
+            many.add("dto.Class" + i);
+        }
+        ShapePrewarmer.remember(getProject(), many);
+        List<String> recent = ShapePrewarmer.recentClasses(getProject());
+        assertEquals(ShapePrewarmer.MAX_RECENT_CLASSES, recent.size());
+        assertEquals("dto.Class0", recent.get(0));
+    }
+
+    public void testClassesToWarm_最近的类和配置的包中的类() {
+        myFixture.addClass("package api.dto; public class Order { String id; }");
+        myFixture.addClass("package api.dto.sub; public class Item { int count; }");
+        myFixture.addClass("package api.dto; public interface Marker { }");
+        myFixture.addClass("package other; public class Recent { }");
+        ShapePrewarmer.remember(getProject(), List.of("other.Recent", "api.dto.Order"));
+
+        List<String> classes = ShapePrewarmer.classesToWarm(getProject(), ShapePrewarmer.splitPackages(" api.dto, missing.pkg ;"));
+        assertEquals(List.of("other.Recent", "api.dto.Order", "api.dto.sub.Item"), classes);
+    }
+
+    public void testWarm_编译后放入缓存已缓存的类跳过() {
+        myFixture.addClass("package api.dto; public class Order { String id; Customer customer; }");
+        myFixture.addClass("package api.dto; public class Customer { String name; }");
+        ClassShapeCache cache = new ClassShapeCache(getProject());
+
+        assertTrue(ShapePrewarmer.warm(getProject(), cache, "api.dto.Order"));
+        assertNotNull(cache.get("api.dto.Order"));
+        assertNotNull(cache.get("api.dto.Customer"));
+        assertFalse(ShapePrewarmer.warm(getProject(), cache, "api.dto.Order"));
+        assertFalse(ShapePrewarmer.warm(getProject(), cache, "api.dto.Missing"));
+    }
+}
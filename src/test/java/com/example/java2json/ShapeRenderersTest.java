@@ -0,0 +1,219 @@
+package com.example.java2json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class ShapeRenderersTest {
+
+    // Order { id: Long, tags: List<String>, customer: Customer, items: List<Item> }，Customer.orders 引用回 Order
+    private static ClassShape order() {
+        ClassShape order = new ClassShape("dto.Order");
+        ClassShape customer = new ClassShape("dto.Customer");
+        ClassShape item = new ClassShape("other.Item");
+        customer.complete(Arrays.asList(
+                new FieldShape("name", "客户名称", TypeShape.valueOf(TypeShape.ValueType.STRING)),
+                new FieldShape("orders", null, TypeShape.arrayOf(TypeShape.objectOf(order)))));
+        item.complete(Collections.singletonList(
+                new FieldShape("on", "是否启用", TypeShape.valueOf(TypeShape.ValueType.BOOLEAN))));
+        order.complete(Arrays.asList(
+                new FieldShape("id", "订单号", TypeShape.valueOf(TypeShape.ValueType.INTEGER)),
+                new FieldShape("tags", null, TypeShape.arrayOf(TypeShape.valueOf(TypeShape.ValueType.STRING))),
+                new FieldShape("customer", "下单客户", TypeShape.objectOf(customer)),
+                new FieldShape("items", "明细", TypeShape.arrayOf(TypeShape.objectOf(item))),
+                new FieldShape("extra", null, TypeShape.MAP)));
+        return order;
+    }
+
+    @Test
+    public void testSchema_每个类只定义一次并通过ref引用() throws Exception {
+        JsonNode schema = new ObjectMapper().readTree(OutputFormat.JSON_SCHEMA.render(order()));
+
+        assertEquals(ShapeSchemaRenderer.SCHEMA_VERSION, schema.get("$schema").asText());
+        assertEquals("#/$defs/dto.Order", schema.get("$ref").asText());
+        JsonNode defs = schema.get("$defs");
+        assertEquals(3, defs.size());
+        JsonNode order = defs.get("dto.Order").get("properties");
+        assertEquals("integer", order.get("id").get("type").asText());
+        assertEquals("订单号", order.get("id").get("description").asText());
+        assertEquals("string", order.get("tags").get("items").get("type").asText());
+        assertEquals("#/$defs/other.Item", order.get("items").get("items").get("$ref").asText());
+        assertEquals("object", order.get("extra").get("type").asText());
+        // 循环引用同样写成 $ref
+        assertEquals("#/$defs/dto.Order",
+                defs.get("dto.Customer").get("properties").get("orders").get("items").get("$ref").asText());
+    }
+
+    @Test
+    public void testSchema_类型名与默认语言环境无关() throws Exception {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            JsonNode schema = new ObjectMapper().readTree(OutputFormat.JSON_SCHEMA.render(order()));
+
+            assertEquals("integer", schema.get("$defs").get("dto.Order").get("properties").get("id").get("type").asText());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testSchema_未展开的类写成普通对象() throws Exception {
+        ClassShape root = new ClassShape("dto.Root");
+        root.complete(Collections.singletonList(
+                new FieldShape("lazy", null, TypeShape.objectOf(new ClassShape("dto.Lazy")))));
+        JsonNode schema = new ObjectMapper().readTree(OutputFormat.JSON_SCHEMA.render(root));
+
+        assertEquals(1, schema.get("$defs").size());
+        assertEquals("object", schema.get("$defs").get("dto.Root").get("properties").get("lazy").get("type").asText());
+    }
+
+    @Test
+    public void testTypeScript_输出接口和JSDoc() {
+        String ts = OutputFormat.TYPESCRIPT.render(order());
+
+        assertEquals("export interface Order {\n" +
+                     "  /** 订单号 */\n" +
+                     "  id: number;\n" +
+                     "  tags: string[];\n" +
+                     "  /** 下单客户 */\n" +
+                     "  customer: Customer;\n" +
+                     "  /** 明细 */\n" +
+                     "  items: Item[];\n" +
+                     "  extra: Record<string, unknown>;\n" +
+                     "}\n" +
+                     "\n" +
+                     "export interface Customer {\n" +
+                     "  /** 客户名称 */\n" +
+                     "  name: string;\n" +
+                     "  orders: Order[];\n" +
+                     "}\n" +
+                     "\n" +
+                     "export interface Item {\n" +
+                     "  /** 是否启用 */\n" +
+                     "  on: boolean;\n" +
+                     "}\n", ts);
+    }
+
+    @Test
+    public void testTypeScript_同名类加序号区分() {
+        ClassShape root = new ClassShape("a.Item");
+        ClassShape other = new ClassShape("b.Item");
+        other.complete(Collections.emptyList());
+        root.complete(Collections.singletonList(new FieldShape("other", null, TypeShape.objectOf(other))));
+
+        String ts = OutputFormat.TYPESCRIPT.render(root);
+        assertTrue(ts, ts.contains("export interface Item {\n  other: Item2;\n}"));
+        assertTrue(ts, ts.contains("export interface Item2 {\n}"));
+    }
+
+    @Test
+    public void testYaml_与JSON样例内容一致() throws Exception {
+        ClassShape root = order();
+        String yaml = OutputFormat.YAML_SAMPLE.render(root);
+
+        assertEquals("id: \"${订单号}\"\n" +
+                     "tags:\n" +
+                     "  - {}\n" +
+                     "customer:\n" +
+                     "  name: \"${客户名称}\"\n" +
+                     "  orders:\n" +
+                     "    - {}\n" +
+                     "items:\n" +
+                     "  - \"on\": \"${是否启用}\"\n" +
+                     "extra: {}\n", yaml);
+    }
+
+    @Test
+    public void testYaml_字符串转义() throws Exception {
+        ClassShape root = new ClassShape("dto.Root");
+        root.complete(Collections.singletonList(new FieldShape("a b", "说明 \"引号\"", TypeShape.VALUE)));
+
+        assertEquals("\"a b\": \"${说明 \\\"引号\\\"}\"\n", OutputFormat.YAML_SAMPLE.render(root));
+    }
+
+    @Test
+    public void testUnresolved_无法解析的类型写成占位对象() throws Exception {
+        ClassShape root = new ClassShape("dto.Root");
+        root.complete(Arrays.asList(
+                new FieldShape("customer", "客户", TypeShape.unresolved("Customer")),
+                new FieldShape("items", null, TypeShape.arrayOf(TypeShape.unresolved("Item<String>")))));
+
+        assertEquals("{\"customer\":{\"$unresolved\":\"Customer\"},\"items\":[{\"$unresolved\":\"Item<String>\"}]}",
+                render(new ShapeJsonRenderer(GenerationBudget.DEFAULT), root));
+        assertEquals("[customer: ?Customer, items: [?Item<String>]]", root.getFields().toString());
+    }
+
+    // 链表 Node0 -> Node1 -> ... 每个节点有 value 和 next 两个字段
+    private static ClassShape chain(int length) {
+        ClassShape[] nodes = new ClassShape[length];
+        for (int i = 0; i < length; i++) {
+            nodes[i] = new ClassShape("dto.Node" + i);
+        }
+        for (int i = 0; i < length; i++) {
+            FieldShape value = new FieldShape("value", "值", TypeShape.VALUE);
+            nodes[i].complete(i + 1 < length
+                    ? Arrays.asList(value, new FieldShape("next", null, TypeShape.objectOf(nodes[i + 1])))
+                    : Collections.singletonList(value));
+        }
+        return nodes[0];
+    }
+
+    private static String render(ShapeJsonRenderer renderer, ClassShape root) throws Exception {
+        return JsonOutput.writeToString(gen -> renderer.writeRoot(gen, root), false);
+    }
+
+    @Test
+    public void testBudget_超过层数写出截断占位符() throws Exception {
+        ShapeJsonRenderer renderer = new ShapeJsonRenderer(new GenerationBudget(1, 1000, 1 << 20));
+
+        assertEquals("{\"value\":\"${值}\",\"next\":{\"value\":\"${值}\",\"next\":{\"value\":\"${值}\"," +
+                     "\"next\":{\"$truncated\":\"max depth 1 reached at $.next.next.next\"}}}}",
+                render(renderer, chain(10)));
+        assertEquals(1, renderer.getTruncations());
+        assertFalse(renderer.isStopped());
+    }
+
+    @Test
+    public void testBudget_对象数用完后停止输出() throws Exception {
+        ShapeJsonRenderer renderer = new ShapeJsonRenderer(new GenerationBudget(100, 3, 1 << 20));
+        String json = render(renderer, chain(10));
+
+        assertEquals("{\"value\":\"${值}\",\"next\":{\"value\":\"${值}\",\"next\":{\"value\":\"${值}\"," +
+                     "\"next\":{\"$truncated\":\"max nodes 3 reached at $.next.next.next\"}}}}", json);
+        assertTrue(renderer.isStopped());
+        // 停止后写出的根对象是空的
+        assertEquals("{}", render(renderer, chain(2)));
+    }
+
+    @Test
+    public void testBudget_字节数用完后停止输出并保持合法JSON() throws Exception {
+        ClassShape root = new ClassShape("dto.Wide");
+        ClassShape item = new ClassShape("dto.Item");
+        item.complete(Collections.singletonList(new FieldShape("text", "很长的说明文字", TypeShape.VALUE)));
+        FieldShape[] fields = new FieldShape[200];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new FieldShape("item" + i, null, TypeShape.arrayOf(TypeShape.objectOf(item)));
+        }
+        root.complete(Arrays.asList(fields));
+
+        ShapeJsonRenderer renderer = new ShapeJsonRenderer(new GenerationBudget(5, 100_000, 1024));
+        String json = render(renderer, root);
+
+        assertTrue(renderer.isStopped());
+        assertTrue(json.length() < 2048);
+        JsonNode node = new ObjectMapper().readTree(json);
+        JsonNode last = null;
+        for (JsonNode value : node) {
+            last = value;
+        }
+        assertNotNull(last);
+        assertTrue(last.get(0).get(ShapeJsonRenderer.TRUNCATED_FIELD).asText().startsWith("max output 1024 bytes reached at $.item"));
+    }
+}